@@ -625,6 +625,7 @@ public class PostLogsTool extends ToolBase {
     map.put(ShardRequest.PURPOSE_REFINE_PIVOT_FACETS, "REFINE_PIVOT_FACETS");
     map.put(ShardRequest.PURPOSE_SET_TERM_STATS, "SET_TERM_STATS");
     map.put(ShardRequest.PURPOSE_GET_TERM_STATS, "GET_TERM_STATS");
+    map.put(ShardRequest.PURPOSE_GET_SCORE_BOUNDS, "GET_SCORE_BOUNDS");
     purposes = Collections.unmodifiableMap(map);
   }
 }
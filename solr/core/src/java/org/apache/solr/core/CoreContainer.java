@@ -57,6 +57,8 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -94,6 +96,7 @@ import org.apache.solr.common.cloud.SolrZkClient;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.util.CollectionUtil;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.IOUtils;
 import org.apache.solr.common.util.ObjectCache;
@@ -142,6 +145,7 @@ import org.apache.solr.request.SolrRequestHandler;
 import org.apache.solr.request.SolrRequestInfo;
 import org.apache.solr.search.CacheConfig;
 import org.apache.solr.search.CaffeineCache;
+import org.apache.solr.search.SharedCaffeineCache;
 import org.apache.solr.search.SolrCache;
 import org.apache.solr.search.SolrFieldCacheBean;
 import org.apache.solr.search.SolrIndexSearcher;
@@ -191,6 +195,14 @@ public class CoreContainer {
     return indexFingerprintExecutor;
   }
 
+  /**
+   * The threads parsing large update requests in parallel, shared by all the requests of the node.
+   * Tasks are rejected when they are all busy, and should then be run by the caller.
+   */
+  public ExecutorService getUpdateParserExecutor() {
+    return updateParserExecutor;
+  }
+
   public static class CoreLoadFailure {
 
     public final CoreDescriptor cd;
@@ -287,6 +299,8 @@ public class CoreContainer {
 
   private volatile Map<String, SolrCache<?, ?>> caches;
 
+  private volatile SharedCaffeineCache.Store sharedCacheStore;
+
   private final ObjectCache objectCache = new ObjectCache();
 
   public final NodeRoles nodeRoles = new NodeRoles(System.getProperty(NodeRoles.NODE_ROLES_PROP));
@@ -295,6 +309,8 @@ public class CoreContainer {
 
   private final ExecutorService indexFingerprintExecutor;
 
+  private final ExecutorService updateParserExecutor;
+
   private final ClusterSingletons clusterSingletons =
       new ClusterSingletons(
           () ->
@@ -454,6 +470,20 @@ public class CoreContainer {
             EXECUTOR_MAX_CPU_THREADS,
             Integer.MAX_VALUE,
             new SolrNamedThreadFactory("IndexFingerprintPool"));
+
+    int updateParserThreads =
+        EnvUtils.getPropertyAsInteger("solr.update.parseThreads", EXECUTOR_MAX_CPU_THREADS);
+    // no queue: a chunk no thread is free for is rejected, and parsed by the request thread
+    ExecutorUtil.MDCAwareThreadPoolExecutor updateParserPool =
+        new ExecutorUtil.MDCAwareThreadPoolExecutor(
+            updateParserThreads,
+            updateParserThreads,
+            60L,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            new SolrNamedThreadFactory("updateParserExecutor"));
+    updateParserPool.allowCoreThreadTimeOut(true);
+    this.updateParserExecutor = updateParserPool;
   }
 
   @SuppressWarnings({"unchecked"})
@@ -637,6 +667,7 @@ public class CoreContainer {
     allowListUrlChecker = null;
     indexSearcherExecutor = null;
     indexFingerprintExecutor = null;
+    updateParserExecutor = null;
   }
 
   public static CoreContainer createAndLoad(Path solrHome) {
@@ -699,6 +730,14 @@ public class CoreContainer {
     return caches.get(name);
   }
 
+  /**
+   * The store holding the entries of all cores' {@link SharedCaffeineCache}s, or null if solr.xml
+   * doesn't set {@code sharedCacheRamMB}.
+   */
+  public SharedCaffeineCache.Store getSharedCacheStore() {
+    return sharedCacheStore;
+  }
+
   /**
    * The {@link SolrClientCache} is mostly for streaming expressions. Prefer other clients for other
    * use-cases.
@@ -813,6 +852,12 @@ public class CoreContainer {
       this.caches = Collections.unmodifiableMap(m);
     }
 
+    if (cfg.getSharedCacheRamMB() > 0) {
+      sharedCacheStore =
+          SharedCaffeineCache.Store.ofRamBytes(cfg.getSharedCacheRamMB() * 1024L * 1024L);
+      sharedCacheStore.initializeMetrics(solrMetricsContext, Attributes.empty());
+    }
+
     StartupLoggingUtils.checkRequestLogging();
 
     hostName = cfg.getNodeName();
@@ -1231,6 +1276,8 @@ public class CoreContainer {
     ExecutorUtil.shutdownAndAwaitTermination(coreContainerAsyncTaskExecutor);
     ExecutorUtil.shutdownAndAwaitTermination(indexSearcherExecutor);
     ExecutorUtil.shutdownNowAndAwaitTermination(indexFingerprintExecutor);
+    // let the running parse tasks finish, since requests are waiting for them
+    ExecutorUtil.shutdownAndAwaitTermination(updateParserExecutor);
     ExecutorService customThreadPool =
         ExecutorUtil.newMDCAwareCachedThreadPool(new SolrNamedThreadFactory("closeThreadPool"));
 
@@ -107,6 +107,8 @@ public class NodeConfig {
 
   private final int indexSearcherExecutorThreads;
 
+  private final int sharedCacheRamMB;
+
   private final boolean useSchemaCache;
 
   private final PluginInfo[] backupRepositoryPlugins;
@@ -143,6 +145,7 @@ public class NodeConfig {
       Integer coreLoadThreads,
       int replayUpdatesThreads,
       int indexSearcherExecutorThreads,
+      int sharedCacheRamMB,
       boolean useSchemaCache,
       Path solrHome,
       SolrResourceLoader loader,
@@ -181,6 +184,7 @@ public class NodeConfig {
     this.coreLoadThreads = coreLoadThreads;
     this.replayUpdatesThreads = replayUpdatesThreads;
     this.indexSearcherExecutorThreads = indexSearcherExecutorThreads;
+    this.sharedCacheRamMB = sharedCacheRamMB;
     this.useSchemaCache = useSchemaCache;
     this.solrHome = solrHome;
     this.loader = loader;
@@ -336,6 +340,14 @@ public class NodeConfig {
     return indexSearcherExecutorThreads;
   }
 
+  /**
+   * The memory budget, in MB, shared by the {@link org.apache.solr.search.SharedCaffeineCache}
+   * instances of all cores on this node; -1 if there is none.
+   */
+  public int getSharedCacheRamMB() {
+    return sharedCacheRamMB;
+  }
+
   /**
    * Returns a directory, optionally a comma separated list of directories that will be added to
    * Solr's class path for searching for classes and plugins. The path is either absolute or
@@ -591,6 +603,7 @@ public class NodeConfig {
     private int coreLoadThreads = DEFAULT_CORE_LOAD_THREADS;
     private int replayUpdatesThreads = Runtime.getRuntime().availableProcessors();
     private int indexSearcherExecutorThreads = DEFAULT_INDEX_SEARCHER_EXECUTOR_THREADS;
+    private int sharedCacheRamMB = -1;
     private boolean useSchemaCache = false;
     private Properties solrProperties = new Properties();
     private PluginInfo[] backupRepositoryPlugins;
@@ -755,6 +768,11 @@ public class NodeConfig {
       return this;
     }
 
+    public NodeConfigBuilder setSharedCacheRamMB(int sharedCacheRamMB) {
+      this.sharedCacheRamMB = sharedCacheRamMB;
+      return this;
+    }
+
     public NodeConfigBuilder setUseSchemaCache(boolean useSchemaCache) {
       this.useSchemaCache = useSchemaCache;
       return this;
@@ -884,6 +902,7 @@ public class NodeConfig {
           coreLoadThreads,
           replayUpdatesThreads,
           indexSearcherExecutorThreads,
+          sharedCacheRamMB,
           useSchemaCache,
           solrHome,
           loader,
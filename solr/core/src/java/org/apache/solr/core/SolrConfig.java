@@ -296,6 +296,11 @@ public class SolrConfig implements MapSerializable {
           get("query").get("queryResultMaxDocsCached").intVal(Integer.MAX_VALUE);
       enableLazyFieldLoading = get("query").get("enableLazyFieldLoading").boolVal(false);
 
+      ConfigNode segmentFilterCache = get("query").get("segmentFilterCache");
+      segmentFilterCacheMaxSize =
+          segmentFilterCache.exists() ? segmentFilterCache.intAttr("maxSize", 10000) : 0;
+      segmentFilterCacheMaxRamMB = segmentFilterCache.intAttr("maxRamMB", 256);
+
       filterCacheConfig =
           CacheConfig.getConfig(this, get("query").get("filterCache"), "query/filterCache");
       queryResultCacheConfig =
@@ -304,6 +309,9 @@ public class SolrConfig implements MapSerializable {
       featureVectorCacheConfig =
           CacheConfig.getConfig(
               this, get("query").get("featureVectorCache"), "query/featureVectorCache");
+      filterIntersectionCacheConfig =
+          CacheConfig.getConfig(
+              this, get("query").get("filterIntersectionCache"), "query/filterIntersectionCache");
       documentCacheConfig =
           CacheConfig.getConfig(this, get("query").get("documentCache"), "query/documentCache");
       CacheConfig conf =
@@ -330,6 +338,9 @@ public class SolrConfig implements MapSerializable {
       httpCachingConfig = new HttpCachingConfig(this);
 
       maxWarmingSearchers = get("query").get("maxWarmingSearchers").intVal(1);
+      autowarmThreads = Math.max(1, get("query").get("autowarmThreads").intVal(1));
+      autowarmRegisterFraction =
+          Math.min(1.0, Math.max(0.0, get("query").get("autowarmRegisterFraction").doubleVal(1.0)));
       slowQueryThresholdMillis = get("query").get("slowQueryThresholdMillis").intVal(-1);
       for (SolrPluginInfo plugin : plugins) loadPluginInfo(plugin);
 
@@ -658,12 +669,16 @@ public class SolrConfig implements MapSerializable {
   public final CacheConfig documentCacheConfig;
   public final CacheConfig fieldValueCacheConfig;
   public final CacheConfig featureVectorCacheConfig;
+  public final CacheConfig filterIntersectionCacheConfig;
   public final Map<String, CacheConfig> userCacheConfigs;
   // SolrIndexSearcher - more...
   public final boolean useFilterForSortedQuery;
   public final int queryResultWindowSize;
   public final int queryResultMaxDocsCached;
   public final boolean enableLazyFieldLoading;
+  // per-segment filter matches shared by all searchers of a core; 0 means disabled
+  public final int segmentFilterCacheMaxSize;
+  public final int segmentFilterCacheMaxRamMB;
 
   // IndexConfig settings
   public final SolrIndexConfig indexConfig;
@@ -673,6 +688,9 @@ public class SolrConfig implements MapSerializable {
   private Map<String, List<PluginInfo>> pluginStore = new LinkedHashMap<>();
 
   public final int maxWarmingSearchers;
+  // concurrent autowarming: threads, and the fraction of entries warmed before registering
+  public final int autowarmThreads;
+  public final double autowarmRegisterFraction;
   public final boolean useColdSearcher;
   public final Version luceneMatchVersion;
   protected String dataDir;
@@ -789,6 +807,8 @@ public class SolrConfig implements MapSerializable {
         autoSoftCommmitMaxDocs,
         autoSoftCommmitMaxTime;
     public final long autoCommitMaxSizeBytes;
+    // the longest autoSoftCommit maxTime may be stretched to under load, -1 if not adaptive
+    public final int autoSoftCommitMaxStaleTime;
     public final boolean openSearcher; // is opening a new searcher part of hard autocommit?
     public final boolean commitWithinSoftCommit;
     public final String commitPollInterval;
@@ -817,6 +837,7 @@ public class SolrConfig implements MapSerializable {
 
       this.autoSoftCommmitMaxDocs = autoSoftCommmitMaxDocs;
       this.autoSoftCommmitMaxTime = autoSoftCommmitMaxTime;
+      this.autoSoftCommitMaxStaleTime = -1;
 
       this.commitWithinSoftCommit = commitWithinSoftCommit;
       this.commitPollInterval = commitPollInterval;
@@ -833,6 +854,8 @@ public class SolrConfig implements MapSerializable {
       this.openSearcher = autoCommit.get("openSearcher").boolVal(true);
       this.autoSoftCommmitMaxDocs = updateHandler.get("autoSoftCommit").get("maxDocs").intVal(-1);
       this.autoSoftCommmitMaxTime = updateHandler.get("autoSoftCommit").get("maxTime").intVal(-1);
+      this.autoSoftCommitMaxStaleTime =
+          updateHandler.get("autoSoftCommit").get("maxStaleTime").intVal(-1);
       this.commitWithinSoftCommit =
           updateHandler.get("commitWithin").get("softCommit").boolVal(true);
       this.commitPollInterval = updateHandler.get("commitPollInterval").txt();
@@ -851,7 +874,12 @@ public class SolrConfig implements MapSerializable {
               "openSearcher", openSearcher));
       map.put(
           "autoSoftCommit",
-          Map.of("maxDocs", autoSoftCommmitMaxDocs, "maxTime", autoSoftCommmitMaxTime));
+          autoSoftCommitMaxStaleTime > 0
+              ? Map.of(
+                  "maxDocs", autoSoftCommmitMaxDocs,
+                  "maxTime", autoSoftCommmitMaxTime,
+                  "maxStaleTime", autoSoftCommitMaxStaleTime)
+              : Map.of("maxDocs", autoSoftCommmitMaxDocs, "maxTime", autoSoftCommmitMaxTime));
       map.put("commitPollInterval", commitPollInterval);
       return map;
     }
@@ -962,6 +990,15 @@ public class SolrConfig implements MapSerializable {
     m.put("queryResultWindowSize", queryResultWindowSize);
     m.put("queryResultMaxDocsCached", queryResultMaxDocsCached);
     m.put("enableLazyFieldLoading", enableLazyFieldLoading);
+    if (segmentFilterCacheMaxSize > 0) {
+      m.put(
+          "segmentFilterCache",
+          Map.of("maxSize", segmentFilterCacheMaxSize, "maxRamMB", segmentFilterCacheMaxRamMB));
+    }
+    if (autowarmThreads > 1) {
+      m.put("autowarmThreads", autowarmThreads);
+      m.put("autowarmRegisterFraction", autowarmRegisterFraction);
+    }
     m.put("maxBooleanClauses", booleanQueryMaxClauseCount);
     m.put(MIN_PREFIX_QUERY_TERM_LENGTH, prefixQueryMinPrefixLength);
 
@@ -999,7 +1036,8 @@ public class SolrConfig implements MapSerializable {
         queryResultCacheConfig,
         documentCacheConfig,
         fieldValueCacheConfig,
-        featureVectorCacheConfig);
+        featureVectorCacheConfig,
+        filterIntersectionCacheConfig);
     m = new LinkedHashMap<>();
     result.put("requestDispatcher", m);
     if (httpCachingConfig != null) m.put("httpCaching", httpCachingConfig);
@@ -151,6 +151,7 @@ import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.ManagedIndexSchema;
 import org.apache.solr.schema.SimilarityFactory;
 import org.apache.solr.search.QParserPlugin;
+import org.apache.solr.search.SegmentFilterCache;
 import org.apache.solr.search.SolrFieldCacheBean;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.ValueSourceParser;
@@ -1149,6 +1150,17 @@ public class SolrCore implements SolrInfoBean, Closeable {
 
       this.maxWarmingSearchers = solrConfig.maxWarmingSearchers;
       this.slowQueryThresholdMillis = solrConfig.slowQueryThresholdMillis;
+      this.segmentFilterCache =
+          solrConfig.segmentFilterCacheMaxSize > 0
+              ? new SegmentFilterCache(
+                  solrConfig.segmentFilterCacheMaxSize,
+                  solrConfig.segmentFilterCacheMaxRamMB * 1024L * 1024L)
+              : null;
+      this.autowarmExecutor =
+          solrConfig.autowarmThreads > 1
+              ? ExecutorUtil.newMDCAwareFixedThreadPool(
+                  solrConfig.autowarmThreads, new SolrNamedThreadFactory("autowarmExecutor"))
+              : null;
 
       initListeners();
 
@@ -1765,6 +1777,14 @@ public class SolrCore implements SolrInfoBean, Closeable {
     return circuitBreakerRegistry;
   }
 
+  /**
+   * Returns the per-segment filter matches shared by this core's searchers, or null if not
+   * configured.
+   */
+  public SegmentFilterCache getSegmentFilterCache() {
+    return segmentFilterCache;
+  }
+
   // this core current usage count
   private final AtomicInteger refCount = new AtomicInteger(1);
 
@@ -1898,6 +1918,17 @@ public class SolrCore implements SolrInfoBean, Closeable {
     }
     assert ObjectReleaseTracker.release(searcherExecutor);
 
+    try {
+      // stop any background autowarming; its searchers are about to be closed. The queued tasks
+      // skip their work once the executor is shut down, but still run to release their searcher
+      ExecutorUtil.shutdownAndAwaitTermination(autowarmExecutor);
+    } catch (Throwable e) {
+      log.error("Exception shutting down autowarmExecutor", e);
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+    }
+
     try {
       // Since we waited for the searcherExecutor to shut down,
       // there should be no more searchers warming in the background
@@ -2149,6 +2180,9 @@ public class SolrCore implements SolrInfoBean, Closeable {
       new ReentrantLock(true); // used to serialize opens/reopens for absolute ordering
   private final int maxWarmingSearchers; // max number of on-deck searchers allowed
   private final int slowQueryThresholdMillis; // threshold above which a query is considered slow
+  private final SegmentFilterCache segmentFilterCache;
+  // regenerates cache entries concurrently; null when autowarming is single threaded
+  private final ExecutorService autowarmExecutor;
 
   private RefCounted<SolrIndexSearcher> realtimeSearcher;
   private Callable<DirectoryReader> newReaderCreator;
@@ -2699,7 +2733,15 @@ public class SolrCore implements SolrInfoBean, Closeable {
                   () -> {
                     AttributedLongTimer.MetricTimer warmupContext = newSearcherWarmupTimer.start();
                     try {
-                      newSearcher.warm(currSearcher);
+                      if (autowarmExecutor != null) {
+                        newSearcher.warm(
+                            currSearcher,
+                            autowarmExecutor,
+                            solrConfig.autowarmRegisterFraction,
+                            newSearchHolder);
+                      } else {
+                        newSearcher.warm(currSearcher);
+                      }
                     } catch (Throwable e) {
                       log.error("Exception warming new searcher", e);
                       if (e instanceof Error) {
@@ -378,6 +378,9 @@ public class SolrXmlConfig {
               case "indexSearcherExecutorThreads":
                 builder.setIndexSearcherExecutorThreads(it.intVal(-1));
                 break;
+              case "sharedCacheRamMB":
+                builder.setSharedCacheRamMB(it.intVal(-1));
+                break;
               case "allowUrls":
                 builder.setAllowUrls(separateStrings(it.txt()));
                 break;
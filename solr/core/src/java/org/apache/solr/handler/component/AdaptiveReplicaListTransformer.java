@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.apache.solr.client.solrj.routing.ReplicaListTransformer;
+import org.apache.solr.client.solrj.routing.ReplicaListTransformerFactory;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.params.SolrParams;
+
+/**
+ * Orders the replicas of a shard by how fast they have been answering shard requests recently,
+ * like the C3 and Elasticsearch adaptive replica selection algorithms. Each replica is ranked by
+ * an exponentially weighted moving average of its response times, multiplied by the cube of one
+ * more than its outstanding requests, so that a replica slowed down by GC or merges, or one that
+ * is already busy, gets fewer requests.
+ *
+ * <p>Replicas that have not answered yet rank first, so that they are measured. The average of a
+ * replica decays with the time since it was last measured, halving every ten seconds, so that one
+ * that was slow is tried again eventually. Replicas with equal rank stay in random order. The
+ * statistics of replicas that haven't been among the choices for ten minutes, such as those that
+ * were deleted or moved, are dropped.
+ *
+ * <p>One instance, owned by the {@link HttpShardHandlerFactory}, keeps the statistics of all the
+ * replicas this node sends requests to. It is updated by {@link HttpShardHandler} as requests are
+ * sent to the first replica of each list and answered.
+ */
+public class AdaptiveReplicaListTransformer
+    implements ReplicaListTransformer, ReplicaListTransformerFactory {
+  // weight of the latest response time in the moving average
+  private static final double ALPHA = 0.3;
+  // the average of a replica halves every this often while it isn't measured
+  private static final long DECAY_HALF_LIFE_NS = TimeUnit.SECONDS.toNanos(10);
+  // statistics of replicas not among the choices for this long are dropped
+  private static final long STALE_NS = TimeUnit.MINUTES.toNanos(10);
+  // how often to look for stale statistics
+  private static final long PRUNE_INTERVAL_NS = TimeUnit.MINUTES.toNanos(1);
+
+  private final Random r;
+  private final LongSupplier nanoClock;
+  private final Map<String, ReplicaStats> stats = new ConcurrentHashMap<>();
+  private final AtomicLong nextPruneNs;
+
+  public AdaptiveReplicaListTransformer(Random r) {
+    this(r, System::nanoTime);
+  }
+
+  AdaptiveReplicaListTransformer(Random r, LongSupplier nanoClock) {
+    this.r = r;
+    this.nanoClock = nanoClock;
+    this.nextPruneNs = new AtomicLong(nanoClock.getAsLong() + PRUNE_INTERVAL_NS);
+  }
+
+  private static final class ReplicaStats {
+    final AtomicInteger outstanding = new AtomicInteger();
+    double responseTimeMs = -1; // not answered yet
+    long measuredNs; // when responseTimeMs was last updated
+    volatile long seenNs; // when the replica was last among the choices or sent a request
+
+    synchronized void record(long elapsedMs, long nowNs) {
+      double current = responseTimeMs(nowNs);
+      responseTimeMs = current < 0 ? elapsedMs : ALPHA * elapsedMs + (1 - ALPHA) * current;
+      measuredNs = nowNs;
+    }
+
+    synchronized double responseTimeMs(long nowNs) {
+      if (responseTimeMs < 0) {
+        return -1;
+      }
+      return responseTimeMs * Math.pow(0.5, (double) (nowNs - measuredNs) / DECAY_HALF_LIFE_NS);
+    }
+
+    double rank(long nowNs) {
+      double responseTime = responseTimeMs(nowNs);
+      if (responseTime < 0) {
+        return 0;
+      }
+      double queue = 1 + outstanding.get();
+      return responseTime * queue * queue * queue;
+    }
+
+    boolean isStale(long nowNs) {
+      return outstanding.get() <= 0 && nowNs - seenNs > STALE_NS;
+    }
+  }
+
+  @Override
+  public ReplicaListTransformer getInstance(
+      String configSpec, SolrParams requestParams, ReplicaListTransformerFactory fallback) {
+    return this;
+  }
+
+  @Override
+  public <T> void transform(List<T> choices) {
+    long nowNs = nanoClock.getAsLong();
+    if (choices.size() > 1) {
+      Collections.shuffle(choices, r);
+      // rank once up front, as the statistics may change while sorting
+      List<T> shuffled = new ArrayList<>(choices);
+      double[] ranks = new double[shuffled.size()];
+      Integer[] order = new Integer[shuffled.size()];
+      for (int i = 0; i < ranks.length; i++) {
+        ReplicaStats replicaStats = stats.get(getKey(shuffled.get(i)));
+        if (replicaStats != null) {
+          replicaStats.seenNs = nowNs;
+          ranks[i] = replicaStats.rank(nowNs);
+        }
+        order[i] = i;
+      }
+      Arrays.sort(order, Comparator.comparingDouble(i -> ranks[i]));
+      for (int i = 0; i < order.length; i++) {
+        choices.set(i, shuffled.get(order[i]));
+      }
+    }
+    pruneStale(nowNs);
+  }
+
+  /** Notes that a request was sent to the replica with the given URL */
+  public void requestStarted(String url) {
+    long nowNs = nanoClock.getAsLong();
+    // in compute(), so that the statistics can't be pruned in between
+    stats.compute(
+        getKey(url),
+        (key, replicaStats) -> {
+          if (replicaStats == null) {
+            replicaStats = new ReplicaStats();
+          }
+          replicaStats.outstanding.incrementAndGet();
+          replicaStats.seenNs = nowNs;
+          return replicaStats;
+        });
+  }
+
+  /**
+   * Notes that the request sent to the replica with the given URL has been answered. It is charged
+   * with the whole time taken, even if it failed and another replica answered instead.
+   */
+  public void requestFinished(String url, long elapsedMs) {
+    long nowNs = nanoClock.getAsLong();
+    stats.compute(
+        getKey(url),
+        (key, replicaStats) -> {
+          if (replicaStats == null) {
+            replicaStats = new ReplicaStats();
+          } else {
+            replicaStats.outstanding.decrementAndGet();
+          }
+          replicaStats.seenNs = nowNs;
+          replicaStats.record(elapsedMs, nowNs);
+          return replicaStats;
+        });
+  }
+
+  /** The average response time of the replica with the given URL, or -1 if not known */
+  public double getResponseTime(String url) {
+    ReplicaStats replicaStats = stats.get(getKey(url));
+    return replicaStats == null ? -1 : replicaStats.responseTimeMs(nanoClock.getAsLong());
+  }
+
+  /** Drops the statistics of replicas that are no longer among the choices, once in a while */
+  private void pruneStale(long nowNs) {
+    long pruneNs = nextPruneNs.get();
+    if (nowNs - pruneNs < 0 || !nextPruneNs.compareAndSet(pruneNs, nowNs + PRUNE_INTERVAL_NS)) {
+      return;
+    }
+    for (String key : stats.keySet()) {
+      stats.computeIfPresent(
+          key, (k, replicaStats) -> replicaStats.isStale(nowNs) ? null : replicaStats);
+    }
+  }
+
+  // shard URLs may be given without a scheme, and core URLs of replicas end with a slash unlike
+  // the URLs requests are sent to
+  private static String getKey(Object choice) {
+    String url = choice instanceof Replica replica ? replica.getCoreUrl() : choice.toString();
+    int schemeEnd = url.indexOf("://");
+    int start = schemeEnd < 0 ? 0 : schemeEnd + 3;
+    int end = url.endsWith("/") ? url.length() - 1 : url.length();
+    return url.substring(start, Math.max(start, end));
+  }
+}
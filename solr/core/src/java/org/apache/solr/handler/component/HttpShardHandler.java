@@ -20,6 +20,8 @@ import static org.apache.solr.common.params.CommonParams.PARTIAL_RESULTS;
 import static org.apache.solr.request.SolrQueryRequest.disallowPartialResults;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -196,6 +198,21 @@ public class HttpShardHandler extends ShardHandler {
     return httpShardHandlerFactory.newLBHttpSolrClientReq(req, urls);
   }
 
+  /** Prepares a copy of the given request that tries the replicas starting with the second one */
+  private LBSolrClient.Req prepareHedgeRequest(
+      ShardRequest sreq, String shard, ModifiableSolrParams params, LBSolrClient.Req lbReq) {
+    QueryRequest req = createQueryRequest(sreq, params, shard);
+    req.setMethod(SolrRequest.METHOD.POST);
+    req.setUserPrincipal(lbReq.getRequest().getUserPrincipal());
+
+    List<String> urls = new ArrayList<>(lbReq.getEndpoints().size());
+    for (LBSolrClient.Endpoint endpoint : lbReq.getEndpoints()) {
+      urls.add(endpoint.getUrl());
+    }
+    Collections.rotate(urls, -1);
+    return httpShardHandlerFactory.newLBHttpSolrClientReq(req, urls);
+  }
+
   private ShardResponse prepareShardResponse(ShardRequest sreq, String shard) {
     ShardResponse srsp = new ShardResponse();
     if (sreq.nodeName != null) {
@@ -262,7 +279,14 @@ public class HttpShardHandler extends ShardHandler {
       SimpleSolrResponse ssr,
       ShardResponse srsp,
       long startTimeNS) {
-    CompletableFuture<LBSolrClient.Rsp> future = this.lbClient.requestAsync(lbReq);
+    final ShardRequestHedging hedging = httpShardHandlerFactory.getShardRequestHedging();
+    final long hedgeDelay =
+        hedging != null && lbReq.getEndpoints().size() > 1 ? hedging.getDelay(params) : -1;
+    CompletableFuture<LBSolrClient.Rsp> future =
+        hedgeDelay >= 0
+            ? hedging.requestAsync(
+                lbClient, lbReq, prepareHedgeRequest(sreq, shard, params, lbReq), hedgeDelay)
+            : this.lbClient.requestAsync(lbReq);
     // Synchronize on canceled, so that we know precisely whether to add it to the responseFutureMap
     // or not.
     synchronized (canceled) {
@@ -273,6 +297,12 @@ public class HttpShardHandler extends ShardHandler {
         responseFutureMap.put(srsp, future);
       }
     }
+    final AdaptiveReplicaListTransformer adaptiveRlt =
+        httpShardHandlerFactory.getAdaptiveReplicaListTransformer();
+    final String firstUrl = adaptiveRlt != null ? lbReq.getEndpoints().get(0).getUrl() : null;
+    if (adaptiveRlt != null) {
+      adaptiveRlt.requestStarted(firstUrl);
+    }
     // Add the callback explicitly after adding the future to the map, because the callback relies
     // on the map already having the future.
     future.whenComplete(
@@ -288,6 +318,12 @@ public class HttpShardHandler extends ShardHandler {
           }
           ssr.elapsedTime =
               TimeUnit.MILLISECONDS.convert(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS);
+          if (adaptiveRlt != null) {
+            adaptiveRlt.requestFinished(firstUrl, ssr.elapsedTime);
+          }
+          if (hedging != null && rsp != null) {
+            hedging.recordResponseTime(ssr.elapsedTime);
+          }
           // Synchronize on cancelled so this code and cancelAll() cannot happen at the same time
           synchronized (canceled) {
             // We don't want to add responses after the requests have been canceled
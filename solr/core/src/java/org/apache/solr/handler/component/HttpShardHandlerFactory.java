@@ -91,6 +91,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   int queueSize = -1;
   int permittedLoadBalancerRequestsMinimumAbsolute = 0;
   float permittedLoadBalancerRequestsMaximumFraction = 1.0f;
+  float hedgingBudget = 0.05f;
   boolean accessPolicy = false;
   private SolrMetricsContext solrMetricsContext;
 
@@ -103,6 +104,11 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   private RequestReplicaListTransformerGenerator requestReplicaListTransformerGenerator =
       new RequestReplicaListTransformerGenerator();
 
+  // null unless adaptive replica routing is configured
+  private AdaptiveReplicaListTransformer adaptiveRlt;
+
+  private ShardRequestHedging hedging;
+
   // URL scheme to be used in distributed search.
   static final String INIT_URL_SCHEME = "urlScheme";
 
@@ -127,6 +133,9 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   // Configure if the threadpool favours fairness over throughput
   static final String INIT_FAIRNESS_POLICY = "fairnessPolicy";
 
+  // The maximum proportion of shard requests that may be hedged
+  static final String HEDGING_BUDGET = "hedgingBudget";
+
   /** Get {@link ShardHandler} that uses the default http client. */
   @Override
   public ShardHandler getShardHandler() {
@@ -158,6 +167,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   private void initReplicaListTransformers(NamedList<?> routingConfig) {
     String defaultRouting = null;
     ReplicaListTransformerFactory stableRltFactory = null;
+    AdaptiveReplicaListTransformer adaptiveRltFactory = null;
     ReplicaListTransformerFactory defaultRltFactory;
     if (routingConfig != null && routingConfig.size() > 0) {
       Iterator<? extends Entry<String, ?>> iter = routingConfig.iterator();
@@ -178,6 +188,11 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
             defaultRouting = checkDefaultReplicaListTransformer(c, key, defaultRouting);
             stableRltFactory = new AffinityReplicaListTransformerFactory(c);
             break;
+          case ShardParams.REPLICA_ADAPTIVE:
+            defaultRouting =
+                checkDefaultReplicaListTransformer(getNamedList(e.getValue()), key, defaultRouting);
+            adaptiveRltFactory = new AdaptiveReplicaListTransformer(r);
+            break;
           default:
             throw new IllegalArgumentException("invalid replica routing spec name: " + key);
         }
@@ -188,11 +203,24 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
     }
     if (ShardParams.REPLICA_STABLE.equals(defaultRouting)) {
       defaultRltFactory = stableRltFactory;
+    } else if (ShardParams.REPLICA_ADAPTIVE.equals(defaultRouting)) {
+      defaultRltFactory = adaptiveRltFactory;
     } else {
       defaultRltFactory = RequestReplicaListTransformerGenerator.RANDOM_RLTF;
     }
     this.requestReplicaListTransformerGenerator =
         new RequestReplicaListTransformerGenerator(defaultRltFactory, stableRltFactory);
+    this.adaptiveRlt = defaultRltFactory == adaptiveRltFactory ? adaptiveRltFactory : null;
+  }
+
+  /** Hedges shard requests that ask for it, or null if not initialized */
+  ShardRequestHedging getShardRequestHedging() {
+    return hedging;
+  }
+
+  /** The adaptive replica routing to keep informed of shard requests, or null if not in use */
+  AdaptiveReplicaListTransformer getAdaptiveReplicaListTransformer() {
+    return adaptiveRlt;
   }
 
   /**
@@ -215,6 +243,8 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
    *       false otherwise
    *   <li>replicaRouting - a NamedList of preferences used to select the order in which replicas
    *       for a shard will be used by created ShardHandlers
+   *   <li>hedgingBudget - the maximum proportion of shard requests that may be hedged when
+   *       requested with shards.hedge
    * </ul>
    *
    * @param info configuration for the created factory, typically reflecting the contents of a
@@ -259,6 +289,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
             permittedLoadBalancerRequestsMaximumFraction,
             sb);
     this.accessPolicy = getParameter(args, INIT_FAIRNESS_POLICY, accessPolicy, sb);
+    this.hedgingBudget = getParameter(args, HEDGING_BUDGET, hedgingBudget, sb);
 
     // magic sysprop to make tests reproducible: set by SolrTestCaseJ4.
     String v = System.getProperty("tests.shardhandler.randomSeed");
@@ -309,6 +340,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
             .build();
     this.defaultClient.addListenerFactory(this.httpListenerFactory);
     this.loadbalancer = new LBJettySolrClient.Builder(defaultClient).build();
+    this.hedging = new ShardRequestHedging(hedgingBudget);
 
     initReplicaListTransformers(getParameter(args, "replicaRouting", null, sb));
 
@@ -338,6 +370,9 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory
   @Override
   public void close() {
     try {
+      if (hedging != null) {
+        hedging.close();
+      }
       if (loadbalancer != null) {
         loadbalancer.close();
       }
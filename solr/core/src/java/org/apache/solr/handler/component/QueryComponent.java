@@ -24,7 +24,9 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Array;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -66,10 +68,16 @@ import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.ExpandParams;
+import org.apache.solr.common.params.FacetParams;
 import org.apache.solr.common.params.GroupParams;
+import org.apache.solr.common.params.HighlightParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.MoreLikeThisParams;
 import org.apache.solr.common.params.ShardParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.params.StatsParams;
+import org.apache.solr.common.params.TermsParams;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.apache.solr.common.util.StrUtils;
@@ -637,6 +645,7 @@ public class QueryComponent extends SearchComponent {
     }
     if (rb.getStage() == ResponseBuilder.STAGE_PARSE_QUERY) {
       createDistributedStats(rb);
+      createScoreBoundsQuery(rb);
       return ResponseBuilder.STAGE_EXECUTE_QUERY;
     }
     if (rb.getStage() < ResponseBuilder.STAGE_EXECUTE_QUERY) {
@@ -689,6 +698,10 @@ public class QueryComponent extends SearchComponent {
       updateStats(rb, sreq);
     }
 
+    if ((sreq.purpose & ShardRequest.PURPOSE_GET_SCORE_BOUNDS) != 0) {
+      mergeScoreBounds(rb, sreq);
+    }
+
     if ((sreq.purpose & ShardRequest.PURPOSE_GET_FIELDS) != 0) {
       returnFields(rb, sreq);
     }
@@ -786,6 +799,133 @@ public class QueryComponent extends SearchComponent {
     cache.mergeToGlobalStats(rb.req, sreq.responses);
   }
 
+  /**
+   * With {@link ShardParams#DISTRIB_SCORE_BOUNDS}, asks every shard for the scores of its top
+   * (start+rows)/numShards docs. Together that's start+rows docs, so no doc scoring below the
+   * lowest of them can make the merged top docs, and the main query doesn't need to return any.
+   */
+  protected void createScoreBoundsQuery(ResponseBuilder rb) {
+    if (!rb.req.getParams().getBool(ShardParams.DISTRIB_SCORE_BOUNDS, false)
+        || rb instanceof CombinedQueryResponseBuilder
+        || rb.shards == null
+        || rb.shards.length < 2
+        || rb.shards_rows > -1
+        || rb.getRankQuery() != null
+        || rb.getMergeStrategies() != null) {
+      return;
+    }
+    // the bound only holds if the main query scores docs the same, so not with global stats
+    if (!rb.isDistribStatsDisabled()
+        && !(rb.req.getSearcher().getStatsCache() instanceof LocalStatsCache)) {
+      return;
+    }
+    Sort sort = rb.getSortSpec().getSort();
+    if (sort != null
+        && (sort.getSort().length != 1
+            || sort.getSort()[0].getType() != SortField.Type.SCORE
+            || sort.getSort()[0].getReverse())) {
+      return;
+    }
+    int topRows = rb.getSortSpec().getOffset() + rb.getSortSpec().getCount();
+    if (topRows <= rb.shards.length) {
+      return;
+    }
+
+    ShardRequest sreq = new ShardRequest();
+    // private, so other components don't add their work to it
+    sreq.purpose = ShardRequest.PURPOSE_GET_SCORE_BOUNDS | ShardRequest.PURPOSE_PRIVATE;
+    sreq.params = new ModifiableSolrParams(rb.req.getParams());
+    sreq.params.remove(ShardParams.SHARDS);
+    sreq.params.set(CommonParams.START, 0);
+    sreq.params.set(CommonParams.ROWS, (topRows + rb.shards.length - 1) / rb.shards.length);
+    String keyFieldName = rb.req.getSchema().getUniqueKeyField().getName();
+    sreq.params.set(CommonParams.FL, keyFieldName + "," + SolrReturnFields.SCORE);
+    // only the top scores are needed, so let the shards skip non-competitive docs
+    sreq.params.set(CommonParams.MIN_EXACT_COUNT, 0);
+    // nor should the shards run any other component on them
+    sreq.params.set(FacetParams.FACET, false);
+    sreq.params.remove("json.facet");
+    sreq.params.set(HighlightParams.HIGHLIGHT, false);
+    sreq.params.set(StatsParams.STATS, false);
+    sreq.params.set(ExpandParams.EXPAND, false);
+    sreq.params.set(MoreLikeThisParams.MLT, false);
+    sreq.params.set(TermsParams.TERMS, false);
+    sreq.params.set(SpellCheckComponent.COMPONENT_NAME, false);
+    sreq.params.set(TermVectorComponent.COMPONENT_NAME, false);
+    sreq.params.remove(CommonParams.DEBUG);
+    sreq.params.set(CommonParams.DEBUG_QUERY, false);
+    rb.addRequest(this, sreq);
+  }
+
+  /**
+   * Sets {@link ResponseBuilder#distribMinScore} from the scores returned for the score bounds
+   * request. Replicas of a shard can score a doc slightly differently, e.g. because of deleted docs
+   * that haven't been merged away, so the bound only holds on the replica that computed it. When a
+   * bound is set, the remaining requests of this search are therefore pinned to the replicas that
+   * answered, and won't fail over to other replicas.
+   */
+  protected void mergeScoreBounds(ResponseBuilder rb, ShardRequest sreq) {
+    List<Float> scores = new ArrayList<>();
+    String[] pinnedShards = rb.shards.clone();
+    for (ShardResponse srsp : sreq.responses) {
+      if (srsp.getException() != null) {
+        // without this shard's scores, there may not be enough of them to bound the top docs
+        return;
+      }
+      int shardNum = rb.getShardNum(srsp.getShard());
+      if (shardNum < 0 || srsp.getShardAddress() == null) {
+        // the main query can't be sent to the replica that answered
+        return;
+      }
+      pinnedShards[shardNum] = srsp.getShardAddress();
+      SolrDocumentList docs =
+          (SolrDocumentList)
+              SolrResponseUtil.getSubsectionFromShardResponse(rb, srsp, "response", false);
+      if (docs == null) {
+        return;
+      }
+      for (SolrDocument doc : docs) {
+        if (doc.getFieldValue(SolrReturnFields.SCORE) instanceof Number score) {
+          scores.add(score.floatValue());
+        }
+      }
+    }
+    int topRows = rb.getSortSpec().getOffset() + rb.getSortSpec().getCount();
+    if (scores.size() >= topRows) {
+      scores.sort(Collections.reverseOrder());
+      rb.distribMinScore = scores.get(topRows - 1);
+      rb.shards = pinnedShards;
+    }
+  }
+
+  /**
+   * Whether fetching the requested fields of the top rows from every shard in the first phase is
+   * likely cheaper than fetching only the winners in a second phase, as configured by {@link
+   * ShardParams#DISTRIB_SINGLE_PASS_MAX_ROWS}. Each shard then returns the fields of up to
+   * start+rows documents instead of just the winners, so this only pays off for small pages with
+   * plain stored fields.
+   */
+  private static boolean isSinglePassCheaper(ResponseBuilder rb, ReturnFields fields) {
+    int maxRows = rb.req.getParams().getInt(ShardParams.DISTRIB_SINGLE_PASS_MAX_ROWS, 0);
+    if (maxRows <= 0) {
+      return false;
+    }
+    int shardRows =
+        rb.shards_rows > -1
+            ? rb.shards_rows
+            : rb.getSortSpec().getCount() + rb.getSortSpec().getOffset();
+    if (shardRows <= 0 || shardRows > maxRows) {
+      return false;
+    }
+    // highlighting, expanding and explaining, done along with GET_FIELDS, would be done for every
+    // document of every shard, and globs can make the fields arbitrarily expensive to return
+    return !rb.doHighlights
+        && !rb.doExpand
+        && !rb.isDebugResults()
+        && !fields.hasPatternMatching()
+        && fields.getNonScoreDependentReturnFieldNames() != null;
+  }
+
   protected void createMainQuery(ResponseBuilder rb) {
     ShardRequest sreq = new ShardRequest();
     sreq.purpose = ShardRequest.PURPOSE_GET_TOP_IDS;
@@ -796,8 +936,12 @@ public class QueryComponent extends SearchComponent {
     // that's the same as fl=*,score
     ReturnFields fields = rb.rsp.getReturnFields();
 
-    // distrib.singlePass=true forces a one-pass query regardless of requested fields
-    boolean distribSinglePass = rb.req.getParams().getBool(ShardParams.DISTRIB_SINGLE_PASS, false);
+    // distrib.singlePass=true forces a one-pass query regardless of requested fields; if it's not
+    // set, a one-pass query is chosen when few enough rows are requested that fetching their fields
+    // from every shard is cheaper than a second round trip
+    Boolean distribSinglePassParam = rb.req.getParams().getBool(ShardParams.DISTRIB_SINGLE_PASS);
+    boolean distribSinglePass =
+        distribSinglePassParam != null ? distribSinglePassParam : isSinglePassCheaper(rb, fields);
 
     boolean requiresNonIdAndScoreFields = true;
     if (!distribSinglePass) {
@@ -847,6 +991,10 @@ public class QueryComponent extends SearchComponent {
 
     sreq.params.set(ResponseBuilder.FIELD_SORT_VALUES, "true");
 
+    if (rb.distribMinScore > Float.NEGATIVE_INFINITY) {
+      sreq.params.set(ShardParams.DISTRIB_MIN_SCORE, Float.toString(rb.distribMinScore));
+    }
+
     boolean shardQueryIncludeScore =
         (rb.getFieldFlags() & SolrIndexSearcher.GET_SCORES) != 0
             || (shardRows != 0 && rb.getSortSpec().includesScore());
@@ -1012,8 +1160,14 @@ public class QueryComponent extends SearchComponent {
 
     // Merge the docs via a priority queue so we don't have to sort *all* of the
     // documents... we only need to order the top (rows+start)
+    final int queueSize = ss.getOffset() + ss.getCount();
     final ShardDocQueue shardDocQueue =
-        newShardDocQueue(rb.req.getSearcher(), sortFields, ss.getOffset() + ss.getCount());
+        newShardDocQueue(rb.req.getSearcher(), sortFields, queueSize);
+    // each shard's docs are already sorted, so only the top (rows+start) of them all are taken
+    final ShardDocMerger shardDocMerger =
+        new ShardDocMerger(
+            new ShardFieldSortedHitQueue(sortFields, 0, rb.req.getSearcher()),
+            sreq.responses.size());
 
     NamedList<Object> shardInfo = null;
     if (rb.req.getParams().getBool(ShardParams.SHARDS_INFO, false)) {
@@ -1179,35 +1333,46 @@ public class QueryComponent extends SearchComponent {
       NamedList<List<Object>> unmarshalledSortFieldValues =
           needsUnmarshalling ? unmarshalSortValues(ss, sortFieldValues, schema) : new NamedList<>();
 
-      // go through every doc in this response, construct a ShardDoc, and
-      // put it in the priority queue so it can be ordered.
-      for (int i = 0; i < docs.size(); i++) {
-        SolrDocument doc = docs.get(i);
-        Object id = doc.getFieldValue(uniqueKeyField.getName());
-        ShardDoc shardDoc = new ShardDoc();
-        shardDoc.id = id;
-        shardDoc.shard = srsp.getShard();
-        shardDoc.orderInShard = i;
-        Object scoreObj = doc.getFieldValue(SolrReturnFields.SCORE);
-        if (scoreObj != null) {
-          if (scoreObj instanceof String) {
-            shardDoc.score = Float.parseFloat((String) scoreObj);
-          } else {
-            shardDoc.score = ((Number) scoreObj).floatValue();
-          }
-        }
-        if (!scoreDependentFields.isEmpty()) {
-          shardDoc.scoreDependentFields = doc.getSubsetOfFields(scoreDependentFields);
-        }
-
-        shardDoc.sortFieldValues = unmarshalledSortFieldValues;
+      // ShardDocs are only constructed for the docs of this response that the merge takes
+      final String shard = srsp.getShard();
+      final SolrDocumentList shardDocs = docs;
+      shardDocMerger.add(
+          i -> {
+            SolrDocument doc = shardDocs.get(i);
+            Object id = doc.getFieldValue(uniqueKeyField.getName());
+            ShardDoc shardDoc = new ShardDoc();
+            shardDoc.id = id;
+            shardDoc.shard = shard;
+            shardDoc.orderInShard = i;
+            Object scoreObj = doc.getFieldValue(SolrReturnFields.SCORE);
+            if (scoreObj != null) {
+              if (scoreObj instanceof String) {
+                shardDoc.score = Float.parseFloat((String) scoreObj);
+              } else {
+                shardDoc.score = ((Number) scoreObj).floatValue();
+              }
+            }
+            if (!scoreDependentFields.isEmpty()) {
+              shardDoc.scoreDependentFields = doc.getSubsetOfFields(scoreDependentFields);
+            }
 
-        if (!shardDocQueue.push(shardDoc)) {
-          numFound--;
-        }
-      } // end for-each-doc-in-response
+            shardDoc.sortFieldValues = unmarshalledSortFieldValues;
+            return shardDoc;
+          },
+          docs.size());
     } // end for-each-response
 
+    // take the docs in merged order until the queue is full; a duplicate of a doc that was taken
+    // from another shard is dropped, and docs that aren't taken at all are never compared
+    int queued = 0;
+    while (queued < queueSize && shardDocMerger.hasNext()) {
+      if (shardDocQueue.push(shardDocMerger.next())) {
+        queued++;
+      } else {
+        numFound--;
+      }
+    }
+
     // Add hits for distributed requests
     // https://issues.apache.org/jira/browse/SOLR-3518
     rb.rsp.addToLog("hits", numFound);
@@ -1364,16 +1529,46 @@ public class QueryComponent extends SearchComponent {
         unmarshalledSortValsPerField.add(sortField.getField(), sortVals);
       } else {
         FieldType fieldType = schemaField.getType();
-        List<Object> unmarshalledSortVals = new ArrayList<>();
-        for (Object sortVal : sortVals) {
-          unmarshalledSortVals.add(fieldType.unmarshalSortValue(sortVal));
-        }
-        unmarshalledSortValsPerField.add(sortField.getField(), unmarshalledSortVals);
+        unmarshalledSortValsPerField.add(
+            sortField.getField(), new UnmarshalledSortValues(fieldType, sortVals));
       }
     }
     return unmarshalledSortValsPerField;
   }
 
+  /**
+   * The sort values of a shard's docs, unmarshalled when first needed, since the merge only looks
+   * at the values of the docs it takes.
+   */
+  private static class UnmarshalledSortValues extends AbstractList<Object> {
+    private static final Object NOT_UNMARSHALLED = new Object();
+
+    private final FieldType fieldType;
+    private final List<Object> sortVals;
+    private final Object[] unmarshalled;
+
+    UnmarshalledSortValues(FieldType fieldType, List<Object> sortVals) {
+      this.fieldType = fieldType;
+      this.sortVals = sortVals;
+      this.unmarshalled = new Object[sortVals.size()];
+      Arrays.fill(unmarshalled, NOT_UNMARSHALLED);
+    }
+
+    @Override
+    public Object get(int index) {
+      Object val = unmarshalled[index];
+      if (val == NOT_UNMARSHALLED) {
+        val = unmarshalled[index] = fieldType.unmarshalSortValue(sortVals.get(index));
+      }
+      return val;
+    }
+
+    @Override
+    public int size() {
+      return unmarshalled.length;
+    }
+  }
+
   protected void createRetrieveDocs(ResponseBuilder rb) {
 
     // TODO: in a system with nTiers > 2, we could be passed "ids" here
@@ -1838,6 +2033,7 @@ public class QueryComponent extends SearchComponent {
       throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, e);
     }
     rb.setResult(result);
+    applyDistribMinScore(rb);
 
     QueryLimits queryLimits = QueryLimits.getCurrentLimits();
     if (queryLimits.maybeExitWithPartialResults("QueryComponent")) {
@@ -1868,6 +2064,39 @@ public class QueryComponent extends SearchComponent {
     doPrefetch(rb);
   }
 
+  /**
+   * Drops the docs scoring below {@link ShardParams#DISTRIB_MIN_SCORE} from the results of a shard
+   * request, since enough docs of all the shards score higher for them to not make the merged top
+   * docs. This doesn't change the number of docs found.
+   */
+  private static void applyDistribMinScore(ResponseBuilder rb) {
+    String minScoreParam = rb.req.getParams().get(ShardParams.DISTRIB_MIN_SCORE);
+    DocListAndSet results = rb.getResults();
+    if (minScoreParam == null || results == null || results.docList == null) {
+      return;
+    }
+    DocList docList = results.docList;
+    if (!docList.hasScores()) {
+      return;
+    }
+    float minScore = Float.parseFloat(minScoreParam);
+    int len = 0;
+    DocIterator iterator = docList.iterator();
+    while (iterator.hasNext()) {
+      iterator.nextDoc();
+      if (iterator.score() < minScore) {
+        break;
+      }
+      len++;
+    }
+    if (len < docList.size()) {
+      DocList competitive = docList.subset(docList.offset(), len);
+      if (competitive != null) {
+        results.docList = competitive;
+      }
+    }
+  }
+
   private static String generateQueryID(SolrQueryRequest req) {
     ZkController zkController = req.getCoreContainer().getZkController();
     String nodeName = req.getCoreContainer().getHostName();
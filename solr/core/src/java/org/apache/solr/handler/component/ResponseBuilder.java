@@ -211,6 +211,10 @@ public class ResponseBuilder {
 
   public boolean onePassDistributedQuery;
 
+  // The score of the lowest of the shards' top docs, when they were asked for them first; no doc
+  // scoring below it can make the merged top docs.
+  public float distribMinScore = Float.NEGATIVE_INFINITY;
+
   public FacetComponent.FacetInfo _facetInfo;
   /* private... components that don't own these shouldn't use them */
   SolrDocumentList _responseDocs;
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+import org.apache.lucene.util.PriorityQueue;
+
+/**
+ * Merges the docs returned by several shards, each already in sort order, by repeatedly taking the
+ * best of the shards' next docs. Unlike pushing every doc into a {@link ShardFieldSortedHitQueue},
+ * only the docs that are taken, plus one per shard, are turned into {@link ShardDoc}s and compared,
+ * so a deep page over many shards doesn't materialize and sort the docs of every shard.
+ *
+ * <p>Docs are taken one at a time, so callers can stop after the first page, or continue from
+ * where they stopped, as a cursor does.
+ */
+class ShardDocMerger implements Iterator<ShardDoc> {
+
+  /** The docs of a shard, turned into {@link ShardDoc}s as they come up */
+  private static class ShardCursor {
+    final IntFunction<ShardDoc> toShardDoc;
+    final int size;
+    int next;
+    ShardDoc head;
+
+    ShardCursor(IntFunction<ShardDoc> toShardDoc, int size) {
+      this.toShardDoc = toShardDoc;
+      this.size = size;
+    }
+
+    boolean advance() {
+      if (next >= size) {
+        head = null;
+        return false;
+      }
+      head = toShardDoc.apply(next++);
+      return true;
+    }
+  }
+
+  private final PriorityQueue<ShardCursor> cursors;
+
+  /**
+   * @param order the queue whose order the docs are merged in; only its comparison is used
+   * @param numShards the maximum number of shards that will be added
+   */
+  ShardDocMerger(ShardFieldSortedHitQueue order, int numShards) {
+    // the queue keeps the worst doc on top, so the best doc is the "least" here
+    this.cursors =
+        new PriorityQueue<>(numShards) {
+          @Override
+          protected boolean lessThan(ShardCursor a, ShardCursor b) {
+            return order.lessThan(b.head, a.head);
+          }
+        };
+  }
+
+  /**
+   * Adds the docs of a shard.
+   *
+   * @param toShardDoc makes the {@link ShardDoc} of the shard's doc at the given position, in sort
+   *     order
+   * @param size the number of docs the shard returned
+   */
+  void add(IntFunction<ShardDoc> toShardDoc, int size) {
+    ShardCursor cursor = new ShardCursor(toShardDoc, size);
+    if (cursor.advance()) {
+      cursors.add(cursor);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    return cursors.size() > 0;
+  }
+
+  @Override
+  public ShardDoc next() {
+    if (cursors.size() == 0) {
+      throw new NoSuchElementException();
+    }
+    ShardCursor cursor = cursors.top();
+    ShardDoc best = cursor.head;
+    if (cursor.advance()) {
+      cursors.updateTop();
+    } else {
+      cursors.pop();
+    }
+    return best;
+  }
+}
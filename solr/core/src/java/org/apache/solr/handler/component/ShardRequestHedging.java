@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.impl.LBAsyncSolrClient;
+import org.apache.solr.client.solrj.impl.LBSolrClient;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.ShardParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends a second, hedged, request for a shard to another of its replicas when the first has not
+ * answered within a delay, and takes whichever answer comes first. The delay is given by {@link
+ * ShardParams#SHARDS_HEDGE_DELAY}, or else is a percentile of the response times of recent shard
+ * requests, so that only the slowest requests are hedged. To keep hedging from adding to an
+ * overload, at most a fraction of the requests, the budget, may be hedged.
+ *
+ * <p>The request that loses is aborted and, if the query is cancellable, also cancelled on the
+ * replica it was sent to, through its {@link QueryCancellationHandler}.
+ *
+ * <p>One instance is shared by all the shard handlers of a {@link HttpShardHandlerFactory}.
+ */
+class ShardRequestHedging implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  // recent response times, to derive the hedging delay from
+  private static final int SAMPLES = 1024;
+  // no delay is derived from fewer response times than this
+  private static final int MIN_SAMPLES = 100;
+  // the delay is derived again after this many more response times
+  private static final int SAMPLES_PER_DELAY = 64;
+  // the most hedged requests that may be sent at once after a quiet period
+  private static final double MAX_TOKENS = 10;
+
+  private final double budget;
+  private final long[] samples = new long[SAMPLES];
+  private long sampleCount = 0;
+  private long delaySampleCount = -1;
+  private double delayPercentile;
+  private long delay;
+  private double tokens = 0;
+  private final ScheduledThreadPoolExecutor scheduler;
+
+  /**
+   * @param budget the fraction of the requests that may be hedged
+   */
+  ShardRequestHedging(double budget) {
+    this.budget = budget;
+    this.scheduler =
+        new ScheduledThreadPoolExecutor(1, new SolrNamedThreadFactory("shardRequestHedging"));
+    // timers are cancelled whenever a shard answers in time; don't keep them around
+    scheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  /** Records the response time of a shard request */
+  synchronized void recordResponseTime(long elapsedMs) {
+    samples[(int) (sampleCount++ % SAMPLES)] = elapsedMs;
+  }
+
+  /**
+   * The delay after which to hedge a request with the given params, or -1 if it should not be. A
+   * request that may be hedged adds to the budget of hedged requests.
+   */
+  long getDelay(SolrParams params) {
+    if (!params.getBool(ShardParams.SHARDS_HEDGE, false)) {
+      return -1;
+    }
+    synchronized (this) {
+      tokens = Math.min(MAX_TOKENS, tokens + budget);
+    }
+    long fixedDelay = params.getLong(ShardParams.SHARDS_HEDGE_DELAY, -1);
+    if (fixedDelay >= 0) {
+      return fixedDelay;
+    }
+    return getPercentileDelay(params.getDouble(ShardParams.SHARDS_HEDGE_PERCENTILE, 95));
+  }
+
+  private synchronized long getPercentileDelay(double percentile) {
+    if (sampleCount < MIN_SAMPLES) {
+      return -1;
+    }
+    if (delaySampleCount < 0
+        || percentile != delayPercentile
+        || sampleCount - delaySampleCount >= SAMPLES_PER_DELAY) {
+      long[] sorted = Arrays.copyOf(samples, (int) Math.min(sampleCount, SAMPLES));
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+      delay = sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+      delayPercentile = percentile;
+      delaySampleCount = sampleCount;
+    }
+    return delay;
+  }
+
+  /** Takes a hedged request from the budget, if there is one left */
+  synchronized boolean tryAcquire() {
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+
+  /**
+   * Sends the primary request, then the hedged request if no answer has come after the delay and
+   * the budget allows. The returned future completes with the first answer, or fails if both
+   * requests fail; cancelling it aborts both.
+   */
+  CompletableFuture<LBSolrClient.Rsp> requestAsync(
+      LBAsyncSolrClient lbClient,
+      LBSolrClient.Req primaryReq,
+      LBSolrClient.Req hedgeReq,
+      long delayMs) {
+    HedgedRequest hedged = new HedgedRequest(lbClient, primaryReq, hedgeReq);
+    hedged.send(primaryReq);
+    var timer = scheduler.schedule(hedged::hedge, delayMs, TimeUnit.MILLISECONDS);
+    hedged.result.whenComplete((rsp, t) -> timer.cancel(false));
+    return hedged.result;
+  }
+
+  private class HedgedRequest {
+    final CompletableFuture<LBSolrClient.Rsp> result = new CompletableFuture<>();
+    final LBAsyncSolrClient lbClient;
+    final LBSolrClient.Req primaryReq;
+    final LBSolrClient.Req hedgeReq;
+    // guarded by this
+    int outstanding = 0;
+    CompletableFuture<LBSolrClient.Rsp> primary;
+    CompletableFuture<LBSolrClient.Rsp> hedge;
+
+    HedgedRequest(
+        LBAsyncSolrClient lbClient, LBSolrClient.Req primaryReq, LBSolrClient.Req hedgeReq) {
+      this.lbClient = lbClient;
+      this.primaryReq = primaryReq;
+      this.hedgeReq = hedgeReq;
+      result.whenComplete(
+          (rsp, t) -> {
+            if (result.isCancelled()) {
+              synchronized (this) {
+                abort(primary);
+                abort(hedge);
+              }
+            }
+          });
+    }
+
+    void send(LBSolrClient.Req req) {
+      CompletableFuture<LBSolrClient.Rsp> future;
+      synchronized (this) {
+        outstanding++;
+        future = lbClient.requestAsync(req);
+        if (req == hedgeReq) {
+          hedge = future;
+        } else {
+          primary = future;
+        }
+      }
+      future.whenComplete((rsp, t) -> completed(req, rsp, t));
+    }
+
+    void hedge() {
+      synchronized (this) {
+        if (result.isDone() || !tryAcquire()) {
+          return;
+        }
+      }
+      log.debug("Hedging shard request to {}", hedgeReq.getEndpoints());
+      send(hedgeReq);
+    }
+
+    private void completed(LBSolrClient.Req req, LBSolrClient.Rsp rsp, Throwable t) {
+      boolean failed;
+      CompletableFuture<LBSolrClient.Rsp> loser;
+      synchronized (this) {
+        outstanding--;
+        failed = t != null && outstanding == 0;
+        loser = req == hedgeReq ? primary : hedge;
+      }
+      // complete outside the lock, as completing runs the shard handler's callbacks
+      if (t == null) {
+        if (result.complete(rsp) && loser != null && !loser.isDone()) {
+          abort(loser);
+          cancelQuery(req == hedgeReq ? primaryReq : hedgeReq);
+        }
+      } else if (failed) {
+        result.completeExceptionally(t);
+      }
+    }
+
+    private void abort(CompletableFuture<LBSolrClient.Rsp> future) {
+      if (future != null) {
+        future.cancel(true);
+      }
+    }
+
+    /** Cancels the query of the losing request on the first replica it was sent to */
+    private void cancelQuery(LBSolrClient.Req req) {
+      SolrParams params = req.getRequest().getParams();
+      String queryId = params.get(ShardParams.QUERY_ID);
+      if (queryId == null || !params.getBool(CommonParams.IS_QUERY_CANCELLABLE, false)) {
+        return;
+      }
+      ModifiableSolrParams cancelParams = new ModifiableSolrParams();
+      cancelParams.set(CommonParams.QUERY_UUID, queryId);
+      cancelParams.set(CommonParams.DISTRIB, false);
+      QueryRequest cancel = new QueryRequest(cancelParams, SolrRequest.METHOD.POST);
+      cancel.setPath("/tasks/cancel");
+      cancel.setUserPrincipal(req.getRequest().getUserPrincipal());
+      lbClient
+          .requestAsync(new LBSolrClient.Req(cancel, List.of(req.getEndpoints().get(0))))
+          .whenComplete(
+              (rsp, t) -> {
+                if (t != null) {
+                  log.debug("Could not cancel the losing hedged request {}", queryId, t);
+                }
+              });
+    }
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+}
@@ -16,11 +16,20 @@
  */
 package org.apache.solr.handler.loader;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.util.ContentStream;
+import org.apache.solr.internal.csv.CSVParser;
+import org.apache.solr.internal.csv.CSVStrategy;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.update.AddUpdateCommand;
 import org.apache.solr.update.processor.UpdateRequestProcessor;
 
 public class CSVLoader extends ContentStreamLoader {
@@ -31,7 +40,11 @@ public class CSVLoader extends ContentStreamLoader {
       ContentStream stream,
       UpdateRequestProcessor processor)
       throws Exception {
-    new SingleThreadedCSVLoader(req, processor).load(req, rsp, stream, processor);
+    if (ParallelUpdateParser.getParseThreads(req.getParams()) > 1) {
+      new ParallelCSVLoader(req, processor).load(req, rsp, stream, processor);
+    } else {
+      new SingleThreadedCSVLoader(req, processor).load(req, rsp, stream, processor);
+    }
   }
 }
 
@@ -47,3 +60,129 @@ class SingleThreadedCSVLoader extends CSVLoaderBase {
     doAdd(line, vals, doc, templateAdd);
   }
 }
+
+/** Parses chunks of lines on several threads, see {@link ParallelUpdateParser}. */
+class ParallelCSVLoader extends SingleThreadedCSVLoader {
+  ParallelCSVLoader(SolrQueryRequest req, UpdateRequestProcessor processor) {
+    super(req, processor);
+  }
+
+  @Override
+  public void load(
+      SolrQueryRequest req,
+      SolrQueryResponse rsp,
+      ContentStream stream,
+      UpdateRequestProcessor processor)
+      throws IOException {
+    errHeader = "CSVLoader: input=" + stream.getSourceInfo();
+    try (Reader reader = getReader(stream);
+        ParallelUpdateParser parallel =
+            new ParallelUpdateParser(
+                params, req.getCoreContainer().getUpdateParserExecutor(), processor)) {
+      BufferedReader in = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+      int line = 0;
+
+      // parse the fieldnames from the header of the file
+      if (fieldnames == null) {
+        while (fieldnames == null) {
+          StringBuilder header = new StringBuilder();
+          line += readChunk(in, header, 0);
+          if (header.length() == 0) {
+            throw new SolrException(
+                SolrException.ErrorCode.BAD_REQUEST, "Expected fieldnames in CSV input");
+          }
+          fieldnames = new CSVParser(new StringReader(header.toString()), strategy).getLine();
+        }
+        prepareFields();
+      }
+
+      for (; ; ) {
+        StringBuilder chunk = new StringBuilder();
+        int lines = readChunk(in, chunk, parallel.getChunkSize());
+        if (chunk.length() == 0) break;
+        String csv = chunk.toString();
+        int startLine = line;
+        parallel.submit(() -> parseChunk(csv, startLine));
+        line += lines;
+      }
+      parallel.finish();
+    }
+  }
+
+  /**
+   * Appends lines to the chunk up to the first record boundary after minChars chars. Encapsulated
+   * values and escapes are tracked so that a value spanning lines is never split.
+   *
+   * @return the number of lines read
+   */
+  private int readChunk(BufferedReader in, StringBuilder chunk, int minChars) throws IOException {
+    char encapsulator = strategy.getEncapsulator();
+    char escape = strategy.getEscape();
+    boolean encapsulated = false;
+    boolean tokenStart = true;
+    int lines = 0;
+    for (; ; ) {
+      int c = in.read();
+      if (c == -1) return lines;
+      chunk.append((char) c);
+      if (c == escape && escape != CSVStrategy.ESCAPE_DISABLED) {
+        c = in.read();
+        if (c == -1) return lines;
+        chunk.append((char) c);
+        if (c == '\n') lines++;
+        tokenStart = false;
+      } else if (c == encapsulator && encapsulator != CSVStrategy.ENCAPSULATOR_DISABLED) {
+        if (!encapsulated) {
+          // only a value starting with the encapsulator is encapsulated
+          encapsulated = tokenStart;
+        } else {
+          // a doubled encapsulator is a literal one
+          in.mark(1);
+          c = in.read();
+          if (c == encapsulator) {
+            chunk.append((char) c);
+          } else {
+            encapsulated = false;
+            if (c != -1) in.reset();
+          }
+        }
+        tokenStart = false;
+      } else if (c == '\n') {
+        lines++;
+        tokenStart = !encapsulated;
+        if (!encapsulated && chunk.length() >= minChars) return lines;
+      } else {
+        tokenStart = !encapsulated && c == strategy.getDelimiter();
+      }
+    }
+  }
+
+  private List<AddUpdateCommand> parseChunk(String csv, int startLine) throws IOException {
+    List<AddUpdateCommand> adds = new ArrayList<>();
+    CSVParser parser = new CSVParser(new StringReader(csv), strategy);
+    for (; ; ) {
+      int line = startLine + parser.getLineNumber();
+      String[] vals = null;
+      try {
+        vals = parser.getLine();
+      } catch (IOException e) {
+        // Catch the exception and rethrow it with more line information
+        input_err("can't read line: " + line, null, line, e);
+      }
+      if (vals == null) break;
+
+      if (vals.length != fieldnames.length) {
+        input_err("expected " + fieldnames.length + " values but got " + vals.length, vals, line);
+      }
+
+      SolrInputDocument doc = new SolrInputDocument();
+      addFields(line, vals, doc);
+      AddUpdateCommand cmd = new AddUpdateCommand(templateAdd.getReq());
+      cmd.overwrite = templateAdd.overwrite;
+      cmd.commitWithin = templateAdd.commitWithin;
+      cmd.solrDoc = doc;
+      adds.add(cmd);
+    }
+    return adds;
+  }
+}
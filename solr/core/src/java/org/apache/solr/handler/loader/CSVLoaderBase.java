@@ -322,7 +322,7 @@ public abstract class CSVLoaderBase extends ContentStreamLoader {
     }
   }
 
-  private void input_err(String msg, String[] line, int lineno) {
+  void input_err(String msg, String[] line, int lineno) {
     StringBuilder sb = new StringBuilder();
     sb.append(errHeader)
         .append(", line=")
@@ -337,7 +337,7 @@ public abstract class CSVLoaderBase extends ContentStreamLoader {
     throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, sb.toString());
   }
 
-  private void input_err(String msg, String[] lines, int lineNo, Throwable e) {
+  void input_err(String msg, String[] lines, int lineNo, Throwable e) {
     StringBuilder sb = new StringBuilder();
     sb.append(errHeader)
         .append(", line=")
@@ -399,7 +399,7 @@ public abstract class CSVLoaderBase extends ContentStreamLoader {
     }
   }
 
-  private Reader getReader(ContentStream cs) throws IOException {
+  Reader getReader(ContentStream cs) throws IOException {
     Reader reader = cs.getReader();
     if (skipLines > 0) {
       if (!(reader instanceof BufferedReader)) {
@@ -419,6 +419,13 @@ public abstract class CSVLoaderBase extends ContentStreamLoader {
   /** this must be MT safe... may be called concurrently from multiple threads. */
   protected void doAdd(int line, String[] vals, SolrInputDocument doc, AddUpdateCommand template)
       throws IOException {
+    addFields(line, vals, doc);
+    template.solrDoc = doc;
+    processor.processAdd(template);
+  }
+
+  /** adds the fields of a line of values to the document. MT safe. */
+  void addFields(int line, String[] vals, SolrInputDocument doc) {
     // the line number is passed for error reporting in MT mode as well as for optional rowId.
     // first, create the lucene document
     for (int i = 0; i < vals.length; i++) {
@@ -434,7 +441,5 @@ public abstract class CSVLoaderBase extends ContentStreamLoader {
     if (rowId != null) {
       doc.addField(rowId, line + rowIdOffset);
     }
-    template.solrDoc = doc;
-    processor.processAdd(template);
   }
 }
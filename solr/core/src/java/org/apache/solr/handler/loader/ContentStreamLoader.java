@@ -29,6 +29,12 @@ import org.apache.solr.update.processor.UpdateRequestProcessor;
  */
 public abstract class ContentStreamLoader {
 
+  /**
+   * How many documents a loader parses before handing them together to {@link
+   * UpdateRequestProcessor#processAddBatch}
+   */
+  protected static final int ADD_BATCH_SIZE = 100;
+
   /** This should be called once for each RequestHandler */
   public ContentStreamLoader init(SolrParams args) {
     return this;
@@ -19,7 +19,9 @@ package org.apache.solr.handler.loader;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -36,7 +38,10 @@ import org.apache.solr.common.util.ContentStreamBase;
 import org.apache.solr.common.util.DataInputInputStream;
 import org.apache.solr.common.util.FastInputStream;
 import org.apache.solr.common.util.JavaBinCodec;
+import org.apache.solr.common.util.MapBackedCache;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.StringBytes;
+import org.apache.solr.common.util.SuppressForbidden;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.update.AddUpdateCommand;
@@ -50,6 +55,9 @@ import org.apache.solr.update.processor.UpdateRequestProcessor;
  * @see org.apache.solr.common.util.JavaBinCodec
  */
 public class JavabinLoader extends ContentStreamLoader {
+  /** The most field names of an update stream that are kept decoded */
+  static final int EXTERN_STRING_CACHE_SIZE = 1024;
+
   final ContentStreamLoader contentStreamLoader;
 
   public JavabinLoader() {
@@ -90,9 +98,10 @@ public class JavabinLoader extends ContentStreamLoader {
       return;
     }
     UpdateRequest update = null;
-    JavaBinUpdateRequestCodec.StreamingUpdateHandler handler =
+    var handler =
         new JavaBinUpdateRequestCodec.StreamingUpdateHandler() {
-          private AddUpdateCommand addCmd = null;
+          private SolrParams params = null;
+          private List<AddUpdateCommand> batch = new ArrayList<>();
 
           @Override
           public void update(
@@ -103,9 +112,10 @@ public class JavabinLoader extends ContentStreamLoader {
             if (document == null) {
               return;
             }
-            if (addCmd == null) {
-              addCmd = getAddCommand(req, updateRequest.getParams());
+            if (params == null) {
+              params = updateRequest.getParams();
             }
+            AddUpdateCommand addCmd = getAddCommand(req, params);
             addCmd.solrDoc = document;
             if (commitWithin != null) {
               addCmd.commitWithin = commitWithin;
@@ -119,26 +129,53 @@ public class JavabinLoader extends ContentStreamLoader {
               addCmd.isLastDocInBatch = true;
             }
 
+            batch.add(addCmd);
+            if (batch.size() >= ADD_BATCH_SIZE || addCmd.isLastDocInBatch) {
+              flush();
+            }
+          }
+
+          void flush() {
+            if (batch.isEmpty()) {
+              return;
+            }
+            List<AddUpdateCommand> cmds = batch;
+            batch = new ArrayList<>();
             try {
-              processor.processAdd(addCmd);
-              addCmd.clear();
+              processor.processAddBatch(cmds);
             } catch (IOException e) {
               throw new SolrException(
-                  SolrException.ErrorCode.SERVER_ERROR, "ERROR adding document " + document, e);
+                  SolrException.ErrorCode.SERVER_ERROR,
+                  "ERROR adding documents starting with " + cmds.get(0).solrDoc,
+                  e);
             }
           }
         };
+    // a stream may hold many update requests, e.g. one per document when forwarded by a leader;
+    // they share the most recently decoded field names
+    JavaBinUpdateRequestCodec codec =
+        new JavaBinUpdateRequestCodec()
+            .setExternStringCache(
+                new JavaBinCodec.StringCache(
+                    new MapBackedCache<>(new ExternStringLRUMap(EXTERN_STRING_CACHE_SIZE))));
     FastInputStream in = FastInputStream.wrap(stream);
-    for (; ; ) {
-      if (in.peek() == -1) return;
-      try {
-        update = new JavaBinUpdateRequestCodec().unmarshal(in, handler);
-      } catch (EOFException e) {
-        break; // this is expected
-      }
-      if (update.getDeleteByIdMap() != null || update.getDeleteQuery() != null) {
-        delete(req, update, processor);
+    try {
+      for (; ; ) {
+        if (in.peek() == -1) return;
+        try {
+          update = codec.unmarshal(in, handler);
+        } catch (EOFException e) {
+          break; // this is expected
+        }
+        if (update.getDeleteByIdMap() != null || update.getDeleteQuery() != null) {
+          // the adds before the deletes must be processed first
+          handler.flush();
+          delete(req, update, processor);
+        }
       }
+    } finally {
+      // also adds the documents read before a malformed one, as when adding them one at a time
+      handler.flush();
     }
   }
 
@@ -230,4 +267,23 @@ public class JavabinLoader extends ContentStreamLoader {
       }
     }
   }
+
+  /**
+   * The decoded field names of an update stream, bounded since a long stream may have any number
+   * of distinct (e.g. dynamic) field names.
+   */
+  @SuppressForbidden(reason = "extends linkedhashmap")
+  static class ExternStringLRUMap extends LinkedHashMap<StringBytes, String> {
+    private final int maxSize;
+
+    ExternStringLRUMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<StringBytes, String> eldest) {
+      return size() > maxSize;
+    }
+  }
 }
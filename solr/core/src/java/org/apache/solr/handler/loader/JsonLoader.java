@@ -23,6 +23,7 @@ import static org.apache.solr.common.params.CommonParams.PATH;
 import static org.apache.solr.common.params.CommonParams.VERSION_FIELD;
 import static org.apache.solr.common.params.ShardParams._ROUTE_;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
@@ -84,7 +85,11 @@ public class JsonLoader extends ContentStreamLoader {
       ContentStream stream,
       UpdateRequestProcessor processor)
       throws Exception {
-    new SingleThreadedJsonLoader(req, rsp, processor).load(req, rsp, stream, processor);
+    if (ParallelUpdateParser.getParseThreads(req.getParams()) > 1) {
+      new ParallelJsonLoader(req, rsp, processor).load(req, rsp, stream, processor);
+    } else {
+      new SingleThreadedJsonLoader(req, rsp, processor).load(req, rsp, stream, processor);
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -538,17 +543,30 @@ public class JsonLoader extends ContentStreamLoader {
     }
 
     void handleAdds() throws IOException {
-      while (true) {
-        AddUpdateCommand cmd = new AddUpdateCommand(req);
-        cmd.commitWithin = commitWithin;
-        cmd.overwrite = overwrite;
-
-        int ev = parser.nextEvent();
-        if (ev == JSONParser.ARRAY_END) break;
-
-        assertEvent(ev, JSONParser.OBJECT_START);
-        cmd.solrDoc = parseDoc(ev);
-        processor.processAdd(cmd);
+      List<AddUpdateCommand> batch = new ArrayList<>();
+      try {
+        while (true) {
+          AddUpdateCommand cmd = new AddUpdateCommand(req);
+          cmd.commitWithin = commitWithin;
+          cmd.overwrite = overwrite;
+
+          int ev = parser.nextEvent();
+          if (ev == JSONParser.ARRAY_END) break;
+
+          assertEvent(ev, JSONParser.OBJECT_START);
+          cmd.solrDoc = parseDoc(ev);
+          batch.add(cmd);
+          if (batch.size() >= ADD_BATCH_SIZE) {
+            List<AddUpdateCommand> cmds = batch;
+            batch = new ArrayList<>();
+            processor.processAddBatch(cmds);
+          }
+        }
+      } finally {
+        // also adds the documents parsed before a malformed one, as when adding them one at a time
+        if (!batch.isEmpty()) {
+          processor.processAddBatch(batch);
+        }
       }
     }
 
@@ -685,6 +703,162 @@ public class JsonLoader extends ContentStreamLoader {
     }
   }
 
+  /**
+   * Parses a top-level array of documents on several threads, see {@link ParallelUpdateParser}.
+   * Any other input, including what follows the array, is handled on the request thread.
+   */
+  static class ParallelJsonLoader extends SingleThreadedJsonLoader {
+
+    ParallelJsonLoader(
+        SolrQueryRequest req, SolrQueryResponse rsp, UpdateRequestProcessor processor) {
+      super(req, rsp, processor);
+    }
+
+    @Override
+    void processUpdate(Reader reader) throws IOException {
+      String path = (String) req.getContext().get(PATH);
+      if (UpdateRequestHandler.DOC_PATH.equals(path)
+          || "false".equals(req.getParams().get("json.command"))) {
+        super.processUpdate(reader);
+        return;
+      }
+      BufferedReader in = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+      if (skipToArrayStart(in)) {
+        try (ParallelUpdateParser parallel =
+            new ParallelUpdateParser(
+                req.getParams(), req.getCoreContainer().getUpdateParserExecutor(), processor)) {
+          boolean more = true;
+          while (more) {
+            StringBuilder chunk = new StringBuilder("[");
+            more = readChunk(in, chunk, parallel.getChunkSize());
+            String json = chunk.toString();
+            parallel.submit(() -> parseChunk(json));
+          }
+          parallel.finish();
+        }
+      }
+      super.processUpdate(in);
+    }
+
+    private static boolean skipToArrayStart(BufferedReader in) throws IOException {
+      int c;
+      do {
+        in.mark(1);
+        c = in.read();
+      } while (c != -1 && Character.isWhitespace(c));
+      if (c == '[') {
+        return true;
+      }
+      if (c != -1) {
+        in.reset();
+      }
+      return false;
+    }
+
+    /**
+     * Appends the next elements of the top-level array to the chunk, stopping at the first element
+     * boundary after chunkSize chars. Only strings, comments and nesting are tracked; the chunk is
+     * validated when it is parsed.
+     *
+     * @return false once the end of the array, or of the input, has been reached
+     */
+    private static boolean readChunk(BufferedReader in, StringBuilder chunk, int chunkSize)
+        throws IOException {
+      int depth = 0;
+      int quote = -1;
+      for (; ; ) {
+        int c = in.read();
+        if (c == -1) {
+          return false;
+        }
+        if (quote != -1) {
+          chunk.append((char) c);
+          if (c == '\\') {
+            c = in.read();
+            if (c == -1) return false;
+            chunk.append((char) c);
+          } else if (c == quote) {
+            quote = -1;
+          }
+          continue;
+        }
+        switch (c) {
+          case '"', '\'' -> quote = c;
+          case '{', '[' -> depth++;
+          case '}' -> depth--;
+          case ']' -> {
+            if (depth == 0) {
+              chunk.append(']');
+              return false;
+            }
+            depth--;
+          }
+          case ',' -> {
+            if (depth == 0 && chunk.length() >= chunkSize) {
+              chunk.append(']');
+              return true;
+            }
+          }
+          case '#' -> {
+            chunk.append('#');
+            c = copyUntil(in, chunk, "\n");
+          }
+          case '/' -> {
+            in.mark(1);
+            int next = in.read();
+            if (next == '*' || next == '/') {
+              chunk.append('/').append((char) next);
+              c = copyUntil(in, chunk, next == '*' ? "*/" : "\n");
+            } else if (next != -1) {
+              in.reset();
+            }
+          }
+          default -> {}
+        }
+        if (c == -1) {
+          return false;
+        }
+        chunk.append((char) c);
+      }
+    }
+
+    /** Copies a comment up to its end, returning the last char of the end or -1 at EOF */
+    private static int copyUntil(Reader in, StringBuilder chunk, String end) throws IOException {
+      int matched = 0;
+      for (; ; ) {
+        int c = in.read();
+        if (c == -1) return -1;
+        if (c == end.charAt(matched)) {
+          if (++matched == end.length()) return c;
+        } else {
+          matched = c == end.charAt(0) ? 1 : 0;
+        }
+        chunk.append((char) c);
+      }
+    }
+
+    private List<AddUpdateCommand> parseChunk(String json) throws IOException {
+      List<AddUpdateCommand> adds = new ArrayList<>();
+      UpdateRequestProcessor collector =
+          new UpdateRequestProcessor(null) {
+            @Override
+            public void processAdd(AddUpdateCommand cmd) {
+              adds.add(cmd);
+            }
+          };
+      SingleThreadedJsonLoader loader = new SingleThreadedJsonLoader(req, rsp, collector);
+      try {
+        loader.parser = new JSONParser(new StringReader(json));
+        loader.assertNextEvent(JSONParser.ARRAY_START);
+        loader.handleAdds();
+      } catch (ParseException e) {
+        throw new SolrException(
+            SolrException.ErrorCode.BAD_REQUEST, "Cannot parse provided JSON: " + e.getMessage());
+      }
+      return adds;
+    }
+  }
+
   private static Object changeChildDoc(Object o) {
     if (o instanceof List) {
       return ((List<?>) o).stream().map(JsonLoader::changeChildDoc).collect(toList());
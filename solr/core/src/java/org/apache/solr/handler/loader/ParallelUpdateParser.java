@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.loader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.core.CoreContainer;
+import org.apache.solr.update.AddUpdateCommand;
+import org.apache.solr.update.processor.UpdateRequestProcessor;
+
+/**
+ * Parses the documents of a single large update request on the node's {@link
+ * CoreContainer#getUpdateParserExecutor() update parser threads}. The loader splits its input into
+ * chunks at document boundaries on the request thread and submits a task per chunk; when all the
+ * threads are busy, the chunk is parsed on the request thread instead. The documents each task
+ * parses are passed as a batch to the update processor chain, which is not thread safe, on the
+ * request thread. They are processed in input order unless {@link #PARSE_ORDERED} is false, in
+ * which case each chunk is processed as soon as it has been parsed.
+ */
+class ParallelUpdateParser implements Closeable {
+  /** The number of threads parsing the request; 1, the default, parses on the request thread */
+  static final String PARSE_THREADS = "parseThreads";
+
+  /** Whether documents parsed in parallel are processed in the order of the input */
+  static final String PARSE_ORDERED = "parseOrdered";
+
+  /** A chunk is ended at the first document boundary after this many chars; 1M by default */
+  static final String PARSE_CHUNK_SIZE = "parseChunkSize";
+
+  private final UpdateRequestProcessor processor;
+  private final boolean ordered;
+  private final int chunkSize;
+  private final int maxPending;
+  private final ExecutorService executor;
+  private final CompletionService<List<AddUpdateCommand>> completionService;
+  private final ArrayDeque<Future<List<AddUpdateCommand>>> pending = new ArrayDeque<>();
+
+  /** The number of threads to parse the request with, at most the number of processors */
+  static int getParseThreads(SolrParams params) {
+    int threads = params.getInt(PARSE_THREADS, 1);
+    return Math.max(1, Math.min(threads, Runtime.getRuntime().availableProcessors()));
+  }
+
+  ParallelUpdateParser(
+      SolrParams params, ExecutorService executor, UpdateRequestProcessor processor) {
+    this.processor = processor;
+    this.ordered = params.getBool(PARSE_ORDERED, true);
+    this.chunkSize = params.getInt(PARSE_CHUNK_SIZE, 1 << 20);
+    // bounds both the threads the request takes from the executor and the parsed chunks in memory
+    this.maxPending = getParseThreads(params);
+    this.executor = executor;
+    this.completionService = new ExecutorCompletionService<>(executor);
+  }
+
+  /** The number of chars after which a loader should end the current chunk */
+  int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Submits a task parsing a chunk of the input. If too many chunks are pending, this first
+   * processes the documents of the oldest, or of any finished one if unordered. If the executor
+   * has no thread to spare, the chunk is parsed right away on the calling thread.
+   */
+  void submit(Callable<List<AddUpdateCommand>> parseTask) throws IOException {
+    while (pending.size() >= maxPending) {
+      processNext();
+    }
+    try {
+      pending.add(ordered ? executor.submit(parseTask) : completionService.submit(parseTask));
+    } catch (RejectedExecutionException e) {
+      FutureTask<List<AddUpdateCommand>> task = new FutureTask<>(parseTask);
+      task.run();
+      if (ordered) {
+        pending.add(task);
+      } else {
+        process(task);
+      }
+    }
+  }
+
+  /** Waits for every submitted chunk to be parsed and processes its documents */
+  void finish() throws IOException {
+    while (!pending.isEmpty()) {
+      processNext();
+    }
+  }
+
+  private void processNext() throws IOException {
+    Future<List<AddUpdateCommand>> future;
+    if (ordered) {
+      future = pending.poll();
+    } else {
+      try {
+        future = completionService.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+      }
+      pending.remove(future);
+    }
+    process(future);
+  }
+
+  private void process(Future<List<AddUpdateCommand>> future) throws IOException {
+    try {
+      processor.processAddBatch(future.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SolrException se) {
+        throw se;
+      } else if (cause instanceof IOException ioe) {
+        throw ioe;
+      }
+      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, cause);
+    }
+  }
+
+  /** Cancels the chunks still pending, e.g. after one of them failed */
+  @Override
+  public void close() {
+    for (Future<List<AddUpdateCommand>> future : pending) {
+      future.cancel(true);
+    }
+    pending.clear();
+  }
+}
@@ -210,6 +210,8 @@ public class BitDocSet extends DocSet {
   protected static void andNot(FixedBitSet bits, DocSet other) {
     if (other instanceof BitDocSet) {
       bits.andNot(((BitDocSet) other).bits);
+    } else if (other instanceof RoaringDocSet roaring) {
+      roaring.removeAllFrom(bits);
     } else {
       DocIterator iter = other.iterator();
       while (iter.hasNext()) {
@@ -227,6 +229,9 @@ public class BitDocSet extends DocSet {
     if (other instanceof BitDocSet otherDocSet) {
       newbits = FixedBitSet.ensureCapacity(newbits, otherDocSet.bits.length());
       newbits.or(otherDocSet.bits);
+    } else if (other instanceof RoaringDocSet roaring) {
+      newbits = FixedBitSet.ensureCapacity(newbits, roaring.maxDoc());
+      roaring.addAllTo(newbits);
     } else {
       DocIterator iter = other.iterator();
       while (iter.hasNext()) {
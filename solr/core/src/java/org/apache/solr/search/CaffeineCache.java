@@ -29,7 +29,9 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.invoke.MethodHandles;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -40,6 +42,9 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
@@ -92,7 +97,7 @@ public class CaffeineCache<K, V> extends SolrCacheBase
   private LongAdder lookups;
   private Cache<K, V> cache;
   private AsyncCache<K, V> asyncCache;
-  private long warmupTime;
+  private volatile long warmupTime;
   private int maxSize;
   private long maxRamBytes;
   private int initialSize;
@@ -424,13 +429,65 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     hits.reset();
     inserts.reset();
     lookups.reset();
+    addPriorStats(other);
+    warmupTime =
+        TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public List<Runnable> warmTasks(SolrIndexSearcher searcher, SolrCache<K, V> old) {
+    if (regenerator == null) {
+      return List.of();
+    }
+
+    CaffeineCache<K, V> other = (CaffeineCache<K, V>) old;
+    // the stats from here on include the warming, which may overlap live requests
+    addPriorStats(other);
+    if (!isAutowarmingOn()) {
+      return List.of();
+    }
+
+    int size = autowarm.getWarmCount(other.cache.asMap().size());
+    Map<K, V> hottest =
+        other.cache.policy().eviction().map(p -> p.hottest(size)).orElse(Collections.emptyMap());
+    AtomicBoolean stopped = new AtomicBoolean();
+    // the warmup time runs from the first task starting to the last one finishing
+    AtomicLong warmingStartTime = new AtomicLong();
+    AtomicInteger remaining = new AtomicInteger(hottest.size());
+    List<Runnable> tasks = new ArrayList<>(hottest.size());
+    for (Entry<K, V> entry : hottest.entrySet()) {
+      tasks.add(
+          () -> {
+            warmingStartTime.compareAndSet(0, System.nanoTime());
+            try {
+              if (stopped.get()) {
+                return;
+              }
+              boolean continueRegen =
+                  regenerator.regenerateItem(searcher, this, old, entry.getKey(), entry.getValue());
+              if (!continueRegen) {
+                stopped.set(true);
+              }
+            } catch (Exception e) {
+              log.error("Error during auto-warming of key: {}", entry.getKey(), e);
+            } finally {
+              if (remaining.decrementAndGet() == 0) {
+                warmupTime =
+                    TimeUnit.MILLISECONDS.convert(
+                        System.nanoTime() - warmingStartTime.get(), TimeUnit.NANOSECONDS);
+              }
+            }
+          });
+    }
+    return tasks;
+  }
+
+  private void addPriorStats(CaffeineCache<K, V> other) {
     CacheStats oldStats = other.cache.stats();
     priorStats = oldStats.plus(other.priorStats);
     priorHits = oldStats.hitCount() + other.hits.sum() + other.priorHits;
     priorInserts = other.inserts.sum() + other.priorInserts;
     priorLookups = oldStats.requestCount() + other.lookups.sum() + other.priorLookups;
-    warmupTime =
-        TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
   }
 
   /** Returns the description of this cache. */
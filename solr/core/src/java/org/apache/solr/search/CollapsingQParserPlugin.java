@@ -484,6 +484,42 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         throw new RuntimeException(e);
       }
     }
+
+    /**
+     * Collapsing by score on a String, Int or Float field can be done independently per leaf slice,
+     * with the group heads of all slices reconciled afterwards. Block collapse, the top_fc hint,
+     * the other group head selectors and elevated documents still need a single collector.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public PostFilterCollectorManager getFilterCollectorManager(IndexSearcher indexSearcher) {
+      if (!GroupHeadSelectorType.SCORE.equals(groupHeadSelector.type)
+          || "_root_".equals(collapseField)
+          || HINT_BLOCK.equals(hint)
+          || HINT_TOP_FC.equals(hint)) {
+        return null;
+      }
+
+      Set<BytesRef> boostedDocs = this.boosted;
+      SolrRequestInfo info = SolrRequestInfo.getRequestInfo();
+      if (boostedDocs == null && info != null) {
+        boostedDocs =
+            (Set<BytesRef>) info.getReq().getContext().get(QueryElevationComponent.BOOSTED);
+      }
+      if (boostedDocs != null && !boostedDocs.isEmpty()) {
+        return null;
+      }
+
+      SolrIndexSearcher searcher = (SolrIndexSearcher) indexSearcher;
+      FieldType collapseFieldType = searcher.getSchema().getField(collapseField).getType();
+      if (collapseFieldType instanceof StrField) {
+        return new SliceScoreCollectorManager(searcher, collapseField, false, nullPolicy.getCode());
+      } else if (CollectorFactory.NUMERIC_COLLAPSIBLE_TYPES.contains(
+          collapseFieldType.getNumberType())) {
+        return new SliceScoreCollectorManager(searcher, collapseField, true, nullPolicy.getCode());
+      }
+      return null;
+    }
   }
 
   /**
@@ -996,6 +1032,231 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     }
   }
 
+  /**
+   * Creates a {@link SliceScoreCollector} per leaf slice and reconciles their group heads: for each
+   * group the highest scoring head wins, and on equal scores the lowest doc, as with {@link
+   * OrdScoreCollector} and {@link IntScoreCollector}. Each slice then forwards the heads it won to
+   * its own delegate.
+   *
+   * @lucene.internal
+   */
+  static class SliceScoreCollectorManager implements PostFilterCollectorManager {
+
+    private final SolrIndexSearcher searcher;
+    private final String field;
+    private final boolean numeric;
+    private final int nullPolicy;
+    private OrdinalMap ordinalMap; // null for numeric fields or a single segment
+    private boolean ordinalMapLoaded;
+
+    SliceScoreCollectorManager(
+        SolrIndexSearcher searcher, String field, boolean numeric, int nullPolicy) {
+      this.searcher = searcher;
+      this.field = field;
+      this.numeric = numeric;
+      this.nullPolicy = nullPolicy;
+    }
+
+    /** The global ordinals of the String field, loaded when the first slice needs them */
+    synchronized OrdinalMap getOrdinalMap() throws IOException {
+      if (!ordinalMapLoaded) {
+        SortedDocValues values = DocValues.getSorted(searcher.getSlowAtomicReader(), field);
+        if (values instanceof MultiDocValues.MultiSortedDocValues) {
+          ordinalMap = ((MultiDocValues.MultiSortedDocValues) values).mapping;
+        }
+        ordinalMapLoaded = true;
+      }
+      return ordinalMap;
+    }
+
+    @Override
+    public DelegatingCollector newCollector() {
+      return new SliceScoreCollector(this);
+    }
+
+    @Override
+    public void complete(List<DelegatingCollector> collectors) throws IOException {
+      int maxGroups = 0;
+      for (DelegatingCollector collector : collectors) {
+        maxGroups = Math.max(maxGroups, ((SliceScoreCollector) collector).heads.size());
+      }
+
+      IntLongHashMap groupHeads = new IntLongHashMap(maxGroups);
+      long nullHead = -1;
+      for (DelegatingCollector collector : collectors) {
+        SliceScoreCollector slice = (SliceScoreCollector) collector;
+        for (IntLongCursor cursor : slice.heads) {
+          final int idx = groupHeads.indexOf(cursor.key);
+          if (idx < 0) {
+            groupHeads.indexInsert(idx, cursor.key, cursor.value);
+          } else if (isBetterHead(cursor.value, groupHeads.indexGet(idx))) {
+            groupHeads.indexReplace(idx, cursor.value);
+          }
+        }
+        if (slice.nullDoc > -1) {
+          long sliceNullHead = pack(slice.nullScore, slice.nullDoc);
+          if (nullHead == -1 || isBetterHead(sliceNullHead, nullHead)) {
+            nullHead = sliceNullHead;
+          }
+        }
+      }
+
+      final int nullDoc = nullHead == -1 ? -1 : unpackDoc(nullHead);
+      for (DelegatingCollector collector : collectors) {
+        ((SliceScoreCollector) collector).collectHeads(groupHeads, nullDoc);
+      }
+    }
+
+    /** Combines the score and global document into a long. */
+    static long pack(float score, int globalDoc) {
+      return (((long) Float.floatToRawIntBits(score)) << 32) | (globalDoc & 0xFFFFFFFFL);
+    }
+
+    static float unpackScore(long scoreDoc) {
+      return Float.intBitsToFloat((int) (scoreDoc >>> 32));
+    }
+
+    static int unpackDoc(long scoreDoc) {
+      return (int) scoreDoc;
+    }
+
+    private static boolean isBetterHead(long scoreDoc, long otherScoreDoc) {
+      float score = unpackScore(scoreDoc);
+      float otherScore = unpackScore(otherScoreDoc);
+      return score > otherScore
+          || (score == otherScore && unpackDoc(scoreDoc) < unpackDoc(otherScoreDoc));
+    }
+  }
+
+  /**
+   * Collapses on ordinal values or on an integer field, using the score to select the group head,
+   * over one leaf slice of a multi-threaded search. Group heads are held in a hash keyed on the
+   * global ordinal or field value rather than in structures sized to the number of values or
+   * documents.
+   *
+   * @see SliceScoreCollectorManager
+   * @lucene.internal
+   */
+  static class SliceScoreCollector extends DelegatingCollector {
+
+    private final SliceScoreCollectorManager manager;
+    private final List<LeafReaderContext> leaves = new ArrayList<>();
+    private final IntLongHashMap heads = new IntLongHashMap(); // key -> packed score and doc
+    private SortedDocValues segmentValues;
+    private LongValues segmentOrdinalMap;
+    private NumericDocValues numericValues;
+    private float nullScore = -Float.MAX_VALUE;
+    private int nullDoc = -1;
+    private IntArrayList nullDocs;
+    private FloatArrayList nullScores;
+
+    SliceScoreCollector(SliceScoreCollectorManager manager) {
+      this.manager = manager;
+      if (manager.nullPolicy == NullPolicy.EXPAND.getCode()) {
+        nullDocs = new IntArrayList();
+        nullScores = new FloatArrayList();
+      }
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+      return ScoreMode.COMPLETE;
+    }
+
+    @Override
+    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+      this.leaves.add(context);
+      this.docBase = context.docBase;
+      if (manager.numeric) {
+        this.numericValues = DocValues.getNumeric(context.reader(), manager.field);
+      } else {
+        this.segmentValues = DocValues.getSorted(context.reader(), manager.field);
+        OrdinalMap ordinalMap = manager.getOrdinalMap();
+        this.segmentOrdinalMap =
+            ordinalMap == null ? LongValues.IDENTITY : ordinalMap.getGlobalOrds(context.ord);
+      }
+    }
+
+    @Override
+    public void collect(int contextDoc) throws IOException {
+      final int globalDoc = docBase + contextDoc;
+      if (manager.numeric) {
+        if (numericValues.advanceExact(contextDoc)) {
+          collectInGroup((int) numericValues.longValue(), globalDoc);
+          return;
+        }
+      } else if (segmentValues.advanceExact(contextDoc)) {
+        collectInGroup((int) segmentOrdinalMap.get(segmentValues.ordValue()), globalDoc);
+        return;
+      }
+
+      // Null Group...
+      if (manager.nullPolicy == NullPolicy.COLLAPSE.getCode()) {
+        float score = scorer.score();
+        if (score > nullScore) {
+          nullScore = score;
+          nullDoc = globalDoc;
+        }
+      } else if (manager.nullPolicy == NullPolicy.EXPAND.getCode()) {
+        nullDocs.add(globalDoc);
+        nullScores.add(scorer.score());
+      }
+    }
+
+    private void collectInGroup(int key, int globalDoc) throws IOException {
+      final float score = scorer.score();
+      final int idx;
+      if ((idx = heads.indexOf(key)) >= 0) {
+        if (score > SliceScoreCollectorManager.unpackScore(heads.indexGet(idx))) {
+          heads.indexReplace(idx, SliceScoreCollectorManager.pack(score, globalDoc));
+        }
+      } else {
+        heads.indexInsert(idx, key, SliceScoreCollectorManager.pack(score, globalDoc));
+      }
+    }
+
+    /** Forwards the group heads won by this slice, in doc order, to the delegate. */
+    private void collectHeads(IntLongHashMap groupHeads, int groupNullDoc) throws IOException {
+      final int nullCount = nullDocs == null ? 1 : nullDocs.size();
+      // doc in the high bits, so that sorting orders by doc
+      final long[] docScores = new long[heads.size() + nullCount];
+      int count = 0;
+      for (IntLongCursor cursor : heads) {
+        if (groupHeads.get(cursor.key) == cursor.value) {
+          docScores[count++] =
+              ((long) SliceScoreCollectorManager.unpackDoc(cursor.value) << 32)
+                  | (cursor.value >>> 32);
+        }
+      }
+      if (nullDoc > -1 && nullDoc == groupNullDoc) {
+        docScores[count++] =
+            ((long) nullDoc << 32) | (Float.floatToRawIntBits(nullScore) & 0xFFFFFFFFL);
+      }
+      if (nullDocs != null) {
+        for (int i = 0; i < nullDocs.size(); i++) {
+          docScores[count++] =
+              ((long) nullDocs.get(i) << 32)
+                  | (Float.floatToRawIntBits(nullScores.get(i)) & 0xFFFFFFFFL);
+        }
+      }
+      Arrays.sort(docScores, 0, count);
+
+      leaves.sort((a, b) -> Integer.compare(a.docBase, b.docBase));
+      ScoreAndDoc dummy = new ScoreAndDoc();
+      int i = 0;
+      for (LeafReaderContext leaf : leaves) {
+        leafDelegate = delegate.getLeafCollector(leaf);
+        leafDelegate.setScorer(dummy);
+        final int nextDocBase = leaf.docBase + leaf.reader().maxDoc();
+        for (; i < count && (int) (docScores[i] >>> 32) < nextDocBase; i++) {
+          dummy.score = Float.intBitsToFloat((int) docScores[i]);
+          dummy.docId = (int) (docScores[i] >>> 32) - leaf.docBase;
+          leafDelegate.collect(dummy.docId);
+        }
+      }
+    }
+  }
+
   /**
    * Collapse on Ordinal value field.
    *
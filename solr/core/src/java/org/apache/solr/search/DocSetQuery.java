@@ -91,7 +91,8 @@ class DocSetQuery extends Query implements DocSetProducer {
 
       @Override
       public boolean isCacheable(LeafReaderContext ctx) {
-        return true;
+        // the DocSet is relative to the top-level reader it was built against
+        return false;
       }
     };
   }
@@ -36,6 +36,7 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
+import org.apache.solr.common.util.EnvUtils;
 
 /**
  * @lucene.experimental
@@ -53,6 +54,30 @@ public class DocSetUtil {
     return (maxDoc >> 6) + 5; // The +5 is for better test coverage for small sets
   }
 
+  /** Whether {@link #compress(DocSet, int)} converts sets to {@link RoaringDocSet}s */
+  public static boolean COMPRESS_CACHED_DOC_SETS =
+      EnvUtils.getPropertyAsBool("solr.search.compressCachedDocSets", false);
+
+  /**
+   * Returns the docs of a set that is going to be cached in a form that's cheaper to hold on to: a
+   * {@link BitDocSet} is converted to a {@link RoaringDocSet} if that saves at least a quarter of
+   * its memory. This is only done if {@link #COMPRESS_CACHED_DOC_SETS} is set, since operations on
+   * the compressed set are somewhat slower.
+   *
+   * @lucene.experimental
+   */
+  public static DocSet compress(DocSet docs, int maxDoc) {
+    if (COMPRESS_CACHED_DOC_SETS
+        && docs instanceof BitDocSet bitDocSet
+        && !(docs instanceof MutableBitDocSet)) {
+      FixedBitSet bits = bitDocSet.getBits();
+      if (RoaringDocSet.estimateRamBytesUsed(bits, maxDoc) < docs.ramBytesUsed() / 4 * 3) {
+        return RoaringDocSet.fromBits(bits, maxDoc);
+      }
+    }
+    return docs;
+  }
+
   /**
    * Iterates DocSets to test for equality - slow and for testing purposes only.
    *
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A hash key for the filterIntersectionCache: an unordered set of cached filter queries, some of
+ * which may be negative.
+ */
+public final class FilterIntersectionKey implements Accountable {
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(FilterIntersectionKey.class);
+
+  private final Set<Query> filters;
+  private final int hc; // cached hashCode
+  private final long ramBytesUsed; // cached
+
+  public FilterIntersectionKey(List<Query> filters) {
+    this.filters = Set.copyOf(filters);
+    this.hc = this.filters.hashCode();
+    this.ramBytesUsed =
+        BASE_RAM_BYTES_USED
+            + RamUsageEstimator.sizeOfObject(
+                this.filters, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED);
+  }
+
+  /** The filters, in no particular order */
+  public List<Query> getFilters() {
+    return new ArrayList<>(filters);
+  }
+
+  @Override
+  public int hashCode() {
+    return hc;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) return true;
+    if (!(o instanceof FilterIntersectionKey other)) return false;
+    return this.hc == other.hc && this.filters.equals(other.filters);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return ramBytesUsed;
+  }
+
+  @Override
+  public String toString() {
+    return "FilterIntersectionKey" + filters;
+  }
+}
@@ -52,6 +52,12 @@ public class FunctionRangeQuery extends ExtendedQueryBase implements PostFilter
     return new FunctionRangeCollector(fcontext);
   }
 
+  @Override
+  public PostFilterCollectorManager getFilterCollectorManager(IndexSearcher searcher) {
+    // each document is accepted or rejected on its own, so slices can be filtered independently
+    return () -> getFilterCollector(searcher);
+  }
+
   class FunctionRangeCollector extends DelegatingCollector {
     final Map<Object, Object> fcontext;
     ValueSourceScorer valueSourceScorer;
@@ -285,7 +285,8 @@ public class GraphTermsQParserPlugin extends QParserPlugin {
 
         @Override
         public boolean isCacheable(LeafReaderContext ctx) {
-          return true;
+          // which terms match depends on their docFreq across the whole index
+          return false;
         }
       };
     }
@@ -615,7 +616,8 @@ abstract class PointSetQuery extends Query implements DocSetProducer, Accountabl
 
       @Override
       public boolean isCacheable(LeafReaderContext ctx) {
-        return true;
+        // which points match depends on their count across the whole index
+        return false;
       }
     };
   }
@@ -391,6 +391,10 @@ class JoinQuery extends Query implements SolrSearcherRequirer {
               } else {
                 if (toTermSet instanceof BitDocSet) {
                   resultBits = ((BitDocSet) toTermSet).getBits().clone();
+                } else if (toTermSet instanceof RoaringDocSet) {
+                  // a large set; the small ones are merged as sorted ints below
+                  resultBits = new FixedBitSet(toSearcher.maxDoc());
+                  toTermSet.addAllTo(resultBits);
                 } else {
                   resultList.add(toTermSet);
                 }
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.Collector;
@@ -50,6 +51,7 @@ public class MultiThreadedSearcher {
       int len,
       QueryCommand cmd,
       Query query,
+      List<PostFilterCollectorManager> postFilterManagers,
       boolean needTopDocs,
       boolean needMaxScore,
       boolean needDocSet,
@@ -92,11 +94,16 @@ public class MultiThreadedSearcher {
     @SuppressWarnings({"unchecked", "rawtypes"})
     CollectorManager<Collector, Object>[] colls = collectors.toArray(new CollectorManager[0]);
     final SolrMultiCollectorManager manager = new SolrMultiCollectorManager(cmd, colls);
+    final PostFilteringCM postFilteringManager =
+        postFilterManagers == null ? null : new PostFilteringCM(manager, postFilterManagers);
     Object[] ret;
     try {
-      ret = searcher.search(query, manager);
+      ret =
+          postFilteringManager == null
+              ? searcher.search(query, manager)
+              : searcher.search(query, postFilteringManager);
     } catch (EarlyTerminatingCollectorException ex) {
-      ret = manager.reduce();
+      ret = postFilteringManager == null ? manager.reduce() : postFilteringManager.reduce();
       queryResult.setMaxHitsTerminatedEarly(true);
       queryResult.setPartialResults(Boolean.TRUE);
       queryResult.setPartialResultsDetails(ex.getMessage());
@@ -119,11 +126,16 @@ public class MultiThreadedSearcher {
     return new SearchResult(scoreMode, ret);
   }
 
-  static boolean allowMT(DelegatingCollector postFilter, QueryCommand cmd) {
+  static boolean allowMT(SolrIndexSearcher.ProcessedFilter pf, QueryCommand cmd) {
+    return (pf.postFilter == null || pf.postFilterManagers != null) && allowMT(cmd);
+  }
+
+  /** Whether the command allows a multi-threaded search, if its post filters do */
+  static boolean allowMT(QueryCommand cmd) {
     // TODO: it's unclear if segmentTerminateEarly is truly incompatible but
     //  since it has to appropriately denote partial results this needs to be
     //  investigated/tested before we can remove this check (perhaps for 9.8).
-    return postFilter == null && !cmd.getSegmentTerminateEarly() && cmd.getMultiThreaded();
+    return !cmd.getSegmentTerminateEarly() && cmd.getMultiThreaded();
   }
 
   static class MaxScoreResult {
@@ -236,6 +248,71 @@ public class MultiThreadedSearcher {
     }
   }
 
+  /**
+   * Puts a chain of post filter collectors, one per {@link PostFilterCollectorManager}, in front of
+   * each slice's collectors and runs the merge step of every post filter, outermost first, before
+   * reducing the wrapped manager.
+   */
+  private static class PostFilteringCM implements CollectorManager<DelegatingCollector, Object[]> {
+    private final SolrMultiCollectorManager manager;
+    private final List<PostFilterCollectorManager> postFilterManagers;
+    // per post filter, the collectors of every slice
+    private final List<List<DelegatingCollector>> sliceCollectors;
+    private boolean completed;
+
+    PostFilteringCM(
+        SolrMultiCollectorManager manager, List<PostFilterCollectorManager> postFilterManagers) {
+      this.manager = manager;
+      this.postFilterManagers = postFilterManagers;
+      this.sliceCollectors = new ArrayList<>(postFilterManagers.size());
+      for (int i = 0; i < postFilterManagers.size(); i++) {
+        sliceCollectors.add(new ArrayList<>());
+      }
+    }
+
+    @Override
+    public DelegatingCollector newCollector() throws IOException {
+      Collector delegate = manager.newCollector();
+      int i = postFilterManagers.size() - 1;
+      DelegatingCollector collector = postFilterManagers.get(i).newCollector();
+      collector.setDelegate(delegate);
+      sliceCollectors.get(i).add(collector);
+      while (--i >= 0) {
+        // the next post filter is completed by its own manager, so don't let complete() reach it
+        delegate = new SliceLink(collector);
+        collector = postFilterManagers.get(i).newCollector();
+        collector.setDelegate(delegate);
+        sliceCollectors.get(i).add(collector);
+      }
+      return collector;
+    }
+
+    @Override
+    public Object[] reduce(Collection<DelegatingCollector> collectors) throws IOException {
+      return reduce();
+    }
+
+    Object[] reduce() throws IOException {
+      if (!completed) {
+        completed = true;
+        for (int i = 0; i < postFilterManagers.size(); i++) {
+          postFilterManagers.get(i).complete(sliceCollectors.get(i));
+        }
+      }
+      return manager.reduce();
+    }
+  }
+
+  /** Passes documents through to the next post filter of a slice without completing it. */
+  private static class SliceLink extends DelegatingCollector {
+    SliceLink(Collector delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void complete() {}
+  }
+
   private static class MaxScoreCM implements CollectorManager<Collector, Object> {
     private final Collector[] firstCollectors;
     private final int firstMaxScoreCollectorIndex;
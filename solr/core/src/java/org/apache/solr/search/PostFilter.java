@@ -34,6 +34,10 @@ import org.apache.lucene.search.IndexSearcher;
  * the collector method of filtering through getFilterCollector, then ExtendedQuery.getCached()
  * should always return false, and ExtendedQuery.getCost() should return no less than 100.
  *
+ * <p>A post filter that can filter each leaf slice independently may additionally implement {@link
+ * #getFilterCollectorManager(IndexSearcher)}, which allows queries using it to be searched with
+ * {@code multiThreaded=true}.
+ *
  * @see ExtendedQueryBase
  */
 public interface PostFilter extends ExtendedQuery {
@@ -43,4 +47,13 @@ public interface PostFilter extends ExtendedQuery {
    * any sorting or grouping collectors
    */
   public DelegatingCollector getFilterCollector(IndexSearcher searcher);
+
+  /**
+   * Returns a {@link PostFilterCollectorManager} that creates one DelegatingCollector per leaf
+   * slice for multi-threaded search, or null if this post filter must see every segment through a
+   * single collector. The default returns null, which makes the search single-threaded.
+   */
+  public default PostFilterCollectorManager getFilterCollectorManager(IndexSearcher searcher) {
+    return null;
+  }
 }
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Creates the per-slice {@link DelegatingCollector}s of a {@link PostFilter} when a query is
+ * searched concurrently over leaf slices, and merges them once every slice has been collected.
+ *
+ * <p>{@link #newCollector()} is called once per slice before collection starts; each collector is
+ * then only used by the thread searching its slice. {@link #complete(List)} is called once, on the
+ * searching thread, after all slices are done and before the results of the delegates are reduced.
+ *
+ * @see PostFilter#getFilterCollectorManager(org.apache.lucene.search.IndexSearcher)
+ * @lucene.experimental
+ */
+public interface PostFilterCollectorManager {
+
+  /** Returns a new collector for one leaf slice. Its delegate is set by the caller. */
+  DelegatingCollector newCollector() throws IOException;
+
+  /**
+   * Merge step, called with the collectors of every slice in slice order. Implementations that
+   * buffer documents reconcile the per-slice state here and forward the surviving documents to each
+   * slice's delegate. The delegates themselves are completed by the caller, so implementations
+   * must not rely on {@link DelegatingCollector#complete()} reaching them. The default completes
+   * each slice collector independently.
+   */
+  default void complete(List<DelegatingCollector> collectors) throws IOException {
+    for (DelegatingCollector collector : collectors) {
+      collector.complete();
+    }
+  }
+}
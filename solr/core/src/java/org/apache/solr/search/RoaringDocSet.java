@@ -0,0 +1,866 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A compressed implementation of a {@link DocSet}, in the manner of Roaring bitmaps: the doc id
+ * space is split into blocks of 65536 docs, and the docs of each block are held in either a sorted
+ * array of their low 16 bits (2 bytes per doc) or, once that would be larger, a bitmap of the whole
+ * block (8KB). Good for large, medium density sets whose {@link BitDocSet} would mostly be zeros;
+ * set operations work a block at a time, and never need a bitset of the whole index.
+ *
+ * @see DocSetUtil#compress(DocSet, int)
+ * @lucene.experimental
+ */
+public class RoaringDocSet extends DocSet {
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(RoaringDocSet.class);
+
+  private static final int BLOCK_SHIFT = 16;
+  private static final int WORDS_PER_BLOCK = 1 << (BLOCK_SHIFT - 6);
+  private static final long BITMAP_RAM_BYTES =
+      RamUsageEstimator.sizeOf(new long[WORDS_PER_BLOCK]);
+
+  /** The most docs held in an array container; a bitmap container is smaller beyond that. */
+  static final int MAX_ARRAY_LENGTH = WORDS_PER_BLOCK * 4;
+
+  private final int maxDoc;
+  // indexed by block; at most one of them is non-null for any block
+  private final char[][] arrays;
+  private final long[][] bitmaps;
+  private final int size;
+
+  private RoaringDocSet(int maxDoc, char[][] arrays, long[][] bitmaps, int size) {
+    this.maxDoc = maxDoc;
+    this.arrays = arrays;
+    this.bitmaps = bitmaps;
+    this.size = size;
+  }
+
+  private static int numBlocks(int maxDoc) {
+    return (maxDoc + (1 << BLOCK_SHIFT) - 1) >>> BLOCK_SHIFT;
+  }
+
+  /**
+   * Returns the docs of {@code bits} as a RoaringDocSet. {@code maxDoc} must be greater than any of
+   * them.
+   */
+  public static RoaringDocSet fromBits(FixedBitSet bits, int maxDoc) {
+    final int numBlocks = numBlocks(maxDoc);
+    final char[][] arrays = new char[numBlocks][];
+    final long[][] bitmaps = new long[numBlocks][];
+    final long[] words = bits.getBits();
+    int size = 0;
+    for (int block = 0; block < numBlocks; block++) {
+      final int from = block * WORDS_PER_BLOCK;
+      final int to = Math.min(from + WORDS_PER_BLOCK, words.length);
+      int cardinality = 0;
+      for (int i = from; i < to; i++) {
+        cardinality += Long.bitCount(words[i]);
+      }
+      if (cardinality == 0) {
+        continue;
+      } else if (cardinality > MAX_ARRAY_LENGTH) {
+        bitmaps[block] = Arrays.copyOfRange(words, from, from + WORDS_PER_BLOCK);
+      } else {
+        final char[] array = new char[cardinality];
+        int n = 0;
+        for (int i = from; i < to; i++) {
+          long word = words[i];
+          while (word != 0) {
+            array[n++] = (char) (((i - from) << 6) + Long.numberOfTrailingZeros(word));
+            word &= word - 1;
+          }
+        }
+        arrays[block] = array;
+      }
+      size += cardinality;
+    }
+    return new RoaringDocSet(maxDoc, arrays, bitmaps, size);
+  }
+
+  /**
+   * Returns the estimated {@link #ramBytesUsed()} of the RoaringDocSet holding the docs of {@code
+   * bits}, without building it.
+   */
+  public static long estimateRamBytesUsed(FixedBitSet bits, int maxDoc) {
+    final int numBlocks = numBlocks(maxDoc);
+    final long[] words = bits.getBits();
+    long bytes =
+        BASE_RAM_BYTES_USED
+            + 2
+                * RamUsageEstimator.alignObjectSize(
+                    RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                        + (long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * numBlocks);
+    for (int block = 0; block < numBlocks; block++) {
+      final int from = block * WORDS_PER_BLOCK;
+      final int to = Math.min(from + WORDS_PER_BLOCK, words.length);
+      int cardinality = 0;
+      for (int i = from; i < to; i++) {
+        cardinality += Long.bitCount(words[i]);
+      }
+      bytes += containerRamBytes(cardinality);
+    }
+    return bytes;
+  }
+
+  private static long containerRamBytes(int cardinality) {
+    if (cardinality == 0) {
+      return 0;
+    } else if (cardinality > MAX_ARRAY_LENGTH) {
+      return BITMAP_RAM_BYTES;
+    } else {
+      return RamUsageEstimator.alignObjectSize(
+          RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) Character.BYTES * cardinality);
+    }
+  }
+
+  /** Returns the RoaringDocSet of the docs of {@code other} */
+  private static RoaringDocSet of(DocSet other, int maxDoc) {
+    if (other instanceof RoaringDocSet roaring) {
+      return roaring;
+    }
+    Builder builder = new Builder(maxDoc);
+    for (DocIterator iter = other.iterator(); iter.hasNext(); ) {
+      int doc = iter.nextDoc();
+      if (doc < maxDoc) {
+        builder.add(doc);
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean exists(int doc) {
+    final int block = doc >>> BLOCK_SHIFT;
+    if (block >= arrays.length) {
+      return false;
+    }
+    final char low = (char) doc;
+    final char[] array = arrays[block];
+    if (array != null) {
+      return Arrays.binarySearch(array, low) >= 0;
+    }
+    final long[] bitmap = bitmaps[block];
+    return bitmap != null && (bitmap[low >>> 6] & (1L << low)) != 0;
+  }
+
+  @Override
+  public DocIterator iterator() {
+    return new DocIterator() {
+      private final RoaringIterator iter = new RoaringIterator();
+      private int pos = iter.nextDoc();
+
+      @Override
+      public boolean hasNext() {
+        return pos != DocIdSetIterator.NO_MORE_DOCS;
+      }
+
+      @Override
+      public Integer next() {
+        return nextDoc();
+      }
+
+      @Override
+      public int nextDoc() {
+        int old = pos;
+        pos = iter.nextDoc();
+        return old;
+      }
+
+      @Override
+      public float score() {
+        return 0.0f;
+      }
+    };
+  }
+
+  @Override
+  public DocIdSetIterator iterator(LeafReaderContext context) {
+    if (size == 0) {
+      return null;
+    }
+    if (context.isTopLevel) {
+      return new RoaringIterator();
+    }
+
+    final int maxDoc = context.reader().maxDoc();
+    if (maxDoc < 1) {
+      // entirely empty segment
+      return null;
+    }
+
+    final int base = context.docBase;
+    final int max = base + maxDoc; // one past the max doc in this segment.
+    final RoaringIterator iter = new RoaringIterator();
+
+    return new DocIdSetIterator() {
+      int adjustedDoc = -1;
+
+      @Override
+      public int docID() {
+        return adjustedDoc;
+      }
+
+      @Override
+      public int nextDoc() {
+        int pos = adjustedDoc == -1 ? iter.advance(base) : iter.nextDoc();
+        return adjustedDoc = pos < max ? pos - base : NO_MORE_DOCS;
+      }
+
+      @Override
+      public int advance(int target) {
+        if (target == NO_MORE_DOCS || target + base >= max) {
+          return adjustedDoc = NO_MORE_DOCS;
+        }
+        int pos = iter.advance(target + base);
+        return adjustedDoc = pos < max ? pos - base : NO_MORE_DOCS;
+      }
+
+      @Override
+      public long cost() {
+        // pro-rated for the segment
+        return (long) (size * (maxDoc / (float) RoaringDocSet.this.maxDoc));
+      }
+    };
+  }
+
+  /** Iterates the docs of the set, in order. */
+  private final class RoaringIterator extends DocIdSetIterator {
+    private int doc = -1;
+    private int block = -1;
+    private int index; // of the current doc in the current array container
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() {
+      if (doc != -1 && doc != NO_MORE_DOCS && arrays[block] != null) {
+        // fast path within an array container
+        final char[] array = arrays[block];
+        if (++index < array.length) {
+          return doc = (block << BLOCK_SHIFT) | array[index];
+        }
+        return advance((block + 1) << BLOCK_SHIFT);
+      }
+      return advance(doc + 1);
+    }
+
+    @Override
+    public int advance(int target) {
+      if (target >= maxDoc || target < 0) {
+        return doc = NO_MORE_DOCS;
+      }
+      int low = target & 0xFFFF;
+      for (int b = target >>> BLOCK_SHIFT; b < arrays.length; b++, low = 0) {
+        final char[] array = arrays[b];
+        if (array != null) {
+          int i = Arrays.binarySearch(array, (char) low);
+          if (i < 0) {
+            i = ~i;
+          }
+          if (i < array.length) {
+            block = b;
+            index = i;
+            return doc = (b << BLOCK_SHIFT) | array[i];
+          }
+          continue;
+        }
+        final long[] bitmap = bitmaps[b];
+        if (bitmap != null) {
+          final int next = nextSetBit(bitmap, low);
+          if (next != -1) {
+            block = b;
+            return doc = (b << BLOCK_SHIFT) | next;
+          }
+        }
+      }
+      return doc = NO_MORE_DOCS;
+    }
+
+    @Override
+    public long cost() {
+      return size;
+    }
+  }
+
+  /** Returns the first bit at or after {@code from} set in the block's bitmap, or -1. */
+  private static int nextSetBit(long[] bitmap, int from) {
+    int i = from >>> 6;
+    long word = bitmap[i] >>> from; // shifts are mod 64
+    if (word != 0) {
+      return from + Long.numberOfTrailingZeros(word);
+    }
+    while (++i < WORDS_PER_BLOCK) {
+      word = bitmap[i];
+      if (word != 0) {
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+      }
+    }
+    return -1;
+  }
+
+  /** Returns word {@code i} of the given block of a {@link FixedBitSet}'s words. */
+  private static long word(long[] words, int block, int i) {
+    final int index = block * WORDS_PER_BLOCK + i;
+    return index < words.length ? words[index] : 0L;
+  }
+
+  private static boolean get(long[] words, int block, char low) {
+    return (word(words, block, low >>> 6) & (1L << low)) != 0;
+  }
+
+  //////////////////////// set operations //////////////////////
+
+  // Each operation combines the containers of a block with either another RoaringDocSet's
+  // containers, or the words of a BitDocSet. SortedIntDocSets are small and handle intersections
+  // themselves, and are otherwise converted.
+
+  @Override
+  public DocSet intersection(DocSet other) {
+    if (other instanceof SortedIntDocSet) {
+      return other.intersection(this);
+    }
+    final Builder result = new Builder(maxDoc);
+    if (other instanceof RoaringDocSet that) {
+      final int numBlocks = Math.min(arrays.length, that.arrays.length);
+      for (int b = 0; b < numBlocks; b++) {
+        if (isEmpty(b) || that.isEmpty(b)) {
+          continue;
+        }
+        final char[] a = arrays[b];
+        final char[] thatArray = that.arrays[b];
+        if (a != null && thatArray != null) {
+          final char[] out = new char[Math.min(a.length, thatArray.length)];
+          int n = 0;
+          for (int i = 0, j = 0; i < a.length && j < thatArray.length; ) {
+            if (a[i] < thatArray[j]) {
+              i++;
+            } else if (a[i] > thatArray[j]) {
+              j++;
+            } else {
+              out[n++] = a[i];
+              i++;
+              j++;
+            }
+          }
+          result.setArray(b, out, n);
+        } else if (a != null) {
+          result.setArray(b, filter(a, that.bitmaps[b], 0, true), -1);
+        } else if (thatArray != null) {
+          result.setArray(b, filter(thatArray, bitmaps[b], 0, true), -1);
+        } else {
+          final long[] out = new long[WORDS_PER_BLOCK];
+          for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            out[i] = bitmaps[b][i] & that.bitmaps[b][i];
+          }
+          result.setBitmap(b, out);
+        }
+      }
+    } else {
+      final long[] words = other.getFixedBitSet().getBits();
+      for (int b = 0; b < arrays.length; b++) {
+        if (arrays[b] != null) {
+          result.setArray(b, filter(arrays[b], words, b, true), -1);
+        } else if (bitmaps[b] != null) {
+          final long[] out = new long[WORDS_PER_BLOCK];
+          for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            out[i] = bitmaps[b][i] & word(words, b, i);
+          }
+          result.setBitmap(b, out);
+        }
+      }
+    }
+    return result.build();
+  }
+
+  @Override
+  public int intersectionSize(DocSet other) {
+    if (other instanceof SortedIntDocSet) {
+      return other.intersectionSize(this);
+    }
+    int count = 0;
+    if (other instanceof RoaringDocSet that) {
+      final int numBlocks = Math.min(arrays.length, that.arrays.length);
+      for (int b = 0; b < numBlocks; b++) {
+        if (isEmpty(b) || that.isEmpty(b)) {
+          continue;
+        }
+        final char[] a = arrays[b];
+        final char[] thatArray = that.arrays[b];
+        if (a != null && thatArray != null) {
+          for (int i = 0, j = 0; i < a.length && j < thatArray.length; ) {
+            if (a[i] < thatArray[j]) {
+              i++;
+            } else if (a[i] > thatArray[j]) {
+              j++;
+            } else {
+              count++;
+              i++;
+              j++;
+            }
+          }
+        } else if (a != null) {
+          count += count(a, that.bitmaps[b], 0);
+        } else if (thatArray != null) {
+          count += count(thatArray, bitmaps[b], 0);
+        } else {
+          for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            count += Long.bitCount(bitmaps[b][i] & that.bitmaps[b][i]);
+          }
+        }
+      }
+    } else {
+      final long[] words = other.getFixedBitSet().getBits();
+      for (int b = 0; b < arrays.length; b++) {
+        if (arrays[b] != null) {
+          count += count(arrays[b], words, b);
+        } else if (bitmaps[b] != null) {
+          for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            count += Long.bitCount(bitmaps[b][i] & word(words, b, i));
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public boolean intersects(DocSet other) {
+    if (other instanceof SortedIntDocSet) {
+      return other.intersects(this);
+    }
+    // intersectionSize is already a cheap scan; the work saved by stopping early is rarely much
+    return intersectionSize(other) > 0;
+  }
+
+  @Override
+  public DocSet andNot(DocSet other) {
+    if (other.size() == 0) {
+      return this;
+    }
+    if (other instanceof SortedIntDocSet) {
+      other = of(other, maxDoc);
+    }
+    final Builder result = new Builder(maxDoc);
+    if (other instanceof RoaringDocSet that) {
+      for (int b = 0; b < arrays.length; b++) {
+        if (isEmpty(b)) {
+          continue;
+        }
+        final char[] a = arrays[b];
+        if (b >= that.arrays.length || that.isEmpty(b)) {
+          result.setContainer(b, a, bitmaps[b]);
+          continue;
+        }
+        final char[] thatArray = that.arrays[b];
+        if (a != null && thatArray != null) {
+          final char[] out = new char[a.length];
+          int n = 0;
+          int j = 0;
+          for (char doc : a) {
+            while (j < thatArray.length && thatArray[j] < doc) {
+              j++;
+            }
+            if (j == thatArray.length || thatArray[j] != doc) {
+              out[n++] = doc;
+            }
+          }
+          result.setArray(b, out, n);
+        } else if (a != null) {
+          result.setArray(b, filter(a, that.bitmaps[b], 0, false), -1);
+        } else if (thatArray != null) {
+          final long[] out = bitmaps[b].clone();
+          for (char doc : thatArray) {
+            out[doc >>> 6] &= ~(1L << doc);
+          }
+          result.setBitmap(b, out);
+        } else {
+          final long[] out = new long[WORDS_PER_BLOCK];
+          for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            out[i] = bitmaps[b][i] & ~that.bitmaps[b][i];
+          }
+          result.setBitmap(b, out);
+        }
+      }
+    } else {
+      final long[] words = other.getFixedBitSet().getBits();
+      for (int b = 0; b < arrays.length; b++) {
+        if (arrays[b] != null) {
+          result.setArray(b, filter(arrays[b], words, b, false), -1);
+        } else if (bitmaps[b] != null) {
+          final long[] out = new long[WORDS_PER_BLOCK];
+          for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            out[i] = bitmaps[b][i] & ~word(words, b, i);
+          }
+          result.setBitmap(b, out);
+        }
+      }
+    }
+    return result.build();
+  }
+
+  @Override
+  public DocSet union(DocSet other) {
+    if (other instanceof BitDocSet) {
+      // the result is at least as dense as the bitset
+      return other.union(this);
+    }
+    final RoaringDocSet that = of(other, maxDoc);
+    final Builder result = new Builder(Math.max(maxDoc, that.maxDoc));
+    final int numBlocks = Math.max(arrays.length, that.arrays.length);
+    for (int b = 0; b < numBlocks; b++) {
+      final boolean empty = b >= arrays.length || isEmpty(b);
+      final boolean thatEmpty = b >= that.arrays.length || that.isEmpty(b);
+      if (thatEmpty) {
+        if (!empty) {
+          result.setContainer(b, arrays[b], bitmaps[b]);
+        }
+        continue;
+      } else if (empty) {
+        result.setContainer(b, that.arrays[b], that.bitmaps[b]);
+        continue;
+      }
+      final char[] a = arrays[b];
+      final char[] thatArray = that.arrays[b];
+      if (a != null && thatArray != null) {
+        final char[] out = new char[a.length + thatArray.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < thatArray.length) {
+          if (a[i] < thatArray[j]) {
+            out[n++] = a[i++];
+          } else if (a[i] > thatArray[j]) {
+            out[n++] = thatArray[j++];
+          } else {
+            out[n++] = a[i++];
+            j++;
+          }
+        }
+        while (i < a.length) {
+          out[n++] = a[i++];
+        }
+        while (j < thatArray.length) {
+          out[n++] = thatArray[j++];
+        }
+        result.setArray(b, out, n);
+      } else if (a != null || thatArray != null) {
+        final long[] out = (a != null ? that.bitmaps[b] : bitmaps[b]).clone();
+        for (char doc : a != null ? a : thatArray) {
+          out[doc >>> 6] |= 1L << doc;
+        }
+        result.setBitmap(b, out);
+      } else {
+        final long[] out = new long[WORDS_PER_BLOCK];
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+          out[i] = bitmaps[b][i] | that.bitmaps[b][i];
+        }
+        result.setBitmap(b, out);
+      }
+    }
+    return result.build();
+  }
+
+  private boolean isEmpty(int block) {
+    return arrays[block] == null && bitmaps[block] == null;
+  }
+
+  /** Returns the docs of the array that are (or aren't) set in the block of the given words. */
+  private static char[] filter(char[] array, long[] words, int block, boolean set) {
+    final char[] out = new char[array.length];
+    int n = 0;
+    for (char doc : array) {
+      if (get(words, block, doc) == set) {
+        out[n++] = doc;
+      }
+    }
+    return n == out.length ? out : Arrays.copyOf(out, n);
+  }
+
+  /** Returns the number of docs of the array set in the block of the given words. */
+  private static int count(char[] array, long[] words, int block) {
+    int count = 0;
+    for (char doc : array) {
+      if (get(words, block, doc)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void addAllTo(FixedBitSet target) {
+    final long[] words = target.getBits();
+    for (int b = 0; b < arrays.length; b++) {
+      final char[] array = arrays[b];
+      if (array != null) {
+        final int base = b << BLOCK_SHIFT;
+        for (char doc : array) {
+          target.set(base | doc);
+        }
+      } else if (bitmaps[b] != null) {
+        final int from = b * WORDS_PER_BLOCK;
+        final int length = Math.min(WORDS_PER_BLOCK, words.length - from);
+        for (int i = 0; i < length; i++) {
+          words[from + i] |= bitmaps[b][i];
+        }
+      }
+    }
+  }
+
+  /** Clears the docs of this set from {@code target}, a whole word at a time for bitmap blocks. */
+  void removeAllFrom(FixedBitSet target) {
+    final long[] words = target.getBits();
+    for (int b = 0; b < arrays.length; b++) {
+      final char[] array = arrays[b];
+      if (array != null) {
+        final int base = b << BLOCK_SHIFT;
+        for (char doc : array) {
+          if ((base | doc) >= target.length()) {
+            return;
+          }
+          target.clear(base | doc);
+        }
+      } else if (bitmaps[b] != null) {
+        final int from = b * WORDS_PER_BLOCK;
+        final int length = Math.min(WORDS_PER_BLOCK, words.length - from);
+        for (int i = 0; i < length; i++) {
+          words[from + i] &= ~bitmaps[b][i];
+        }
+      }
+    }
+  }
+
+  int maxDoc() {
+    return maxDoc;
+  }
+
+  @Override
+  public Bits getBits() {
+    return new Bits() {
+      @Override
+      public boolean get(int index) {
+        return exists(index);
+      }
+
+      @Override
+      public int length() {
+        return maxDoc;
+      }
+    };
+  }
+
+  @Override
+  protected FixedBitSet getFixedBitSet() {
+    return getFixedBitSetClone();
+  }
+
+  @Override
+  protected FixedBitSet getFixedBitSetClone() {
+    FixedBitSet bitSet = new FixedBitSet(maxDoc);
+    addAllTo(bitSet);
+    return bitSet;
+  }
+
+  @Override
+  public DocSetQuery makeQuery() {
+    return new DocSetQuery(this);
+  }
+
+  @Override
+  public RoaringDocSet clone() {
+    final char[][] arraysClone = new char[arrays.length][];
+    final long[][] bitmapsClone = new long[bitmaps.length][];
+    for (int b = 0; b < arrays.length; b++) {
+      arraysClone[b] = arrays[b] == null ? null : arrays[b].clone();
+      bitmapsClone[b] = bitmaps[b] == null ? null : bitmaps[b].clone();
+    }
+    return new RoaringDocSet(maxDoc, arraysClone, bitmapsClone, size);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    long bytes =
+        BASE_RAM_BYTES_USED
+            + RamUsageEstimator.shallowSizeOf(arrays)
+            + RamUsageEstimator.shallowSizeOf(bitmaps);
+    for (int b = 0; b < arrays.length; b++) {
+      if (arrays[b] != null) {
+        bytes += RamUsageEstimator.sizeOf(arrays[b]);
+      } else if (bitmaps[b] != null) {
+        bytes += BITMAP_RAM_BYTES;
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public String toString() {
+    return "RoaringDocSet{"
+        + "size="
+        + size()
+        + ",ramUsed="
+        + RamUsageEstimator.humanReadableUnits(ramBytesUsed())
+        + '}';
+  }
+
+  /** Builds a RoaringDocSet from docs added in increasing order. */
+  static final class Builder {
+    private final int maxDoc;
+    private final char[][] arrays;
+    private final long[][] bitmaps;
+    private int size;
+
+    // the block being added to
+    private int block = -1;
+    private char[] buffer;
+    private int bufferLength;
+    private long[] bitmap;
+
+    Builder(int maxDoc) {
+      this.maxDoc = maxDoc;
+      this.arrays = new char[numBlocks(maxDoc)][];
+      this.bitmaps = new long[arrays.length][];
+    }
+
+    /** Adds a doc greater than any added so far */
+    void add(int doc) {
+      final int b = doc >>> BLOCK_SHIFT;
+      if (b != block) {
+        flush();
+        block = b;
+      }
+      final char low = (char) doc;
+      if (bitmap != null) {
+        bitmap[low >>> 6] |= 1L << low;
+      } else if (bufferLength < MAX_ARRAY_LENGTH) {
+        if (buffer == null) {
+          buffer = new char[MAX_ARRAY_LENGTH];
+        }
+        buffer[bufferLength++] = low;
+      } else {
+        bitmap = new long[WORDS_PER_BLOCK];
+        for (int i = 0; i < bufferLength; i++) {
+          bitmap[buffer[i] >>> 6] |= 1L << buffer[i];
+        }
+        bitmap[low >>> 6] |= 1L << low;
+        bufferLength = 0;
+      }
+      size++;
+    }
+
+    private void flush() {
+      if (bitmap != null) {
+        bitmaps[block] = bitmap;
+        bitmap = null;
+      } else if (bufferLength > 0) {
+        arrays[block] = Arrays.copyOf(buffer, bufferLength);
+        bufferLength = 0;
+      }
+    }
+
+    /** Sets a block to the first {@code length} docs of a sorted array, or all if negative */
+    void setArray(int b, char[] array, int length) {
+      if (length < 0) {
+        length = array.length;
+      }
+      if (length == 0) {
+        return;
+      }
+      if (length > MAX_ARRAY_LENGTH) {
+        final long[] out = new long[WORDS_PER_BLOCK];
+        for (int i = 0; i < length; i++) {
+          out[array[i] >>> 6] |= 1L << array[i];
+        }
+        bitmaps[b] = out;
+      } else {
+        arrays[b] = length == array.length ? array : Arrays.copyOf(array, length);
+      }
+      size += length;
+    }
+
+    /** Sets a block to a bitmap, converting it to an array if that's smaller */
+    void setBitmap(int b, long[] words) {
+      int cardinality = 0;
+      for (long word : words) {
+        cardinality += Long.bitCount(word);
+      }
+      if (cardinality == 0) {
+        return;
+      }
+      if (cardinality > MAX_ARRAY_LENGTH) {
+        bitmaps[b] = words;
+      } else {
+        final char[] array = new char[cardinality];
+        int n = 0;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+          long word = words[i];
+          while (word != 0) {
+            array[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+            word &= word - 1;
+          }
+        }
+        arrays[b] = array;
+      }
+      size += cardinality;
+    }
+
+    /** Sets a block to an existing (immutable) container */
+    void setContainer(int b, char[] array, long[] bitmap) {
+      if (array != null) {
+        arrays[b] = array;
+        size += array.length;
+      } else {
+        bitmaps[b] = bitmap;
+        for (long word : bitmap) {
+          size += Long.bitCount(word);
+        }
+      }
+    }
+
+    RoaringDocSet build() {
+      if (block != -1) {
+        flush();
+      }
+      return new RoaringDocSet(maxDoc, arrays, bitmaps, size);
+    }
+  }
+}
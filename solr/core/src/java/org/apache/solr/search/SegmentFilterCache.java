@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.IOException;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.LRUQueryCache;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Weight;
+
+/**
+ * A core level cache of the documents matching filters in each segment, keyed on the filter and the
+ * segment's core cache key. Unlike the filterCache, whose top-level entries are only valid for one
+ * searcher, entries survive commits: a new searcher computing (or autowarming) a filterCache entry
+ * only has to run the filter over the segments that weren't already cached. Matches are cached
+ * regardless of deletions, which are applied whenever a top-level {@link DocSet} is built.
+ *
+ * <p>Configured with {@code <segmentFilterCache maxSize="..." maxRamMB="..."/>} in the {@code
+ * <query>} section of solrconfig.xml.
+ *
+ * @see LRUQueryCache
+ */
+public class SegmentFilterCache {
+
+  // the filterCache has already decided the filter is worth caching
+  private static final QueryCachingPolicy ALWAYS_CACHE =
+      new QueryCachingPolicy() {
+        @Override
+        public void onUse(Query query) {}
+
+        @Override
+        public boolean shouldCache(Query query) {
+          return true;
+        }
+      };
+
+  private final LRUQueryCache cache;
+
+  public SegmentFilterCache(int maxSize, long maxRamBytes) {
+    this.cache = new LRUQueryCache(maxSize, maxRamBytes, ctx -> true, Float.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Returns the documents of {@code searcher} matching {@code query}, using the cached matches of
+   * segments the query has already been run against. Queries whose weight isn't cacheable for a
+   * segment (e.g. because they depend on other segments) are simply executed there.
+   */
+  public DocSet getDocSet(SolrIndexSearcher searcher, Query query) throws IOException {
+    Weight weight =
+        searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+    weight = cache.doCache(weight, ALWAYS_CACHE);
+
+    DocSetCollector collector = new DocSetCollector(searcher.maxDoc());
+    for (LeafReaderContext ctx : searcher.getTopReaderContext().leaves()) {
+      BulkScorer scorer = weight.bulkScorer(ctx);
+      if (scorer != null) {
+        scorer.score(
+            collector.getLeafCollector(ctx),
+            ctx.reader().getLiveDocs(),
+            0,
+            DocIdSetIterator.NO_MORE_DOCS);
+      }
+    }
+    return DocSetUtil.getDocSet(collector, searcher);
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  public long ramBytesUsed() {
+    return cache.ramBytesUsed();
+  }
+
+  /** Drops all cached entries */
+  public void clear() {
+    cache.clear();
+  }
+}
@@ -0,0 +1,536 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.solr.common.util.IOUtils;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.metrics.otel.OtelUnit;
+import org.apache.solr.util.IOFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A SolrCache whose entries are held in a node level {@link Store}, shared with the caches of all
+ * other cores on the node, so that a single memory budget (the {@code sharedCacheRamMB} setting of
+ * solr.xml) bounds all of them. The store is a Caffeine cache, so its Window TinyLFU eviction
+ * policy (see {@link CaffeineCache}) applies across cores: the entries of idle cores are evicted in
+ * favour of the frequently used entries of busy cores, instead of each cache pinning its own share
+ * of the heap.
+ *
+ * <p>Without a node level budget, each instance has a private store bounded by its own {@code
+ * maxRamMB}, or by {@code size} if that isn't set, and behaves much like a {@link CaffeineCache}.
+ */
+public class SharedCaffeineCache<K, V> extends SolrCacheBase
+    implements SolrCache<K, V>, Accountable {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(SharedCaffeineCache.class)
+          + 7 * RamUsageEstimator.shallowSizeOfInstance(LongAdder.class);
+
+  private volatile Store store;
+  private boolean privateStore;
+  private int maxSize;
+  private int maxRamMB;
+  private String description = "Shared Caffeine Cache";
+
+  // keys of this cache's entries in the store, so they can be dropped when it's closed, with the
+  // System.nanoTime() of their last use, so the hottest can be warmed without scanning the store
+  private final Map<K, Long> keys = new ConcurrentHashMap<>();
+  private final LongAdder ramBytes = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder inserts = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private long priorHits;
+  private long priorLookups;
+  private long priorInserts;
+  private long priorEvictions;
+  private long warmupTime;
+
+  private SolrMetricsContext solrMetricsContext;
+  private AutoCloseable toClose;
+
+  @Override
+  public Object init(Map<String, String> args, Object persistence, CacheRegenerator regenerator) {
+    super.init(args, regenerator);
+    String str = args.get(SIZE_PARAM);
+    maxSize = (str == null) ? 1024 : Integer.parseInt(str);
+    str = args.get(MAX_RAM_MB_PARAM);
+    maxRamMB = str == null ? -1 : Double.valueOf(str).intValue();
+    description = generateDescription();
+    return persistence;
+  }
+
+  /**
+   * Makes this cache hold its entries in the given node level store, rather than a private one.
+   * Must be called before the cache is used.
+   */
+  public void setStore(Store store) {
+    assert keys.isEmpty() : "cache already in use";
+    this.store = store;
+    this.privateStore = false;
+    description = generateDescription();
+  }
+
+  private Store store() {
+    Store s = store;
+    if (s == null) {
+      synchronized (this) {
+        s = store;
+        if (s == null) {
+          s = maxRamMB < 0 ? Store.ofSize(maxSize) : Store.ofRamBytes(maxRamMB * 1024L * 1024L);
+          privateStore = true;
+          store = s;
+        }
+      }
+    }
+    return s;
+  }
+
+  void onRemoval(Object key, Object value, RemovalCause cause) {
+    if (cause != RemovalCause.REPLACED) {
+      keys.remove(key);
+    }
+    if (cause.wasEvicted()) {
+      evictions.increment();
+    }
+    if (value != null) {
+      ramBytes.add(-entryRamBytes(key, value));
+    }
+  }
+
+  private static long entryRamBytes(Object key, Object value) {
+    return RamUsageEstimator.sizeOfObject(key, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED)
+        + RamUsageEstimator.sizeOfObject(value, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED)
+        + RamUsageEstimator.LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + ramBytes.sum();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(K key) {
+    lookups.increment();
+    V value = (V) store().cache.synchronous().getIfPresent(new ScopedKey(this, key));
+    if (value != null) {
+      hits.increment();
+      keys.replace(key, System.nanoTime());
+    }
+    return value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V computeIfAbsent(K key, IOFunction<? super K, ? extends V> mappingFunction)
+      throws IOException {
+    // like CaffeineCache's async mode, reserve the entry with a future and compute outside the map,
+    // since the computation may well look up other caches sharing the same store
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    CompletableFuture<Object> result =
+        store().cache.asMap().putIfAbsent(new ScopedKey(this, key), future);
+    lookups.increment();
+    if (result != null) {
+      try {
+        // Another thread is already working on this computation, wait for them to finish
+        V value = (V) result.join();
+        hits.increment();
+        keys.replace(key, System.nanoTime());
+        return value;
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        if (cause instanceof CancellableCollector.QueryCancelledException) {
+          return mappingFunction.apply(key);
+        }
+        throw e;
+      }
+    }
+    keys.put(key, System.nanoTime());
+    try {
+      V value = mappingFunction.apply(key);
+      future.complete(value); // This will update the weight, or drop the entry if null
+      if (value == null) {
+        keys.remove(key);
+      } else {
+        ramBytes.add(entryRamBytes(key, value));
+        inserts.increment();
+      }
+      return value;
+    } catch (Error | RuntimeException | IOException e) {
+      keys.remove(key);
+      future.completeExceptionally(e); // This will remove the future from the cache
+      throw e;
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    inserts.increment();
+    keys.put(key, System.nanoTime());
+    V old = (V) store().cache.synchronous().asMap().put(new ScopedKey(this, key), value);
+    // the estimate for `old` is decremented via #onRemoval, which Caffeine skips if it's the same
+    if (value != old) {
+      ramBytes.add(entryRamBytes(key, value));
+    }
+    return old;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V remove(K key) {
+    return (V) store().cache.synchronous().asMap().remove(new ScopedKey(this, key));
+  }
+
+  @Override
+  public void clear() {
+    List<ScopedKey> scopedKeys = new ArrayList<>(keys.size());
+    for (K key : keys.keySet()) {
+      scopedKeys.add(new ScopedKey(this, key));
+    }
+    store().cache.synchronous().invalidateAll(scopedKeys);
+    keys.clear();
+    ramBytes.reset();
+  }
+
+  @Override
+  public int size() {
+    return keys.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (store != null) {
+      clear();
+    }
+    IOUtils.closeQuietly(toClose);
+    SolrCache.super.close();
+  }
+
+  @Override
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public void setMaxSize(int maxSize) {
+    // entries are bounded by the store
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public int getMaxRamMB() {
+    return maxRamMB;
+  }
+
+  @Override
+  public void setMaxRamMB(int maxRamMB) {
+    // entries are bounded by the store
+    this.maxRamMB = maxRamMB;
+  }
+
+  /**
+   * Returns up to {@code limit} of this cache's entries, most recently used first. This only goes
+   * through the keys of this cache, not the whole store, which holds the entries of every core.
+   */
+  @SuppressWarnings("unchecked")
+  private Map<K, V> hottest(int limit) {
+    Policy<ScopedKey, Object> policy = store().cache.synchronous().policy();
+    Map<K, V> hottest = new LinkedHashMap<>();
+    keys.entrySet().stream()
+        .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
+        .limit(limit)
+        .forEach(
+            entry -> {
+              // quietly, so warming doesn't count as a use; null if evicted or still computing
+              V value = (V) policy.getIfPresentQuietly(new ScopedKey(this, entry.getKey()));
+              if (value != null) {
+                hottest.put(entry.getKey(), value);
+              }
+            });
+    return hottest;
+  }
+
+  @Override
+  public void warm(SolrIndexSearcher searcher, SolrCache<K, V> old) {
+    if (regenerator == null) {
+      return;
+    }
+
+    long warmingStartTime = System.nanoTime();
+    SharedCaffeineCache<K, V> other = (SharedCaffeineCache<K, V>) old;
+
+    Map<K, V> hottest = Collections.emptyMap();
+    if (isAutowarmingOn()) {
+      hottest = other.hottest(autowarm.getWarmCount(other.size()));
+    }
+
+    for (Map.Entry<K, V> entry : hottest.entrySet()) {
+      try {
+        boolean continueRegen =
+            regenerator.regenerateItem(searcher, this, old, entry.getKey(), entry.getValue());
+        if (!continueRegen) {
+          break;
+        }
+      } catch (Exception e) {
+        log.error("Error during auto-warming of key: {}", entry.getKey(), e);
+      }
+    }
+
+    priorHits = other.priorHits + other.hits.sum();
+    priorLookups = other.priorLookups + other.lookups.sum();
+    priorInserts = other.priorInserts + other.inserts.sum();
+    priorEvictions = other.priorEvictions + other.evictions.sum();
+    warmupTime =
+        TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
+  }
+
+  private String generateDescription() {
+    return String.format(
+        Locale.ROOT,
+        "Shared Caffeine Cache(%s%s)",
+        store == null || privateStore
+            ? (maxRamMB < 0 ? "maxSize=" + maxSize : "maxRamMB=" + maxRamMB)
+            : "node budget",
+        isAutowarmingOn() ? (", " + getAutowarmDescription()) : "");
+  }
+
+  @Override
+  public boolean isRecursionSupported() {
+    return true;
+  }
+
+  //////////////////////// SolrInfoBean methods //////////////////////
+
+  @Override
+  public String getName() {
+    return SharedCaffeineCache.class.getName();
+  }
+
+  @Override
+  public String getDescription() {
+    return description;
+  }
+
+  @Override
+  public SolrMetricsContext getSolrMetricsContext() {
+    return solrMetricsContext;
+  }
+
+  @Override
+  public String toString() {
+    return name();
+  }
+
+  @Override
+  public void initializeMetrics(SolrMetricsContext parentContext, Attributes attributes) {
+    initializeMetrics(parentContext, attributes, "solr_shared_caffeine_cache");
+  }
+
+  public void initializeMetrics(
+      SolrMetricsContext solrMetricsContext, Attributes attributes, String metricName) {
+    Attributes cacheAttributes =
+        attributes.toBuilder().put(CATEGORY_ATTR, getCategory().toString()).build();
+    this.solrMetricsContext = solrMetricsContext.getChildContext(this);
+
+    ObservableLongMeasurement cacheLookupsMetric =
+        solrMetricsContext.longCounterMeasurement(
+            metricName + "_lookups", "Number of cumulative cache lookup results (hits and misses)");
+
+    ObservableLongMeasurement cacheOperationMetric =
+        solrMetricsContext.longCounterMeasurement(
+            metricName + "_ops", "Number of cumulative cache operations (inserts and evictions)");
+
+    ObservableLongMeasurement sizeMetric =
+        solrMetricsContext.longGaugeMeasurement(
+            metricName + "_size", "Current number cache entries");
+
+    ObservableLongMeasurement ramBytesUsedMetric =
+        solrMetricsContext.longGaugeMeasurement(
+            metricName + "_ram_used", "RAM bytes used by cache", OtelUnit.BYTES);
+
+    ObservableLongMeasurement warmupTimeMetric =
+        solrMetricsContext.longGaugeMeasurement(
+            metricName + "_warmup_time", "Cache warmup time (most recent)", OtelUnit.MILLISECONDS);
+
+    this.toClose =
+        solrMetricsContext.batchCallback(
+            () -> {
+              long cumHits = priorHits + hits.sum();
+              long cumLookups = priorLookups + lookups.sum();
+
+              sizeMetric.record(size(), cacheAttributes);
+              ramBytesUsedMetric.record(ramBytesUsed(), cacheAttributes);
+              warmupTimeMetric.record(warmupTime, cacheAttributes);
+
+              cacheLookupsMetric.record(
+                  cumHits, cacheAttributes.toBuilder().put(RESULT_ATTR, "hit").build());
+              cacheLookupsMetric.record(
+                  cumLookups - cumHits,
+                  cacheAttributes.toBuilder().put(RESULT_ATTR, "miss").build());
+
+              cacheOperationMetric.record(
+                  priorInserts + inserts.sum(),
+                  cacheAttributes.toBuilder().put(OPERATION_ATTR, "inserts").build());
+              cacheOperationMetric.record(
+                  priorEvictions + evictions.sum(),
+                  cacheAttributes.toBuilder().put(OPERATION_ATTR, "evictions").build());
+            },
+            cacheLookupsMetric,
+            cacheOperationMetric,
+            sizeMetric,
+            ramBytesUsedMetric,
+            warmupTimeMetric);
+  }
+
+  /** A key of a {@link Store}: the key of one cache's entry, scoped to that cache */
+  private static final class ScopedKey {
+    final SharedCaffeineCache<?, ?> owner;
+    final Object key;
+    private final int hash;
+
+    ScopedKey(SharedCaffeineCache<?, ?> owner, Object key) {
+      this.owner = owner;
+      this.key = key;
+      this.hash = 31 * System.identityHashCode(owner) + key.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof ScopedKey other && owner == other.owner && key.equals(other.key);
+    }
+  }
+
+  /**
+   * The entries of any number of {@link SharedCaffeineCache}s, bounded and evicted as a whole. The
+   * node level store is created by the CoreContainer when solr.xml sets {@code sharedCacheRamMB}.
+   */
+  public static class Store {
+    private final AsyncCache<ScopedKey, Object> cache;
+    private final long maxRamBytes;
+
+    private Store(long maxRamBytes, long maxSize) {
+      this.maxRamBytes = maxRamBytes;
+      Caffeine<ScopedKey, Object> builder =
+          Caffeine.newBuilder()
+              .executor(Runnable::run)
+              .recordStats()
+              .removalListener(
+                  (ScopedKey key, Object value, RemovalCause cause) -> {
+                    if (key != null) {
+                      key.owner.onRemoval(key.key, value, cause);
+                    }
+                  });
+      if (maxRamBytes > 0) {
+        builder
+            .maximumWeight(maxRamBytes)
+            .weigher(
+                (ScopedKey key, Object value) ->
+                    (int) Math.min(Integer.MAX_VALUE, entryRamBytes(key.key, value)));
+      } else {
+        builder.maximumSize(maxSize);
+      }
+      cache = builder.buildAsync();
+    }
+
+    public static Store ofRamBytes(long maxRamBytes) {
+      return new Store(maxRamBytes, -1);
+    }
+
+    static Store ofSize(long maxSize) {
+      return new Store(-1, maxSize);
+    }
+
+    /** The estimated RAM bytes of all entries */
+    public long ramBytesUsed() {
+      Cache<ScopedKey, Object> sync = cache.synchronous();
+      return sync.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    public long getMaxRamBytes() {
+      return maxRamBytes;
+    }
+
+    public long size() {
+      return cache.synchronous().estimatedSize();
+    }
+
+    public long evictionCount() {
+      return cache.synchronous().stats().evictionCount();
+    }
+
+    /** Performs any pending evictions; for tests */
+    void cleanUp() {
+      cache.synchronous().cleanUp();
+    }
+
+    public void initializeMetrics(SolrMetricsContext solrMetricsContext, Attributes attributes) {
+      solrMetricsContext.observableLongGauge(
+          "solr_node_shared_cache_ram",
+          "RAM bytes used by, and budgeted for, the shared caches of all cores",
+          measurement -> {
+            measurement.record(
+                ramBytesUsed(), attributes.toBuilder().put(TYPE_ATTR, "used").build());
+            measurement.record(
+                maxRamBytes, attributes.toBuilder().put(TYPE_ATTR, "budget").build());
+          },
+          OtelUnit.BYTES);
+      solrMetricsContext.observableLongGauge(
+          "solr_node_shared_cache_size",
+          "Number of entries in the shared caches of all cores",
+          measurement -> measurement.record(size(), attributes));
+      solrMetricsContext.observableLongCounter(
+          "solr_node_shared_cache_evictions",
+          "Number of entries evicted from the shared caches of all cores",
+          measurement -> measurement.record(evictionCount(), attributes));
+    }
+  }
+}
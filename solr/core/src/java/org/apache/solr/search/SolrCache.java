@@ -17,6 +17,7 @@
 package org.apache.solr.search;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import org.apache.solr.core.SolrInfoBean;
@@ -151,6 +152,17 @@ public interface SolrCache<K, V> extends SolrInfoBean {
    */
   void warm(SolrIndexSearcher searcher, SolrCache<K, V> old);
 
+  /**
+   * Like {@link #warm(SolrIndexSearcher, SolrCache)}, but rather than regenerating the entries of
+   * <code>old</code> itself, returns a task per entry, hottest first, for the caller to run. The
+   * tasks may run concurrently, and some of them after the searcher has been registered. Returns
+   * null if this isn't supported, in which case the caller should use {@link
+   * #warm(SolrIndexSearcher, SolrCache)}.
+   */
+  default List<Runnable> warmTasks(SolrIndexSearcher searcher, SolrCache<K, V> old) {
+    return null;
+  }
+
   // Q: an alternative to passing the searcher here would be to pass it in
   // init and have the cache implementation save it.
 
@@ -31,12 +31,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -112,6 +116,7 @@ import org.apache.solr.request.SolrRequestInfo;
 import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.facet.SlotArrayPool;
 import org.apache.solr.search.facet.UnInvertedField;
 import org.apache.solr.search.stats.StatsCache;
 import org.apache.solr.search.stats.StatsSource;
@@ -119,6 +124,7 @@ import org.apache.solr.uninverting.UninvertingReader;
 import org.apache.solr.update.IndexFingerprint;
 import org.apache.solr.update.SolrIndexConfig;
 import org.apache.solr.util.IOFunction;
+import org.apache.solr.util.RefCounted;
 import org.apache.solr.util.ThreadCpuTimer;
 import org.apache.solr.util.stats.MetricUtils;
 import org.slf4j.Logger;
@@ -162,9 +168,12 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
   private final boolean cachingEnabled;
   private final SolrCache<Query, DocSet> filterCache;
+  private final SolrCache<FilterIntersectionKey, DocSet> filterIntersectionCache;
   private final SolrCache<QueryResultKey, DocList> queryResultCache;
   private final SolrCache<String, UnInvertedField> fieldValueCache;
   private final SolrCache<Integer, float[]> featureVectorCache;
+  private final SlotArrayPool slotArrayPool = new SlotArrayPool();
+  private volatile boolean warmingCancelled; // stops any background autowarming
   private final LongAdder fullSortCount = new LongAdder();
   private final LongAdder skipSortCount = new LongAdder();
   private final LongAdder liveDocsNaiveCacheHitCount = new LongAdder();
@@ -445,6 +454,12 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       filterCache =
           solrConfig.filterCacheConfig == null ? null : solrConfig.filterCacheConfig.newInstance();
       if (filterCache != null) clist.add(filterCache);
+      // after the filterCache, so that it's warmed first
+      filterIntersectionCache =
+          solrConfig.filterIntersectionCacheConfig == null || filterCache == null
+              ? null
+              : solrConfig.filterIntersectionCacheConfig.newInstance();
+      if (filterIntersectionCache != null) clist.add(filterIntersectionCache);
       queryResultCache =
           solrConfig.queryResultCacheConfig == null
               ? null
@@ -472,8 +487,18 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       }
 
       cacheList = clist.toArray(new SolrCache[0]);
+
+      SharedCaffeineCache.Store sharedCacheStore = core.getCoreContainer().getSharedCacheStore();
+      if (sharedCacheStore != null) {
+        for (SolrCache<?, ?> cache : cacheList) {
+          if (cache instanceof SharedCaffeineCache<?, ?> sharedCache) {
+            sharedCache.setStore(sharedCacheStore);
+          }
+        }
+      }
     } else {
       this.filterCache = null;
+      this.filterIntersectionCache = null;
       this.queryResultCache = null;
       this.fieldValueCache = null;
       this.featureVectorCache = null;
@@ -613,6 +638,11 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
             solrMetricsContext,
             core.getCoreAttributes().toBuilder().put(NAME_ATTR, cache.name()).build(),
             "solr_core_indexsearcher_cache");
+      } else if (cache instanceof SharedCaffeineCache<?, ?> sharedCache) {
+        sharedCache.initializeMetrics(
+            solrMetricsContext,
+            core.getCoreAttributes().toBuilder().put(NAME_ATTR, cache.name()).build(),
+            "solr_core_indexsearcher_cache");
       }
     }
     initializeMetrics(solrMetricsContext, core.getCoreAttributes());
@@ -641,6 +671,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     }
 
     core.getInfoRegistry().remove(name);
+    warmingCancelled = true;
 
     // super.close();
     // can't use super.close() since it just calls reader.close() and that may only be called once
@@ -665,6 +696,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       }
     }
 
+    slotArrayPool.clear();
+
     if (releaseDirectory) {
       directoryFactory.release(getIndexReader().directory());
     }
@@ -697,6 +730,10 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return filterCache;
   }
 
+  public SolrCache<FilterIntersectionKey, DocSet> getFilterIntersectionCache() {
+    return filterIntersectionCache;
+  }
+
   public SolrCache<Integer, float[]> getFeatureVectorCache() {
     return featureVectorCache;
   }
@@ -743,6 +780,24 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
           });
     }
 
+    if (solrConfig.filterIntersectionCacheConfig != null
+        && solrConfig.filterIntersectionCacheConfig.getRegenerator() == null) {
+      solrConfig.filterIntersectionCacheConfig.setRegenerator(
+          new CacheRegenerator() {
+            @Override
+            public <K, V> boolean regenerateItem(
+                SolrIndexSearcher newSearcher,
+                SolrCache<K, V> newCache,
+                SolrCache<K, V> oldCache,
+                K oldKey,
+                V oldVal)
+                throws IOException {
+              newSearcher.getCachedFiltersDocSet(((FilterIntersectionKey) oldKey).getFilters());
+              return true;
+            }
+          });
+    }
+
     if (solrConfig.queryResultCacheConfig != null
         && solrConfig.queryResultCacheConfig.getRegenerator() == null) {
       final int queryResultWindowSize = solrConfig.queryResultWindowSize;
@@ -871,6 +926,11 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return fieldValueCache;
   }
 
+  /** expert: internal API, subject to change */
+  public SlotArrayPool getSlotArrayPool() {
+    return slotArrayPool;
+  }
+
   /** Returns a weighted sort according to this searcher */
   public Sort weightSort(Sort sort) throws IOException {
     return (sort != null) ? sort.rewrite(this) : null;
@@ -932,6 +992,47 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return lookupId(schema.getUniqueKeyField().getName(), idBytes);
   }
 
+  /**
+   * Like {@link #lookupId(BytesRef)} for many ids at once: returns the result for each of them, in
+   * the same order. The ids are looked up in sorted order, so that each segment's terms are walked
+   * forward once with a single {@link TermsEnum} and {@link PostingsEnum}.
+   *
+   * @lucene.internal
+   */
+  public long[] lookupIds(List<BytesRef> idBytes) throws IOException {
+    final String field = schema.getUniqueKeyField().getName();
+    final long[] result = new long[idBytes.size()];
+    Arrays.fill(result, -1);
+    final Integer[] order = new Integer[idBytes.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> idBytes.get(a).compareTo(idBytes.get(b)));
+
+    int remaining = order.length;
+    for (int i = 0, c = leafContexts.size(); i < c && remaining > 0; i++) {
+      final LeafReader reader = leafContexts.get(i).reader();
+      final Terms terms = reader.terms(field);
+      if (terms == null) continue;
+
+      final TermsEnum te = terms.iterator();
+      final Bits liveDocs = reader.getLiveDocs();
+      PostingsEnum docs = null;
+      for (int idx : order) {
+        if (result[idx] != -1 || !te.seekExact(idBytes.get(idx))) continue;
+        docs = te.postings(docs, PostingsEnum.NONE);
+        for (int id = docs.nextDoc(); id != DocIdSetIterator.NO_MORE_DOCS; id = docs.nextDoc()) {
+          if (liveDocs == null || liveDocs.get(id)) {
+            result[idx] = (((long) i) << 32) | id;
+            remaining--;
+            break;
+          }
+        }
+      }
+    }
+    return result;
+  }
+
   private long lookupId(String field, BytesRef idBytes) throws IOException {
     for (int i = 0, c = leafContexts.size(); i < c; i++) {
       final LeafReaderContext leaf = leafContexts.get(i);
@@ -1005,7 +1106,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   public BitDocSet getDocSetBits(Query q) throws IOException {
     DocSet answer = getDocSet(q);
     BitDocSet answerBits = makeBitDocSet(answer);
-    if (answerBits != answer && filterCache != null) {
+    // a compressed entry was cached to save memory; don't replace it with the bits
+    if (answerBits != answer && filterCache != null && !(answer instanceof RoaringDocSet)) {
       filterCache.put(q, answerBits);
     }
     return answerBits;
@@ -1066,17 +1168,36 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
       // Not found in the cache so compute and put in the cache
       if (answer == null) {
-        answer = getDocSetNC(query, null);
+        answer = computeFilterCacheEntry(query);
         filterCache.put(query, answer);
       }
     } else {
-      answer = filterCache.computeIfAbsent(query, q -> getDocSetNC(q, null));
+      answer = filterCache.computeIfAbsent(query, this::computeFilterCacheEntry);
     }
 
     assert !(answer instanceof MutableBitDocSet) : "should not be mutable";
     return answer;
   }
 
+  /**
+   * Computes a filterCache entry, reusing the per-segment matches of the core's {@link
+   * SegmentFilterCache} if there is one. Queries that produce their own top-level DocSet bypass it,
+   * as do term queries, whose postings are about as cheap to read as a cached segment entry. The
+   * entry is {@link DocSetUtil#compress compressed}, unless it's the shared liveDocs.
+   */
+  private DocSet computeFilterCacheEntry(Query query) throws IOException {
+    SegmentFilterCache segmentFilterCache = core.getSegmentFilterCache();
+    DocSet answer;
+    if (segmentFilterCache == null
+        || query instanceof DocSetProducer
+        || query instanceof TermQuery) {
+      answer = getDocSetNC(query, null);
+    } else {
+      answer = segmentFilterCache.getDocSet(this, query);
+    }
+    return answer.size() == numDocs() ? answer : DocSetUtil.compress(answer, maxDoc());
+  }
+
   private static final MatchAllDocsQuery MATCH_ALL_DOCS_QUERY = new MatchAllDocsQuery();
 
   /** Used as a synchronization point to handle the lazy-init of {@link #liveDocs}. */
@@ -1235,6 +1356,13 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     public DocSet answer;
     public Query filter; // maybe null.  Scoring is irrelevant / unspecified.
     public DelegatingCollector postFilter; // maybe null
+
+    /**
+     * One manager per post filter, in cost order, when the search is multi-threaded. Null if there
+     * is no post filter or if any of them can't be collected per leaf slice, in which case {@link
+     * #postFilter} is set instead.
+     */
+    public List<PostFilterCollectorManager> postFilterManagers; // maybe null
   }
 
   /**
@@ -1243,6 +1371,16 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
    * resolved against the filter cache, and populate it.
    */
   public ProcessedFilter getProcessedFilter(List<Query> queries) throws IOException {
+    return getProcessedFilter(queries, false);
+  }
+
+  /**
+   * INTERNAL: Like {@link #getProcessedFilter(List)}, but if multiThreaded and every post filter
+   * can be collected per leaf slice, only {@link ProcessedFilter#postFilterManagers} is set, not
+   * the single-threaded {@link ProcessedFilter#postFilter} chain.
+   */
+  ProcessedFilter getProcessedFilter(List<Query> queries, boolean multiThreaded)
+      throws IOException {
     ProcessedFilter pf = new ProcessedFilter();
     if (queries == null || queries.size() == 0) {
       return pf;
@@ -1252,21 +1390,18 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     // This might become pf.answer but not if there are any non-cached filters
     DocSet answer = null;
 
-    boolean[] neg = new boolean[queries.size()];
-    DocSet[] sets = new DocSet[queries.size()];
+    List<Query> cached = null;
     List<ExtendedQuery> notCached = null;
     List<PostFilter> postFilters = null;
 
-    int end = 0; // size of "sets" and "neg"; parallel arrays
-
     for (Query q : queries) {
       if (q instanceof ExtendedQuery eq) {
         if (!eq.getCache()) {
           if (eq.getCost() >= 100 && eq instanceof PostFilter) {
-            if (postFilters == null) postFilters = new ArrayList<>(sets.length - end);
+            if (postFilters == null) postFilters = new ArrayList<>(queries.size());
             postFilters.add((PostFilter) q);
           } else {
-            if (notCached == null) notCached = new ArrayList<>(sets.length - end);
+            if (notCached == null) notCached = new ArrayList<>(queries.size());
             notCached.add((ExtendedQuery) q);
           }
           continue;
@@ -1275,60 +1410,19 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
       if (filterCache == null) {
         // there is no cache: don't pull bitsets
-        if (notCached == null) notCached = new ArrayList<>(sets.length - end);
+        if (notCached == null) notCached = new ArrayList<>(queries.size());
         WrappedQuery uncached = new WrappedQuery(q);
         uncached.setCache(false);
         notCached.add(uncached);
         continue;
       }
 
-      Query posQuery = QueryUtils.getAbs(q);
-      DocSet docSet = getPositiveDocSet(posQuery);
-      // Negative query if absolute value different from original
-      if (Objects.equals(q, posQuery)) {
-        // keep track of the smallest positive set; use "answer" for this.
-        if (answer == null) {
-          answer = docSet;
-          continue;
-        }
-        // note: assume that size() is cached.  It generally comes from the cache, so should be.
-        if (docSet.size() < answer.size()) {
-          // swap answer & docSet so that answer is smallest
-          DocSet tmp = answer;
-          answer = docSet;
-          docSet = tmp;
-        }
-        neg[end] = false;
-      } else {
-        neg[end] = true;
-      }
-      sets[end++] = docSet;
+      if (cached == null) cached = new ArrayList<>(queries.size());
+      cached.add(q);
     } // end of queries
 
-    if (end > 0) {
-      // Are all of our normal cached filters negative?
-      if (answer == null) {
-        answer = getLiveDocSet();
-      }
-
-      // This optimizes for the case where we have more than 2 filters and instead
-      // of copying the bitsets we make one mutable bitset. We should only do this
-      // for BitDocSet since it clones the backing bitset for andNot and intersection.
-      if (end > 1 && answer instanceof BitDocSet) {
-        answer = MutableBitDocSet.fromBitDocSet((BitDocSet) answer);
-      }
-
-      // do negative queries first to shrink set size
-      for (int i = 0; i < end; i++) {
-        if (neg[i]) answer = answer.andNot(sets[i]);
-      }
-
-      for (int i = 0; i < end; i++) {
-        if (!neg[i]) answer = answer.intersection(sets[i]);
-      }
-
-      // Make sure to keep answer as an immutable DocSet if we made it mutable
-      answer = MutableBitDocSet.unwrapIfMutable(answer);
+    if (cached != null) {
+      answer = getCachedFiltersDocSet(cached);
     }
 
     // ignore "answer" if it simply matches all docs
@@ -1367,19 +1461,109 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       pf.filter = builder.build();
     }
 
-    // Set pf.postFilter
+    // Set pf.postFilterManagers or else pf.postFilter
     if (postFilters != null) {
       postFilters.sort(sortByCost);
-      for (int i = postFilters.size() - 1; i >= 0; i--) {
-        DelegatingCollector prev = pf.postFilter;
-        pf.postFilter = postFilters.get(i).getFilterCollector(this);
-        if (prev != null) pf.postFilter.setDelegate(prev);
+      if (multiThreaded) {
+        List<PostFilterCollectorManager> managers = new ArrayList<>(postFilters.size());
+        for (PostFilter postFilter : postFilters) {
+          PostFilterCollectorManager manager = postFilter.getFilterCollectorManager(this);
+          if (manager == null) {
+            managers = null;
+            break;
+          }
+          managers.add(manager);
+        }
+        pf.postFilterManagers = managers;
+      }
+
+      if (pf.postFilterManagers == null) {
+        for (int i = postFilters.size() - 1; i >= 0; i--) {
+          DelegatingCollector prev = pf.postFilter;
+          pf.postFilter = postFilters.get(i).getFilterCollector(this);
+          if (prev != null) pf.postFilter.setDelegate(prev);
+        }
       }
     }
 
     return pf;
   }
 
+  /**
+   * Returns the intersection of the (possibly negative) filters, each of which is cached in the
+   * filterCache. Combinations of several filters are looked up in the filterIntersectionCache
+   * first, so that frequently used combinations are only intersected once per searcher.
+   */
+  private DocSet getCachedFiltersDocSet(List<Query> cached) throws IOException {
+    if (filterIntersectionCache == null || cached.size() < 2) {
+      return intersectCachedFilters(cached);
+    }
+    FilterIntersectionKey key = new FilterIntersectionKey(cached);
+    DocSet answer = filterIntersectionCache.get(key);
+    if (answer == null) {
+      answer = intersectCachedFilters(cached);
+      // the answer may well be a one-off; the cache's admission policy decides whether it's kept
+      filterIntersectionCache.put(
+          key, answer.size() == numDocs() ? answer : DocSetUtil.compress(answer, maxDoc()));
+    }
+    return answer;
+  }
+
+  private DocSet intersectCachedFilters(List<Query> cached) throws IOException {
+    DocSet answer = null;
+    boolean[] neg = new boolean[cached.size()];
+    DocSet[] sets = new DocSet[cached.size()];
+    int end = 0; // size of "sets" and "neg"; parallel arrays
+
+    for (Query q : cached) {
+      Query posQuery = QueryUtils.getAbs(q);
+      DocSet docSet = getPositiveDocSet(posQuery);
+      // Negative query if absolute value different from original
+      if (Objects.equals(q, posQuery)) {
+        // keep track of the smallest positive set; use "answer" for this.
+        if (answer == null) {
+          answer = docSet;
+          continue;
+        }
+        // note: assume that size() is cached.  It generally comes from the cache, so should be.
+        if (docSet.size() < answer.size()) {
+          // swap answer & docSet so that answer is smallest
+          DocSet tmp = answer;
+          answer = docSet;
+          docSet = tmp;
+        }
+        neg[end] = false;
+      } else {
+        neg[end] = true;
+      }
+      sets[end++] = docSet;
+    }
+
+    // Are all of our normal cached filters negative?
+    if (answer == null) {
+      answer = getLiveDocSet();
+    }
+
+    // This optimizes for the case where we have more than 2 filters and instead
+    // of copying the bitsets we make one mutable bitset. We should only do this
+    // for BitDocSet since it clones the backing bitset for andNot and intersection.
+    if (end > 1 && answer instanceof BitDocSet) {
+      answer = MutableBitDocSet.fromBitDocSet((BitDocSet) answer);
+    }
+
+    // do negative queries first to shrink set size
+    for (int i = 0; i < end; i++) {
+      if (neg[i]) answer = answer.andNot(sets[i]);
+    }
+
+    for (int i = 0; i < end; i++) {
+      if (!neg[i]) answer = answer.intersection(sets[i]);
+    }
+
+    // Make sure to keep answer as an immutable DocSet if we made it mutable
+    return MutableBitDocSet.unwrapIfMutable(answer);
+  }
+
   /**
    * @lucene.internal
    */
@@ -1915,7 +2099,10 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
     final boolean needScores = (cmd.getFlags() & GET_SCORES) != 0;
 
-    final ProcessedFilter pf = getProcessedFilter(cmd.getFilterList());
+    // only a search for some docs can be multi-threaded
+    final ProcessedFilter pf =
+        getProcessedFilter(
+            cmd.getFilterList(), lastDocRequested > 0 && MultiThreadedSearcher.allowMT(cmd));
     final Query query =
         QueryUtils.combineQueryAndFilter(QueryUtils.makeQueryable(cmd.getQuery()), pf.filter);
     final Relation hitsRelation;
@@ -1973,7 +2160,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       }
       final TopDocs topDocs;
       final ScoreMode scoreModeUsed;
-      if (!MultiThreadedSearcher.allowMT(pf.postFilter, cmd)) {
+      if (!MultiThreadedSearcher.allowMT(pf, cmd)) {
         log.trace("SINGLE THREADED search, skipping collector manager in getDocListNC");
         final TopDocsCollector<?> topCollector = buildTopDocsCollector(len, cmd);
         MaxScoreCollector maxScoreCollector = null;
@@ -1996,7 +2183,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
         log.trace("MULTI-THREADED search, using CollectorManager int getDocListNC");
         final MultiThreadedSearcher.SearchResult searchResult =
             new MultiThreadedSearcher(this)
-                .searchCollectorManagers(len, cmd, query, true, needScores, false, qr);
+                .searchCollectorManagers(
+                    len, cmd, query, pf.postFilterManagers, true, needScores, false, qr);
         scoreModeUsed = searchResult.scoreMode;
 
         MultiThreadedSearcher.TopDocsResult topDocsResult = searchResult.getTopDocsResult();
@@ -2033,7 +2221,10 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     final int maxDoc = maxDoc();
     cmd.setMinExactCount(Integer.MAX_VALUE); // We need the full DocSet
 
-    final ProcessedFilter pf = getProcessedFilter(cmd.getFilterList());
+    // only a search for some docs can be multi-threaded
+    final ProcessedFilter pf =
+        getProcessedFilter(
+            cmd.getFilterList(), lastDocRequested > 0 && MultiThreadedSearcher.allowMT(cmd));
     final Query query =
         QueryUtils.combineQueryAndFilter(QueryUtils.makeQueryable(cmd.getQuery()), pf.filter);
 
@@ -2084,7 +2275,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       qr.setNextCursorMark(cmd.getCursorMark());
     } else {
       final TopDocs topDocs;
-      if (!MultiThreadedSearcher.allowMT(pf.postFilter, cmd)) {
+      if (!MultiThreadedSearcher.allowMT(pf, cmd)) {
         log.trace("SINGLE THREADED search, skipping collector manager in getDocListAndSetNC");
 
         @SuppressWarnings({"rawtypes"})
@@ -2117,7 +2308,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
         MultiThreadedSearcher.SearchResult searchResult =
             new MultiThreadedSearcher(this)
-                .searchCollectorManagers(len, cmd, query, true, needScores, true, qr);
+                .searchCollectorManagers(
+                    len, cmd, query, pf.postFilterManagers, true, needScores, true, qr);
         MultiThreadedSearcher.TopDocsResult topDocsResult = searchResult.getTopDocsResult();
         totalHits = topDocsResult.totalHits;
         topDocs = topDocsResult.topDocs;
@@ -2511,25 +2703,14 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     // Make sure this is first! filters can help queryResults execute!
     long warmingStartTime = System.nanoTime();
     // warm the caches in order...
-    ModifiableSolrParams params = new ModifiableSolrParams();
-    params.add("warming", "true");
     for (int i = 0; i < cacheList.length; i++) {
       if (log.isDebugEnabled()) {
         log.debug("autowarming [{}] from [{}]\n\t{}", this, old, old.cacheList[i]);
       }
 
-      final SolrQueryRequest req = SolrQueryRequest.wrapSearcher(SolrIndexSearcher.this, params);
-      final SolrQueryResponse rsp = new SolrQueryResponse();
-      SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
-      try {
-        cacheList[i].warm(this, old.cacheList[i]);
-      } finally {
-        try {
-          req.close();
-        } finally {
-          SolrRequestInfo.clearRequestInfo();
-        }
-      }
+      final SolrCache cache = cacheList[i];
+      final SolrCache oldCache = old.cacheList[i];
+      runWarmingTask(() -> cache.warm(this, oldCache));
 
       if (log.isDebugEnabled()) {
         log.debug("autowarming result for [{}]\n\t{}", this, cacheList[i]);
@@ -2540,6 +2721,137 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     if (warmupTimer != null) warmupTimer.record(warmupTime);
   }
 
+  /**
+   * Warms this searcher from {@code old} like {@link #warm(SolrIndexSearcher)}, but regenerates
+   * cache entries concurrently on {@code executor}, and returns once {@code registerFraction} of
+   * them have been. The entries of each cache are regenerated concurrently, hottest first, but the
+   * caches one after the other, since a cache may be regenerated from the ones before it (the
+   * filterIntersectionCache from the filterCache). The remaining entries keep warming in the
+   * background, usually after this searcher has been registered, and {@code holder} (which must
+   * hold this searcher) is incref'd until they have finished. Caches that don't support {@link
+   * SolrCache#warmTasks} are warmed before returning. Entries of {@code old} still waiting to be
+   * warmed in the background are skipped, since it is being replaced, as are those still waiting
+   * when the executor is shut down.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void warm(
+      SolrIndexSearcher old,
+      ExecutorService executor,
+      double registerFraction,
+      RefCounted<SolrIndexSearcher> holder)
+      throws InterruptedException {
+    assert holder.get() == this;
+    long warmingStartTime = System.nanoTime();
+    old.warmingCancelled = true;
+    List<List<Runnable>> tasksByCache = new ArrayList<>();
+    int taskCount = 0;
+    for (int i = 0; i < cacheList.length; i++) {
+      final SolrCache cache = cacheList[i];
+      final SolrCache oldCache = old.cacheList[i];
+      List<Runnable> cacheTasks = cache.warmTasks(this, oldCache);
+      if (cacheTasks == null) {
+        runWarmingTask(() -> cache.warm(this, oldCache));
+      } else if (!cacheTasks.isEmpty()) {
+        tasksByCache.add(cacheTasks);
+        taskCount += cacheTasks.size();
+      }
+    }
+
+    final int totalCount = taskCount;
+    int registerCount = (int) Math.ceil(totalCount * registerFraction);
+    CountDownLatch registerLatch = new CountDownLatch(registerCount);
+    AtomicInteger remaining = new AtomicInteger(totalCount);
+    IntConsumer finished =
+        n -> {
+          for (int i = 0; i < n; i++) {
+            registerLatch.countDown();
+          }
+          if (remaining.addAndGet(-n) == 0) {
+            holder.decref();
+            if (registerCount < totalCount) {
+              log.info(
+                  "Finished background autowarming of {} in {} ms",
+                  this,
+                  TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - warmingStartTime));
+            }
+          }
+        };
+    if (totalCount > 0) {
+      // the background tasks mustn't outlive this searcher
+      holder.incref();
+      submitWarmingTasks(executor, tasksByCache, 0, finished);
+    }
+    if (!registerLatch.await(1, TimeUnit.HOURS)) {
+      log.warn("Registering {} before {} of its entries were autowarmed", this, registerCount);
+    }
+
+    this.warmupTime =
+        TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
+    if (warmupTimer != null) warmupTimer.record(warmupTime);
+  }
+
+  /**
+   * Submits the warming tasks of the cache at {@code cacheIndex} to {@code executor}, and those of
+   * the next cache once they have all finished. {@code finished} is told of every task that has
+   * finished, been skipped, or won't be run at all.
+   */
+  private void submitWarmingTasks(
+      ExecutorService executor,
+      List<List<Runnable>> tasksByCache,
+      int cacheIndex,
+      IntConsumer finished) {
+    List<Runnable> tasks = tasksByCache.get(cacheIndex);
+    AtomicInteger cacheRemaining = new AtomicInteger(tasks.size());
+    for (int i = 0; i < tasks.size(); i++) {
+      final Runnable task = tasks.get(i);
+      try {
+        executor.execute(
+            () -> {
+              try {
+                // don't bother if a newer searcher has already replaced this one, or the core is
+                // closing
+                if (!warmingCancelled && !executor.isShutdown()) {
+                  runWarmingTask(task);
+                }
+              } finally {
+                if (cacheRemaining.decrementAndGet() == 0
+                    && cacheIndex + 1 < tasksByCache.size()) {
+                  submitWarmingTasks(executor, tasksByCache, cacheIndex + 1, finished);
+                }
+                finished.accept(1);
+              }
+            });
+      } catch (RejectedExecutionException e) {
+        // shutting down; neither the rest of these tasks nor those of the later caches will run
+        log.warn("Autowarming of {} was cut short", this);
+        int notRun = tasks.size() - i;
+        for (int c = cacheIndex + 1; c < tasksByCache.size(); c++) {
+          notRun += tasksByCache.get(c).size();
+        }
+        finished.accept(notRun);
+        return;
+      }
+    }
+  }
+
+  /** Runs a warming task in the context of a "warming" request */
+  private void runWarmingTask(Runnable task) {
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.add("warming", "true");
+    final SolrQueryRequest req = SolrQueryRequest.wrapSearcher(SolrIndexSearcher.this, params);
+    final SolrQueryResponse rsp = new SolrQueryResponse();
+    SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
+    try {
+      task.run();
+    } finally {
+      try {
+        req.close();
+      } finally {
+        SolrRequestInfo.clearRequestInfo();
+      }
+    }
+  }
+
   /** return the named generic cache */
   @SuppressWarnings({"rawtypes"})
   public SolrCache getCache(String cacheName) {
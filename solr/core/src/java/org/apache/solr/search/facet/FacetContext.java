@@ -16,6 +16,9 @@
  */
 package org.apache.solr.search.facet;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import org.apache.lucene.search.Query;
 import org.apache.solr.request.SolrQueryRequest;
@@ -42,6 +45,7 @@ public class FacetContext {
   boolean cache = true;
   int flags;
   FacetDebugInfo debugInfo;
+  List<SlotAcc> pooledAccs; // accs holding arrays borrowed from the SlotArrayPool
 
   public void setDebugInfo(FacetDebugInfo debugInfo) {
     this.debugInfo = debugInfo;
@@ -51,6 +55,23 @@ public class FacetContext {
     return debugInfo;
   }
 
+  void addPooledAcc(SlotAcc acc) {
+    if (pooledAccs == null) {
+      pooledAccs = new ArrayList<>();
+    }
+    pooledAccs.add(acc);
+  }
+
+  /** Hands the arrays borrowed by the accs of this context's processor back to the pool */
+  void releasePooledArrays() throws IOException {
+    if (pooledAccs != null) {
+      for (SlotAcc acc : pooledAccs) {
+        acc.close();
+      }
+      pooledAccs = null;
+    }
+  }
+
   public boolean isShard() {
     return (flags & IS_SHARD) != 0;
   }
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.Map;
 import org.apache.lucene.index.DocValuesType;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.SchemaField;
 
@@ -39,6 +40,9 @@ public class FacetField extends FacetRequestSorted {
   // only.
   Boolean perSeg;
 
+  // count leaf slices concurrently; null defers to the request's multiThreaded param
+  Boolean multiThreaded;
+
   {
     // defaults for FacetRequestSorted
     mincount = 1;
@@ -78,6 +82,15 @@ public class FacetField extends FacetRequestSorted {
     static FacetMethod DEFAULT_METHOD = SMART; // non-final for tests to vary
   }
 
+  /**
+   * When true, multi-valued fields without docValues are faceted over the per-segment ordinals of
+   * {@link org.apache.solr.uninverting.UninvertingReader} instead of a top-level {@link
+   * UnInvertedField}, unless method=uif is requested explicitly. The per-segment structures are
+   * cached against each segment's core key, so a new searcher only uninverts its new segments.
+   */
+  static boolean UNINVERT_PER_SEGMENT =
+      EnvUtils.getPropertyAsBool("solr.facet.uninvertPerSegment", false); // non-final for tests
+
   @Override
   public FacetProcessor<FacetField> createFacetProcessor(FacetContext fcontext) {
     SchemaField sf = fcontext.searcher.getSchema().getField(field);
@@ -87,7 +100,11 @@ public class FacetField extends FacetRequestSorted {
     if (fcontext.facetInfo != null) {
       // refinement... we will end up either skipping the entire facet, or doing calculating only
       // specific facet buckets
-      if (multiToken && !sf.hasDocValues() && method != FacetMethod.DV && sf.isUninvertible()) {
+      if (multiToken
+          && !sf.hasDocValues()
+          && method != FacetMethod.DV
+          && sf.isUninvertible()
+          && useTopLevelUIF(sf)) {
         // Match the access method from the first phase.
         // It won't always matter, but does currently for an all-values bucket
         return new FacetFieldProcessorByArrayUIF(fcontext, this, sf);
@@ -159,8 +176,11 @@ public class FacetField extends FacetRequestSorted {
       return new FacetFieldProcessorByHashDV(fcontext, this, sf);
     }
 
-    if (sf.hasDocValues() || method == FacetMethod.DV || !sf.isUninvertible()) {
-      // single and multi-valued string docValues
+    if (sf.hasDocValues()
+        || method == FacetMethod.DV
+        || !sf.isUninvertible()
+        || !useTopLevelUIF(sf)) {
+      // single and multi-valued string docValues, or per-segment uninverted ordinals
       return new FacetFieldProcessorByArrayDV(fcontext, this, sf);
     }
 
@@ -168,6 +188,11 @@ public class FacetField extends FacetRequestSorted {
     return new FacetFieldProcessorByArrayUIF(fcontext, this, sf);
   }
 
+  private boolean useTopLevelUIF(SchemaField sf) {
+    // points can't be uninverted to multi-valued ordinals per segment
+    return method == FacetMethod.UIF || !UNINVERT_PER_SEGMENT || sf.getType().isPointField();
+  }
+
   private static DocValuesType dvType(FacetContext fcontext, String field) {
     var fieldInfo = fcontext.searcher.getFieldInfos().fieldInfo(field);
     return fieldInfo == null ? null : fieldInfo.getDocValuesType();
@@ -29,14 +29,17 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.PriorityQueue;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.SchemaField;
@@ -44,6 +47,7 @@ import org.apache.solr.search.DocSet;
 import org.apache.solr.search.facet.SlotAcc.SlotContext;
 import org.apache.solr.search.facet.SlotAcc.SweepableSlotAcc;
 import org.apache.solr.search.facet.SlotAcc.SweepingCountSlotAcc;
+import org.apache.solr.util.IOFunction;
 
 /**
  * Facet processing based on field values. (not range nor by query)
@@ -781,6 +785,42 @@ abstract class FacetFieldProcessor extends FacetProcessor<FacetField> {
     super.setNextReader(ctx);
   }
 
+  /** Debug info key for the number of leaf slices that were collected concurrently */
+  static final String CONCURRENT_SLICES_DEBUG_KEY = "concurrent_slices";
+
+  /**
+   * Whether collection may be spread over the leaf slices of the searcher and its executor, per the
+   * facet's <code>multiThreaded</code> option or else the request's <code>multiThreaded</code>
+   * param.
+   */
+  boolean isMultiThreaded() {
+    if (freq.multiThreaded != null) {
+      return freq.multiThreaded;
+    }
+    return fcontext.req.getParams().getBool(CommonParams.MULTI_THREADED, false);
+  }
+
+  /**
+   * Applies sliceCollector to the leaves of each leaf slice of the searcher, concurrently on the
+   * searcher's executor, and returns the results in slice order.
+   */
+  <T> List<T> collectSlices(IOFunction<List<LeafReaderContext>, T> sliceCollector)
+      throws IOException {
+    IndexSearcher.LeafSlice[] slices = fcontext.searcher.getSlices();
+    FacetDebugInfo fdebug = fcontext.getDebugInfo();
+    if (fdebug != null) fdebug.putInfoItem(CONCURRENT_SLICES_DEBUG_KEY, slices.length);
+    List<Callable<T>> tasks = new ArrayList<>(slices.length);
+    for (IndexSearcher.LeafSlice slice : slices) {
+      // SolrIndexSearcher doesn't split segments, so every partition is a whole leaf
+      List<LeafReaderContext> leaves = new ArrayList<>(slice.partitions.length);
+      for (IndexSearcher.LeafReaderContextPartition partition : slice.partitions) {
+        leaves.add(partition.ctx);
+      }
+      tasks.add(() -> sliceCollector.apply(leaves));
+    }
+    return fcontext.searcher.getTaskExecutor().invokeAll(tasks);
+  }
+
   void setNextReaderFirstPhase(LeafReaderContext ctx) throws IOException {
     if (collectAcc != null) {
       collectAcc.setNextReader(ctx);
@@ -31,6 +31,7 @@ import org.apache.lucene.util.LongValues;
 import org.apache.lucene.util.UnicodeUtil;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.DocSet;
 import org.apache.solr.search.facet.SlotAcc.CountSlotAcc;
 import org.apache.solr.search.facet.SlotAcc.SweepCountAccStruct;
 import org.apache.solr.search.facet.SlotAcc.SweepingCountSlotAcc;
@@ -130,6 +131,17 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     if (freq.perSeg != null)
       accumSeg = canDoPerSeg && freq.perSeg; // internal - override perSeg heuristic
 
+    // Count slices concurrently into their own arrays. This is only worth the extra arrays when
+    // many docs are counted per value.
+    if (canDoPerSeg
+        && manyHitsPerBucket
+        && others.isEmpty()
+        && isMultiThreaded()
+        && fcontext.searcher.getSlices().length > 1) {
+      collectCountsConcurrently(base, accumSeg);
+      return;
+    }
+
     final int maxSize = others.size() + 1; // others + base
     final List<LeafReaderContext> leaves = fcontext.searcher.getIndexReader().leaves();
     final DocIdSetIterator[] subIterators = new DocIdSetIterator[maxSize];
@@ -205,6 +217,104 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     Arrays.fill(reuse, null); // better GC
   }
 
+  private void collectCountsConcurrently(SweepCountAccStruct base, boolean accumSeg)
+      throws IOException {
+    final DocSet docs = base.docSet;
+    final List<int[]> sliceCounts = collectSlices(leaves -> countSlice(leaves, docs, accumSeg));
+
+    final int[] counts = sliceCounts.get(0);
+    for (int i = 1; i < sliceCounts.size(); i++) {
+      final int[] other = sliceCounts.get(i);
+      for (int ord = 0; ord < counts.length; ord++) {
+        counts[ord] += other[ord];
+      }
+    }
+    for (int ord = 0; ord < counts.length; ord++) {
+      if (counts[ord] > 0) {
+        base.countAcc.incrementCount(ord, counts[ord]);
+      }
+    }
+  }
+
+  /** Counts the docs of the given leaves into a new array indexed by global ord. */
+  private int[] countSlice(List<LeafReaderContext> leaves, DocSet docs, boolean accumSeg)
+      throws IOException {
+    final int[] counts = new int[(int) si.getValueCount()];
+    int[] segCounts = null;
+    for (LeafReaderContext subCtx : leaves) {
+      final DocIdSetIterator disi = docs.iterator(subCtx);
+      if (disi == null) {
+        continue;
+      }
+
+      SortedDocValues singleDv = null;
+      SortedSetDocValues multiDv = null;
+      int segMax;
+      if (multiValuedField) {
+        multiDv = subCtx.reader().getSortedSetDocValues(sf.getName());
+        if (multiDv == null) {
+          continue;
+        }
+        if (unwrap_singleValued_multiDv) {
+          singleDv = DocValues.unwrapSingleton(multiDv);
+        }
+        segMax = (int) multiDv.getValueCount();
+      } else {
+        singleDv = subCtx.reader().getSortedDocValues(sf.getName());
+        if (singleDv == null) {
+          continue;
+        }
+        segMax = singleDv.getValueCount();
+      }
+
+      final LongValues toGlobal =
+          ordinalMap == null ? LongValues.IDENTITY : ordinalMap.getGlobalOrds(subCtx.ord);
+      // like collectPerSeg, count segment ords and only map those seen to global ords at the end
+      final boolean perSeg = accumSeg && ordinalMap != null;
+      final int[] target;
+      final LongValues ordMap;
+      if (perSeg) {
+        if (segCounts == null) {
+          // large enough for any segment
+          segCounts = new int[counts.length];
+        } else {
+          Arrays.fill(segCounts, 0, segMax, 0);
+        }
+        target = segCounts;
+        ordMap = LongValues.IDENTITY;
+      } else {
+        target = counts;
+        ordMap = toGlobal;
+      }
+
+      int doc;
+      if (singleDv != null) {
+        while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          if (singleDv.advanceExact(doc)) {
+            target[(int) ordMap.get(singleDv.ordValue())]++;
+          }
+        }
+      } else {
+        while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          if (multiDv.advanceExact(doc)) {
+            for (int o = 0; o < multiDv.docValueCount(); o++) {
+              target[(int) ordMap.get(multiDv.nextOrd())]++;
+            }
+          }
+        }
+      }
+
+      if (perSeg) {
+        for (int segOrd = 0; segOrd < segMax; segOrd++) {
+          if (segCounts[segOrd] > 0) {
+            counts[(int) toGlobal.get(segOrd)] += segCounts[segOrd];
+          }
+        }
+      }
+    }
+    return counts;
+  }
+
   @Override
   protected BytesRef lookupOrd(int ord) throws IOException {
     return si.lookupOrd(ord);
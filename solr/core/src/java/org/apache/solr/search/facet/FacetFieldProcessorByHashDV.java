@@ -18,6 +18,7 @@ package org.apache.solr.search.facet;
 
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.List;
 import java.util.function.IntFunction;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.DocValuesType;
@@ -27,6 +28,7 @@ import org.apache.lucene.index.MultiDocValues;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.util.BitUtil;
@@ -89,6 +91,11 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
 
     /** returns the slot */
     int add(long val) {
+      return add(val, 1);
+    }
+
+    /** adds inc to the count of val; returns the slot */
+    int add(long val, long inc) {
       if (cardinality >= threshold) {
         rehash();
       }
@@ -97,13 +104,13 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
       for (int slot = h & (vals.length - 1); ; slot = (slot + ((h >> 7) | 1)) & (vals.length - 1)) {
         long count = counts[slot];
         if (count == 0) {
-          counts[slot] = 1;
+          counts[slot] = inc;
           vals[slot] = val;
           cardinality++;
           return slot;
         } else if (vals[slot] == val) {
           // val is already in the set
-          counts[slot] = count + 1;
+          counts[slot] = count + inc;
           return slot;
         }
       }
@@ -354,6 +361,11 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
             }
           };
 
+      if (canCollectCountsConcurrently()) {
+        collectCountsConcurrently(globalDocValues);
+        return;
+      }
+
       DocSetUtil.collectSortedDocSet(
           fcontext.base,
           fcontext.searcher.getIndexReader(),
@@ -386,6 +398,11 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
 
     } else { // Numeric:
 
+      if (canCollectCountsConcurrently()) {
+        collectCountsConcurrently(null);
+        return;
+      }
+
       if (sf.multiValued()) {
         DocSetUtil.collectSortedDocSet(
             fcontext.base,
@@ -450,6 +467,82 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
     }
   }
 
+  /** Only counts are collected, so slices can be counted independently and then merged. */
+  private boolean canCollectCountsConcurrently() {
+    return collectAcc == null
+        && allBucketsAcc == null
+        && isMultiThreaded()
+        && fcontext.searcher.getSlices().length > 1;
+  }
+
+  /**
+   * Counts each leaf slice into its own hash table, then merges those into {@link #table}.
+   *
+   * @param globalDocValues the top level values when faceting on term ordinals, else null
+   */
+  private void collectCountsConcurrently(SortedDocValues globalDocValues) throws IOException {
+    final List<LongCounts> sliceTables =
+        collectSlices(leaves -> countSlice(leaves, globalDocValues));
+    for (LongCounts sliceTable : sliceTables) {
+      for (int slot = 0; slot < sliceTable.numSlots(); slot++) {
+        final long count = sliceTable.counts[slot];
+        if (count > 0) {
+          table.add(sliceTable.vals[slot], count);
+        }
+      }
+    }
+  }
+
+  private LongCounts countSlice(List<LeafReaderContext> leaves, SortedDocValues globalDocValues)
+      throws IOException {
+    final LongCounts counts = new LongCounts(table.numSlots());
+    for (LeafReaderContext ctx : leaves) {
+      final DocIdSetIterator disi = fcontext.base.iterator(ctx);
+      if (disi == null) {
+        continue;
+      }
+
+      int segDoc;
+      if (globalDocValues != null) { // Strings
+        final SortedDocValues docValues = DocValues.getSorted(ctx.reader(), sf.getName());
+        final LongValues toGlobal =
+            globalDocValues instanceof MultiDocValues.MultiSortedDocValues multiDocValues
+                ? multiDocValues.mapping.getGlobalOrds(ctx.ord)
+                : LongValues.IDENTITY;
+        while ((segDoc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          if (docValues.advanceExact(segDoc)) {
+            counts.add(toGlobal.get(docValues.ordValue()));
+          }
+        }
+      } else if (sf.multiValued()) {
+        final SortedNumericDocValues values =
+            DocValues.getSortedNumeric(ctx.reader(), sf.getName());
+        while ((segDoc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          if (values.advanceExact(segDoc)) {
+            long l = values.nextValue();
+            counts.add(l);
+            for (int i = 1, count = values.docValueCount(); i < count; i++) {
+              long lnew = values.nextValue();
+              // Skip the value if it's equal to the last one, we don't want to double-count it
+              if (lnew != l) {
+                counts.add(lnew);
+              }
+              l = lnew;
+            }
+          }
+        }
+      } else {
+        final NumericDocValues values = DocValues.getNumeric(ctx.reader(), sf.getName());
+        while ((segDoc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          if (values.advanceExact(segDoc)) {
+            counts.add(values.longValue());
+          }
+        }
+      }
+    }
+    return counts;
+  }
+
   private void collectValFirstPhase(int segDoc, long val) throws IOException {
     int slot = table.add(val); // this can trigger a rehash
 
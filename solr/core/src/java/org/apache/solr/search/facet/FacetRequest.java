@@ -461,22 +461,27 @@ public abstract class FacetRequest {
   final Object process(FacetContext fcontext) throws IOException {
     FacetProcessor<?> facetProcessor = createFacetProcessor(fcontext);
 
-    FacetDebugInfo debugInfo = fcontext.getDebugInfo();
-    if (debugInfo == null) {
-      facetProcessor.process();
-    } else {
-      if (fcontext.filter != null) {
-        debugInfo.setFilter(fcontext.filter.toString());
-      }
-      debugInfo.setReqDescription(getFacetDescription());
-      debugInfo.setProcessor(facetProcessor.getClass().getSimpleName());
-      debugInfo.putInfoItem("domainSize", (long) fcontext.base.size());
-      RTimer timer = new RTimer();
-      try {
+    try {
+      FacetDebugInfo debugInfo = fcontext.getDebugInfo();
+      if (debugInfo == null) {
         facetProcessor.process();
-      } finally {
-        debugInfo.setElapse((long) timer.getTime());
+      } else {
+        if (fcontext.filter != null) {
+          debugInfo.setFilter(fcontext.filter.toString());
+        }
+        debugInfo.setReqDescription(getFacetDescription());
+        debugInfo.setProcessor(facetProcessor.getClass().getSimpleName());
+        debugInfo.putInfoItem("domainSize", (long) fcontext.base.size());
+        RTimer timer = new RTimer();
+        try {
+          facetProcessor.process();
+        } finally {
+          debugInfo.setElapse((long) timer.getTime());
+        }
       }
+    } finally {
+      // the response holds the values of the accs, so their arrays can be reused right away
+      fcontext.releasePooledArrays();
     }
 
     return facetProcessor.getResponse();
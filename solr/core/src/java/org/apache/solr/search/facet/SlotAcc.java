@@ -299,6 +299,7 @@ public abstract class SlotAcc implements Closeable {
   public abstract static class DoubleFuncSlotAcc extends FuncSlotAcc {
     protected double[] result; // TODO: use DoubleArray
     protected double initialValue;
+    private SlotArrayPool pool;
 
     public DoubleFuncSlotAcc(ValueSource values, FacetContext fcontext, int numSlots) {
       this(values, fcontext, numSlots, 0);
@@ -308,7 +309,8 @@ public abstract class SlotAcc implements Closeable {
         ValueSource values, FacetContext fcontext, int numSlots, double initialValue) {
       super(values, fcontext, numSlots);
       this.initialValue = initialValue;
-      result = new double[numSlots];
+      pool = SlotArrayPool.forAcc(this, numSlots);
+      result = pool == null ? new double[numSlots] : pool.takeDoubles(numSlots);
       if (initialValue != 0) {
         reset();
       }
@@ -333,17 +335,27 @@ public abstract class SlotAcc implements Closeable {
     public void resize(Resizer resizer) {
       result = resizer.resize(result, initialValue);
     }
+
+    @Override
+    public void close() throws IOException {
+      if (pool != null) {
+        pool.release(result);
+        pool = null;
+      }
+    }
   }
 
   public abstract static class LongFuncSlotAcc extends FuncSlotAcc {
     protected long[] result;
     protected long initialValue;
+    private SlotArrayPool pool;
 
     public LongFuncSlotAcc(
         ValueSource values, FacetContext fcontext, int numSlots, long initialValue) {
       super(values, fcontext, numSlots);
       this.initialValue = initialValue;
-      result = new long[numSlots];
+      pool = SlotArrayPool.forAcc(this, numSlots);
+      result = pool == null ? new long[numSlots] : pool.takeLongs(numSlots);
       if (initialValue != 0) {
         reset();
       }
@@ -368,16 +380,26 @@ public abstract class SlotAcc implements Closeable {
     public void resize(Resizer resizer) {
       result = resizer.resize(result, initialValue);
     }
+
+    @Override
+    public void close() throws IOException {
+      if (pool != null) {
+        pool.release(result);
+        pool = null;
+      }
+    }
   }
 
   public abstract static class IntSlotAcc extends SlotAcc {
     protected int[] result; // use LongArray32
     protected int initialValue;
+    private SlotArrayPool pool;
 
     public IntSlotAcc(FacetContext fcontext, int numSlots, int initialValue) {
       super(fcontext);
       this.initialValue = initialValue;
-      result = new int[numSlots];
+      pool = SlotArrayPool.forAcc(this, numSlots);
+      result = pool == null ? new int[numSlots] : pool.takeInts(numSlots);
       if (initialValue != 0) {
         reset();
       }
@@ -402,6 +424,14 @@ public abstract class SlotAcc implements Closeable {
     public void resize(Resizer resizer) {
       result = resizer.resize(result, initialValue);
     }
+
+    @Override
+    public void close() throws IOException {
+      if (pool != null) {
+        pool.release(result);
+        pool = null;
+      }
+    }
   }
 
   static class SumSlotAcc extends DoubleFuncSlotAcc {
@@ -847,10 +877,12 @@ public abstract class SlotAcc implements Closeable {
 
   static class CountSlotArrAcc extends CountSlotAcc {
     long[] result;
+    private SlotArrayPool pool;
 
     public CountSlotArrAcc(FacetContext fcontext, int numSlots) {
       super(fcontext);
-      result = new long[numSlots];
+      pool = SlotArrayPool.forAcc(this, numSlots);
+      result = pool == null ? new long[numSlots] : pool.takeLongs(numSlots);
     }
 
     @Override
@@ -894,6 +926,14 @@ public abstract class SlotAcc implements Closeable {
     public void resize(Resizer resizer) {
       result = resizer.resize(result, 0);
     }
+
+    @Override
+    public void close() throws IOException {
+      if (pool != null) {
+        pool.release(result);
+        pool = null;
+      }
+    }
   }
 
   static class SortSlotAcc extends SlotAcc {
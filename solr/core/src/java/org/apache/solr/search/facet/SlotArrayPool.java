@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import org.apache.solr.common.util.EnvUtils;
+
+/**
+ * A per-searcher pool of the primitive arrays backing the slots of high-cardinality {@link SlotAcc}
+ * instances. Faceting on a field with many unique terms allocates arrays sized to the number of
+ * terms for every request; borrowing them from this pool lets repeated requests against the same
+ * searcher reuse the arrays of previous requests instead of churning through the young generation.
+ *
+ * <p>Pooling is off unless {@code solr.facet.slotArrayPool.maxBytes} is set to the number of bytes
+ * the pool may retain; the least recently returned arrays are evicted first. Arrays are borrowed
+ * when an accumulator is created and handed back as soon as the facet processor that owns it has
+ * finished, so the buckets of a parent facet reuse the arrays of their sub-facets. Only arrays of
+ * at least {@code solr.facet.slotArrayPool.minLength} slots are pooled.
+ *
+ * @lucene.internal
+ */
+public class SlotArrayPool {
+  private final int minLength;
+  private final long maxBytes;
+
+  // most recently returned first
+  private final ArrayDeque<Object> arrays = new ArrayDeque<>();
+  private long bytes;
+
+  public SlotArrayPool() {
+    this(
+        EnvUtils.getPropertyAsInteger("solr.facet.slotArrayPool.minLength", 1 << 16),
+        EnvUtils.getPropertyAsLong("solr.facet.slotArrayPool.maxBytes", 0L));
+  }
+
+  SlotArrayPool(int minLength, long maxBytes) {
+    this.minLength = minLength;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns the pool of the searcher that {@code acc} runs against if an array of {@code length}
+   * slots should be borrowed from it, registering {@code acc} with its {@link FacetContext} to be
+   * closed (and so to return its arrays) when the facet processor finishes. Returns null if the
+   * array should simply be allocated.
+   */
+  static SlotArrayPool forAcc(SlotAcc acc, int length) {
+    FacetContext fcontext = acc.fcontext;
+    if (fcontext == null || fcontext.searcher == null) {
+      return null;
+    }
+    SlotArrayPool pool = fcontext.searcher.getSlotArrayPool();
+    if (pool.maxBytes <= 0 || length < pool.minLength) {
+      return null;
+    }
+    fcontext.addPooledAcc(acc);
+    return pool;
+  }
+
+  /** Returns a zeroed array of exactly {@code length} slots */
+  long[] takeLongs(int length) {
+    long[] arr = (long[]) take(long[].class, length);
+    if (arr == null) return new long[length];
+    Arrays.fill(arr, 0);
+    return arr;
+  }
+
+  /** Returns a zeroed array of exactly {@code length} slots */
+  double[] takeDoubles(int length) {
+    double[] arr = (double[]) take(double[].class, length);
+    if (arr == null) return new double[length];
+    Arrays.fill(arr, 0);
+    return arr;
+  }
+
+  /** Returns a zeroed array of exactly {@code length} slots */
+  int[] takeInts(int length) {
+    int[] arr = (int[]) take(int[].class, length);
+    if (arr == null) return new int[length];
+    Arrays.fill(arr, 0);
+    return arr;
+  }
+
+  /** Hands back a {@code long[]}, {@code double[]} or {@code int[]} for reuse by later requests */
+  synchronized void release(Object arr) {
+    long size = sizeOf(arr);
+    if (Array.getLength(arr) < minLength || size > maxBytes) return;
+    while (bytes + size > maxBytes) {
+      bytes -= sizeOf(arrays.removeLast());
+    }
+    arrays.addFirst(arr);
+    bytes += size;
+  }
+
+  /** Returns the number of arrays currently pooled */
+  synchronized int size() {
+    return arrays.size();
+  }
+
+  /** Drops all pooled arrays; called when the owning searcher is closed */
+  public synchronized void clear() {
+    arrays.clear();
+    bytes = 0;
+  }
+
+  private synchronized Object take(Class<?> type, int length) {
+    for (Iterator<Object> it = arrays.iterator(); it.hasNext(); ) {
+      Object arr = it.next();
+      if (arr.getClass() == type && Array.getLength(arr) == length) {
+        it.remove();
+        bytes -= sizeOf(arr);
+        return arr;
+      }
+    }
+    return null;
+  }
+
+  private static long sizeOf(Object arr) {
+    if (arr instanceof long[]) return (long) ((long[]) arr).length * Long.BYTES;
+    if (arr instanceof double[]) return (long) ((double[]) arr).length * Double.BYTES;
+    return (long) ((int[]) arr).length * Integer.BYTES;
+  }
+}
@@ -293,7 +293,8 @@ public class GraphQuery extends Query implements SolrSearcherRequirer {
 
     @Override
     public boolean isCacheable(LeafReaderContext ctx) {
-      return true;
+      // the traversal spans all segments, so a segment's matches depend on the others
+      return false;
     }
   }
 
@@ -21,6 +21,7 @@ import java.util.Locale;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -52,10 +53,15 @@ public final class CommitTracker implements Runnable {
   // scheduler delay for maxSize-triggered autocommits
   public static final int SIZE_COMMIT_DELAY_MS = 1;
 
+  // auto commits running on all the cores of this node, see getTimeTriggeredDelay()
+  private static final AtomicInteger runningAutoCommits = new AtomicInteger(0);
+
   // settings, not final so we can change them in testing
   private int docsUpperBound;
   private long timeUpperBound;
   private long tLogFileSizeUpperBound;
+  // the longest timeUpperBound may be stretched to under load; not adaptive if not above it
+  private long maxStaleTime;
 
   // note: can't use ExecutorsUtil because it doesn't have a *scheduled* ExecutorService.
   //  Not a big deal but it means we must take care of MDC logging here.
@@ -66,6 +72,10 @@ public final class CommitTracker implements Runnable {
   // state
   private AtomicLong docsSinceCommit = new AtomicLong(0);
   private AtomicInteger autoCommitCount = new AtomicInteger(0);
+  // how long the last auto commit took, including opening and warming its searcher
+  private volatile long lastCommitTimeMs = 0;
+  // the delay of the last maxTime-triggered commit scheduled
+  private volatile long lastTimeTriggeredDelayMs = 0;
 
   private final SolrCore core;
 
@@ -81,6 +91,7 @@ public final class CommitTracker implements Runnable {
       int docsUpperBound,
       int timeUpperBound,
       long tLogFileSizeUpperBound,
+      long maxStaleTime,
       boolean openSearcher,
       boolean softCommit) {
     this.core = core;
@@ -90,6 +101,7 @@ public final class CommitTracker implements Runnable {
     this.docsUpperBound = docsUpperBound;
     this.timeUpperBound = timeUpperBound;
     this.tLogFileSizeUpperBound = tLogFileSizeUpperBound;
+    this.maxStaleTime = maxStaleTime;
 
     this.softCommit = softCommit;
     this.openSearcher = openSearcher;
@@ -129,10 +141,40 @@ public final class CommitTracker implements Runnable {
     long ctime = (commitWithin > 0) ? commitWithin : timeUpperBound;
 
     if (ctime > 0) {
+      if (commitWithin <= 0 && isAdaptive()) {
+        synchronized (this) {
+          if (pending != null && pending.getDelay(TimeUnit.MILLISECONDS) <= maxStaleTime) {
+            // don't bring forward a commit whose maxTime was stretched
+            return;
+          }
+          ctime = getTimeTriggeredDelay();
+        }
+      }
       _scheduleCommitWithin(ctime);
     }
   }
 
+  /** Whether maxTime-triggered commits are delayed according to the load, up to maxStaleTime */
+  public boolean isAdaptive() {
+    return timeUpperBound > 0 && maxStaleTime > timeUpperBound;
+  }
+
+  /**
+   * The delay of the next maxTime-triggered commit when adaptive. The time upper bound is
+   * stretched to twice the time the last auto commit took, so that commits slowed by heavy
+   * indexing or searcher warming don't run back to back, and by another time upper bound for each
+   * auto commit running on this node, plus some jitter, so that its cores don't all warm
+   * searchers at once. The delay never exceeds maxStaleTime.
+   */
+  long getTimeTriggeredDelay() {
+    long delay = Math.max(timeUpperBound, 2 * lastCommitTimeMs);
+    delay = Math.max(delay, timeUpperBound * (1 + runningAutoCommits.get()));
+    delay += ThreadLocalRandom.current().nextLong(timeUpperBound / 10 + 1);
+    delay = Math.min(delay, maxStaleTime);
+    lastTimeTriggeredDelayMs = delay;
+    return delay;
+  }
+
   private void _scheduleCommitWithin(long commitMaxTime) {
     if (commitMaxTime <= 0) return;
     synchronized (this) {
@@ -277,7 +319,14 @@ public final class CommitTracker implements Runnable {
       // to check the commit count before we had incremented it.)
       autoCommitCount.incrementAndGet();
 
-      core.getUpdateHandler().commit(command);
+      long start = System.nanoTime();
+      runningAutoCommits.incrementAndGet();
+      try {
+        core.getUpdateHandler().commit(command);
+      } finally {
+        runningAutoCommits.decrementAndGet();
+        lastCommitTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      }
     } catch (Exception e) {
       log.error("auto commit error...", e);
     } finally {
@@ -296,6 +345,7 @@ public final class CommitTracker implements Runnable {
     if (timeUpperBound > 0 || docsUpperBound > 0 || tLogFileSizeUpperBound > 0) {
       return (timeUpperBound > 0 ? ("if uncommitted for " + timeUpperBound + "ms; ") : "")
           + (docsUpperBound > 0 ? ("if " + docsUpperBound + " uncommitted docs; ") : "")
+          + (isAdaptive() ? ("maxTime stretched up to " + maxStaleTime + "ms under load; ") : "")
           + (tLogFileSizeUpperBound > 0
               ? String.format(
                   Locale.ROOT, "if tlog file size has exceeded %d bytes", tLogFileSizeUpperBound)
@@ -309,6 +359,20 @@ public final class CommitTracker implements Runnable {
     return timeUpperBound;
   }
 
+  public long getMaxStaleTime() {
+    return maxStaleTime;
+  }
+
+  /** How long the last auto commit took, including opening and warming its searcher */
+  public long getLastCommitTime() {
+    return lastCommitTimeMs;
+  }
+
+  /** The delay of the last maxTime-triggered commit, stretched if adaptive */
+  public long getLastTimeTriggeredDelay() {
+    return lastTimeTriggeredDelayMs;
+  }
+
   int getDocsUpperBound() {
     return docsUpperBound;
   }
@@ -326,6 +390,16 @@ public final class CommitTracker implements Runnable {
     this.timeUpperBound = timeUpperBound;
   }
 
+  // only for testing - not thread safe
+  void setMaxStaleTime(long maxStaleTime) {
+    this.maxStaleTime = maxStaleTime;
+  }
+
+  // only for testing - not thread safe
+  void setLastCommitTime(long lastCommitTimeMs) {
+    this.lastCommitTimeMs = lastCommitTimeMs;
+  }
+
   // only for testing - not thread safe
   public void setTLogFileSizeUpperBound(int sizeUpperBound) {
     this.tLogFileSizeUpperBound = sizeUpperBound;
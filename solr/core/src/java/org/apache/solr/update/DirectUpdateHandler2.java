@@ -151,6 +151,7 @@ public class DirectUpdateHandler2 extends UpdateHandler
             docsUpperBound,
             timeUpperBound,
             fileSizeUpperBound,
+            -1,
             updateHandlerInfo.openSearcher,
             false);
 
@@ -163,6 +164,7 @@ public class DirectUpdateHandler2 extends UpdateHandler
             softCommitDocsUpperBound,
             softCommitTimeUpperBound,
             NO_FILE_SIZE_UPPER_BOUND_PLACEHOLDER,
+            updateHandlerInfo.autoSoftCommitMaxStaleTime,
             true,
             true);
 
@@ -194,6 +196,7 @@ public class DirectUpdateHandler2 extends UpdateHandler
             docsUpperBound,
             timeUpperBound,
             fileSizeUpperBound,
+            -1,
             updateHandlerInfo.openSearcher,
             false);
 
@@ -206,6 +209,7 @@ public class DirectUpdateHandler2 extends UpdateHandler
             softCommitDocsUpperBound,
             softCommitTimeUpperBound,
             NO_FILE_SIZE_UPPER_BOUND_PLACEHOLDER,
+            updateHandlerInfo.autoSoftCommitMaxStaleTime,
             updateHandlerInfo.openSearcher,
             true);
 
@@ -382,6 +386,21 @@ public class DirectUpdateHandler2 extends UpdateHandler
                     softCommitTracker.getTimeUpperBound(),
                     baseAttributes.toBuilder().put(TYPE_ATTR, "soft_auto_commit_max_time").build());
               }
+              if (softCommitTracker.isAdaptive()) {
+                observableLongMeasurement.record(
+                    softCommitTracker.getMaxStaleTime(),
+                    baseAttributes.toBuilder()
+                        .put(TYPE_ATTR, "soft_auto_commit_max_stale_time")
+                        .build());
+                observableLongMeasurement.record(
+                    softCommitTracker.getLastTimeTriggeredDelay(),
+                    baseAttributes.toBuilder().put(TYPE_ATTR, "soft_auto_commit_delay").build());
+                observableLongMeasurement.record(
+                    softCommitTracker.getLastCommitTime(),
+                    baseAttributes.toBuilder()
+                        .put(TYPE_ATTR, "soft_auto_commit_last_time")
+                        .build());
+              }
             })));
 
     observables.add(
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.request.JavaBinRequestWriter;
+import org.apache.solr.client.solrj.request.JavaBinUpdateRequestCodec;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+
+/**
+ * An {@link UpdateRequest} that a leader forwards, unchanged, to each of its replicas. It is
+ * marshalled to javabin the first time it is written and the same bytes are then written to every
+ * replica stream, instead of encoding the document once per replica.
+ *
+ * <p>The request must not be modified once it has been submitted.
+ */
+class ForwardedUpdateRequest extends UpdateRequest {
+  private byte[] encoded;
+
+  synchronized byte[] getEncoded() throws IOException {
+    if (encoded == null) {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      new JavaBinUpdateRequestCodec().marshal(this, baos);
+      encoded = baos.toByteArray();
+    }
+    return encoded;
+  }
+
+  /**
+   * A {@link JavaBinRequestWriter} that writes the cached encoding of a {@link
+   * ForwardedUpdateRequest}.
+   */
+  static class Writer extends JavaBinRequestWriter {
+    @Override
+    public ContentWriter getContentWriter(SolrRequest<?> req) {
+      if (req instanceof ForwardedUpdateRequest forwarded && !isEmpty(forwarded)) {
+        return new ContentWriter() {
+          @Override
+          public void write(OutputStream os) throws IOException {
+            os.write(forwarded.getEncoded());
+          }
+
+          @Override
+          public String getContentType() {
+            return getUpdateContentType();
+          }
+        };
+      }
+      return super.getContentWriter(req);
+    }
+
+    @Override
+    public void write(SolrRequest<?> request, OutputStream os) throws IOException {
+      if (request instanceof ForwardedUpdateRequest forwarded) {
+        os.write(forwarded.getEncoded());
+      } else {
+        super.write(request, os);
+      }
+    }
+  }
+}
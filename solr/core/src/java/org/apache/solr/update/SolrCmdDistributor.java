@@ -243,16 +243,17 @@ public class SolrCmdDistributor implements Closeable {
       RollupRequestReplicationTracker rollupTracker,
       LeaderRequestReplicationTracker leaderTracker)
       throws IOException {
+    if (nodes.isEmpty()) return;
+    // every replica gets the same request, so it is only encoded once
+    UpdateRequest uReq = new ForwardedUpdateRequest();
+    if (cmd.isLastDocInBatch) uReq.lastDocInBatch();
+    uReq.setParams(params);
+    uReq.add(cmd.solrDoc, cmd.commitWithin, cmd.overwrite);
+    if (cmd.isInPlaceUpdate()) {
+      params.set(
+          DistributedUpdateProcessor.DISTRIB_INPLACE_PREVVERSION, String.valueOf(cmd.prevVersion));
+    }
     for (Node node : nodes) {
-      UpdateRequest uReq = new UpdateRequest();
-      if (cmd.isLastDocInBatch) uReq.lastDocInBatch();
-      uReq.setParams(params);
-      uReq.add(cmd.solrDoc, cmd.commitWithin, cmd.overwrite);
-      if (cmd.isInPlaceUpdate()) {
-        params.set(
-            DistributedUpdateProcessor.DISTRIB_INPLACE_PREVVERSION,
-            String.valueOf(cmd.prevVersion));
-      }
       submit(new Req(cmd, node, uReq, synchronous, rollupTracker, leaderTracker), false);
     }
   }
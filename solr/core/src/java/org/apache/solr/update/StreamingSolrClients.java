@@ -44,15 +44,20 @@ public class StreamingSolrClients {
   // should be less than solr.jetty.http.idleTimeout
   private final int pollQueueTimeMillis =
       Integer.getInteger("solr.cloud.client.pollQueueTime", 10000);
+  // the number of updates that may be waiting to be streamed to a single replica
+  private final int queueSize = Integer.getInteger("solr.cloud.replication.queueSize", 100);
 
   private HttpJettySolrClient httpClient;
 
-  private Map<String, ConcurrentUpdateBaseSolrClient> solrClients = new HashMap<>();
+  private Map<String, ErrorReportingConcurrentUpdateSolrClient> solrClients = new HashMap<>();
   private List<SolrError> errors = Collections.synchronizedList(new ArrayList<>());
 
   private ExecutorService updateExecutor;
 
+  private final UpdateShardHandler updateShardHandler;
+
   public StreamingSolrClients(UpdateShardHandler updateShardHandler) {
+    this.updateShardHandler = updateShardHandler;
     this.updateExecutor = updateShardHandler.getUpdateExecutor();
     this.httpClient = updateShardHandler.getUpdateOnlyHttpClient();
   }
@@ -67,7 +72,7 @@ public class StreamingSolrClients {
 
   public synchronized SolrClient getSolrClient(final SolrCmdDistributor.Req req) {
     String url = getFullUrl(req.node.getUrl());
-    ConcurrentUpdateBaseSolrClient client = solrClients.get(url);
+    ErrorReportingConcurrentUpdateSolrClient client = solrClients.get(url);
     if (client == null) {
       // NOTE: increasing to more than 1 threadCount for the client could cause updates to be
       // reordered on a greater scale since the current behavior is to only increase the number of
@@ -78,7 +83,7 @@ public class StreamingSolrClients {
           new ErrorReportingConcurrentUpdateSolrClient.Builder(
                   req.node.getBaseUrl(), httpClient, req, errors)
               .withDefaultCollection(defaultCore)
-              .withQueueSize(100)
+              .withQueueSize(queueSize)
               .withThreadCount(runnerCount)
               .withExecutorService(updateExecutor)
               .alwaysStreamDeletes()
@@ -87,6 +92,7 @@ public class StreamingSolrClients {
               .build();
 
       solrClients.put(url, client);
+      updateShardHandler.registerReplicaClient(client);
     }
 
     return client;
@@ -99,7 +105,8 @@ public class StreamingSolrClients {
   }
 
   public synchronized void shutdown() {
-    for (ConcurrentUpdateBaseSolrClient client : solrClients.values()) {
+    for (ErrorReportingConcurrentUpdateSolrClient client : solrClients.values()) {
+      updateShardHandler.unregisterReplicaClient(client);
       client.close();
     }
   }
@@ -134,6 +141,16 @@ class ErrorReportingConcurrentUpdateSolrClient extends ConcurrentUpdateJettySolr
     this.errors = builder.errors;
   }
 
+  /** The URL of the replica this client streams updates to */
+  String getReplicaUrl() {
+    return req.node.getUrl();
+  }
+
+  /** The number of updates queued for this replica that have not been streamed yet */
+  int getQueuedUpdateCount() {
+    return queue.size();
+  }
+
   @Override
   public void handleError(Throwable ex) {
     log.error("Error when calling {} to {}", req, req.node.getUrl(), ex);
@@ -20,8 +20,12 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
@@ -36,6 +40,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.apache.solr.common.SolrException;
@@ -47,6 +52,7 @@ import org.apache.solr.common.util.FastInputStream;
 import org.apache.solr.common.util.FastOutputStream;
 import org.apache.solr.common.util.JavaBinCodec;
 import org.apache.solr.common.util.ObjectReleaseTracker;
+import org.apache.solr.common.util.SuppressForbidden;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -86,6 +92,10 @@ public class TransactionLog implements Closeable {
   protected volatile boolean deleteOnClose = true;
 
   protected AtomicInteger refcount = new AtomicInteger(1);
+  // group commit for SyncLevel.FSYNC: requests waiting on syncLock are covered by the fsync of
+  // whoever holds it if their records were flushed before it started, see syncTo()
+  private final Object syncLock = new Object();
+  private long syncedSize; // guarded by syncLock
   protected Map<String, Integer> globalStringMap = new HashMap<>();
   protected List<String> globalStringList = new ArrayList<>();
 
@@ -113,6 +123,18 @@ public class TransactionLog implements Closeable {
   protected static final ChannelInputStreamOpener CHANNEL_INPUT_STREAM_OPENER =
       ChannelFastInputStream::new;
 
+  // logs smaller than this are read through the channel even if mapped reads are enabled
+  static final long MIN_MAPPED_SIZE = 1 << 20;
+  // the mapped prefix of the log file, if mapped reads are enabled; remapped as the log grows
+  private volatile MappedByteBuffer mapping;
+  // every mapping created, including ones since replaced that streams may still read from; they
+  // are unmapped once the log is closed, when no streams are left. Guarded by itself.
+  private final List<MappedByteBuffer> mappings = new ArrayList<>();
+
+  // unmaps buffers like MMapDirectory did before it moved to MemorySegment (which Java 21 only
+  // offers as a preview); null if that isn't possible, in which case the GC unmaps them
+  private static final Consumer<ByteBuffer> UNMAPPER = lookupUnmapper();
+
   public class LogCodec extends JavaBinCodec {
 
     public LogCodec(JavaBinCodec.ObjectResolver resolver) {
@@ -613,18 +635,103 @@ public class TransactionLog implements Closeable {
    */
   public void closeOutput() {}
 
+  /**
+   * Makes readers of this log (replay, recent updates and real-time get lookups) copy from a memory
+   * mapping of the file rather than issuing a read on the channel for every buffer they fill. The
+   * mapping is only created once the log reaches {@link #MIN_MAPPED_SIZE}, and is redone each time
+   * the log doubles in size; anything written past the mapping is still read from the channel.
+   * Must be called before the log is shared with other threads.
+   */
+  public void enableMappedReads() {
+    if (channelInputStreamOpener == CHANNEL_INPUT_STREAM_OPENER) {
+      channelInputStreamOpener = this::openMappedInputStream;
+    }
+  }
+
+  private ChannelFastInputStream openMappedInputStream(FileChannel channel, long position)
+      throws IOException {
+    MappedByteBuffer mapping = this.mapping;
+    if (mapping == null || mapping.capacity() < Integer.MAX_VALUE) {
+      // callers flush before opening a stream, so the whole file is readable
+      long size = channel.size();
+      if (mapping == null ? size >= MIN_MAPPED_SIZE : size >= 2L * mapping.capacity()) {
+        synchronized (mappings) {
+          // another reader may have remapped in the meantime
+          mapping = this.mapping;
+          if (mapping == null ? size >= MIN_MAPPED_SIZE : size >= 2L * mapping.capacity()) {
+            mapping =
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+            mappings.add(mapping);
+            this.mapping = mapping;
+          }
+        }
+      }
+    }
+    return mapping == null
+        ? new ChannelFastInputStream(channel, position)
+        : new MappedChannelFastInputStream(channel, position, mapping);
+  }
+
+  /** Returns the number of mappings created and not yet unmapped */
+  int numMappings() {
+    synchronized (mappings) {
+      return mappings.size();
+    }
+  }
+
+  /** Unmaps the mappings of the file; only safe once nothing can read from them anymore. */
+  private void unmap() {
+    synchronized (mappings) {
+      mapping = null;
+      if (UNMAPPER != null) {
+        for (MappedByteBuffer buffer : mappings) {
+          UNMAPPER.accept(buffer);
+        }
+      }
+      mappings.clear();
+    }
+  }
+
+  @SuppressForbidden(reason = "Needs access to sun.misc.Unsafe to unmap buffers")
+  private static Consumer<ByteBuffer> lookupUnmapper() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      MethodHandle invokeCleaner =
+          MethodHandles.lookup()
+              .findVirtual(
+                  unsafeClass,
+                  "invokeCleaner",
+                  MethodType.methodType(void.class, ByteBuffer.class));
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      MethodHandle unmapper = invokeCleaner.bindTo(theUnsafe.get(null));
+      return buffer -> {
+        try {
+          unmapper.invokeExact(buffer);
+        } catch (Throwable t) {
+          throw new RuntimeException("Unable to unmap the transaction log", t);
+        }
+      };
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      log.warn("Unable to unmap transaction logs, leaving it to garbage collection", e);
+      return null;
+    }
+  }
+
   public void finish(UpdateLog.SyncLevel syncLevel) {
     if (syncLevel == UpdateLog.SyncLevel.NONE) return;
     try {
+      long size;
       synchronized (this) {
         fos.flush();
+        size = fos.size();
       }
 
       if (syncLevel == UpdateLog.SyncLevel.FSYNC) {
         // Since fsync is outside of synchronized block, we can end up with a partial
         // last record on power failure (which is OK, and does not represent an error...
         // we just need to be aware of it when reading).
-        channel.force(true);
+        syncTo(size);
       }
 
     } catch (IOException e) {
@@ -632,6 +739,26 @@ public class TransactionLog implements Closeable {
     }
   }
 
+  /**
+   * Makes sure the first {@code size} bytes of the log are on disk. Concurrent callers share an
+   * fsync: while one is forcing the channel the others wait, and the next one to get in forces
+   * everything written up to then, which usually covers the rest of them.
+   */
+  private void syncTo(long size) throws IOException {
+    synchronized (syncLock) {
+      if (syncedSize >= size) {
+        return; // another request's fsync covered ours
+      }
+      long flushedSize;
+      synchronized (this) {
+        fos.flush();
+        flushedSize = fos.size();
+      }
+      channel.force(true);
+      syncedSize = flushedSize;
+    }
+  }
+
   @Override
   public void close() {
     try {
@@ -643,6 +770,8 @@ public class TransactionLog implements Closeable {
         fos.flush();
         fos.close();
       }
+      // no readers are left once the log is closed
+      unmap();
 
       if (deleteOnClose) {
         try {
@@ -663,6 +792,10 @@ public class TransactionLog implements Closeable {
     if (refcount.get() > 0) {
       log.error("Error: Forcing close of {}", this);
       refcount.set(0);
+      synchronized (mappings) {
+        // readers may still be using the mappings, so leave them to garbage collection
+        mappings.clear();
+      }
       close();
     }
   }
@@ -1025,6 +1158,30 @@ public class TransactionLog implements Closeable {
     }
   }
 
+  /**
+   * A {@link ChannelFastInputStream} that fills its buffer from a memory mapping of the start of
+   * the file, and from the channel past its end.
+   */
+  static class MappedChannelFastInputStream extends ChannelFastInputStream {
+    private final ByteBuffer mapping;
+
+    MappedChannelFastInputStream(FileChannel ch, long chPosition, ByteBuffer mapping) {
+      super(ch, chPosition);
+      this.mapping = mapping;
+    }
+
+    @Override
+    public int readWrappedStream(byte[] target, int offset, int len) throws IOException {
+      if (readFromStream >= mapping.limit()) {
+        return super.readWrappedStream(target, offset, len);
+      }
+      int n = (int) Math.min(len, mapping.limit() - readFromStream);
+      // absolute bulk get; doesn't touch the buffer's position, so the mapping can be shared
+      mapping.get((int) readFromStream, target, offset, n);
+      return n;
+    }
+  }
+
   /** Opens {@link OutputStream} from {@link FileChannel}. */
   protected interface OutputStreamOpener {
 
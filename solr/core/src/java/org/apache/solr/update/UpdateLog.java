@@ -44,6 +44,10 @@ import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
 import java.util.concurrent.SynchronousQueue;
@@ -205,7 +209,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   protected volatile State state = State.ACTIVE;
 
   protected TransactionLog bufferTlog;
-  protected TransactionLog tlog;
+  protected volatile TransactionLog tlog;
   protected TransactionLog prevTlog;
   protected TransactionLog prevTlogOnPrecommit;
   // list of recent logs, newest first
@@ -213,18 +217,25 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   protected Deque<TransactionLog> newestLogsOnStartup = new ArrayDeque<>();
   protected int numOldRecords; // number of records in the recent logs
 
-  protected Map<BytesRef, LogPtr> map = new HashMap<>();
-  protected Map<BytesRef, LogPtr> prevMap; // used while committing/reopening is happening
-  protected Map<BytesRef, LogPtr> prevMap2; // used while committing/reopening is happening
+  // The maps are only changed under the monitor, but are read without it by lookups. They are
+  // swapped oldest first so that a lookup going through them newest first never misses an entry.
+  protected volatile Map<BytesRef, LogPtr> map = new ConcurrentHashMap<>();
+  // used while committing/reopening is happening
+  protected volatile Map<BytesRef, LogPtr> prevMap;
+  // used while committing/reopening is happening
+  protected volatile Map<BytesRef, LogPtr> prevMap2;
   // the transaction log used to look up entries found in prevMap
-  protected TransactionLog prevMapLog;
+  protected volatile TransactionLog prevMapLog;
   // the transaction log used to look up entries found in prevMap2
-  protected TransactionLog prevMapLog2;
+  protected volatile TransactionLog prevMapLog2;
+  // odd while the maps and the logs they point into are being swapped, see lookup()
+  private final AtomicInteger mapsStamp = new AtomicInteger();
 
   protected final int numDeletesToKeep = 1000;
   protected final int numDeletesByQueryToKeep = 100;
   protected int numRecordsToKeep;
   protected int maxNumLogsToKeep;
+  protected boolean mmapReaders;
   protected boolean existOldBufferLog = false;
 
   // keep track of deletes only... this is not updated on an add
@@ -383,6 +394,8 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
 
     numRecordsToKeep = objToInt(info.initArgs.get("numRecordsToKeep"), 100);
     maxNumLogsToKeep = objToInt(info.initArgs.get("maxNumLogsToKeep"), 10);
+    Object mmapReaders = info.initArgs.get("mmapReaders");
+    this.mmapReaders = mmapReaders != null && Boolean.parseBoolean(mmapReaders.toString());
     if (info.initArgs.get("numVersionBuckets") != null) {
       log.warn("numVersionBuckets is obsolete");
     }
@@ -719,7 +732,11 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
    */
   public TransactionLog newTransactionLog(
       Path tlogFile, Collection<String> globalStrings, boolean openExisting) {
-    return new TransactionLog(tlogFile, globalStrings, openExisting);
+    TransactionLog tlog = new TransactionLog(tlogFile, globalStrings, openExisting);
+    if (mmapReaders) {
+      tlog.enableMappedReads();
+    }
+    return tlog;
   }
 
   public String getTlogDir() {
@@ -956,12 +973,22 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
         return;
       }
 
-      if (map != null) map.clear();
-      if (prevMap != null) prevMap.clear();
-      if (prevMap2 != null) prevMap2.clear();
+      clearMaps();
     }
   }
 
+  /**
+   * Clears the id caches, oldest first like the swaps in {@link #preCommit}, so that a lookup that
+   * missed in a newer map can't find an older entry that has been superseded.
+   */
+  private void clearMaps() {
+    mapsStamp.incrementAndGet();
+    if (prevMap2 != null) prevMap2.clear();
+    if (prevMap != null) prevMap.clear();
+    if (map != null) map.clear();
+    mapsStamp.incrementAndGet();
+  }
+
   /** currently for testing only */
   public void deleteAll() {
     synchronized (this) {
@@ -972,9 +999,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
         log.error("Error opening realtime searcher for deleteByQuery", e);
       }
 
-      if (map != null) map.clear();
-      if (prevMap != null) prevMap.clear();
-      if (prevMap2 != null) prevMap2.clear();
+      clearMaps();
 
       oldDeletes.clear();
       deleteByQueries.clear();
@@ -1037,7 +1062,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     prevMap = map;
     prevMapLog = tlog;
 
-    map = new HashMap<>();
+    map = new ConcurrentHashMap<>();
   }
 
   private void clearOldMaps() {
@@ -1065,6 +1090,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
       }
 
       // since we're changing the log, we must change the map.
+      mapsStamp.incrementAndGet();
       newMap();
 
       if (prevTlog != null) {
@@ -1081,6 +1107,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
       }
       prevTlog = tlog;
       tlog = null;
+      mapsStamp.incrementAndGet();
       id++;
     }
   }
@@ -1110,13 +1137,15 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
 
     synchronized (this) {
       if (!cmd.softCommit) return; // already handled this at the start of the hard commit
+      mapsStamp.incrementAndGet();
       newMap();
 
       // start adding documents to a new map since we won't know if
       // any added documents will make it into this commit or not.
       // But we do know that any updates already added will definitely
       // show up in the latest reader after the commit succeeds.
-      map = new HashMap<>();
+      map = new ConcurrentHashMap<>();
+      mapsStamp.incrementAndGet();
 
       if (debug) {
         log.debug(
@@ -1291,6 +1320,35 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     LogPtr entry;
     TransactionLog lookupLog;
 
+    // Optimistically find the entry and its log without the monitor. This is only valid if no
+    // commit swapped the maps in the meantime, otherwise fall back to the synchronized lookup.
+    int stamp = mapsStamp.get();
+    Map<BytesRef, LogPtr> currentMap = map;
+    entry = currentMap.get(indexedId);
+    lookupLog = tlog;
+    if (entry == null && (currentMap = prevMap) != null) {
+      entry = currentMap.get(indexedId);
+      lookupLog = prevMapLog;
+    }
+    if (entry == null && (currentMap = prevMap2) != null) {
+      entry = currentMap.get(indexedId);
+      lookupLog = prevMapLog2;
+    }
+    if (entry == null) {
+      // the maps are swapped oldest first, so a newer entry can't have been missed
+      return null;
+    }
+    if ((stamp & 1) == 0 && lookupLog != null && lookupLog.try_incref()) {
+      if (mapsStamp.get() == stamp) {
+        try {
+          return lookupLog.lookup(entry.pointer);
+        } finally {
+          lookupLog.decref();
+        }
+      }
+      lookupLog.decref();
+    }
+
     synchronized (this) {
       entry = map.get(indexedId);
       lookupLog = tlog; // something found in "map" will always be in "tlog"
@@ -1332,30 +1390,22 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   // that have already grabbed higher version numbers.  Higher level coordination or
   // synchronization is needed for stronger guarantees (as VersionUpdateProcessor does).
   public Long lookupVersion(BytesRef indexedId) {
-    LogPtr entry;
-    TransactionLog lookupLog;
+    return lookupVersion(indexedId, null);
+  }
 
-    synchronized (this) {
-      entry = map.get(indexedId);
-      lookupLog = tlog; // something found in "map" will always be in "tlog"
-      // SolrCore.verbose("TLOG: lookup ver: for id ",indexedId.utf8ToString(),"in
-      // map",System.identityHashCode(map),"got",entry,"lookupLog=",lookupLog);
-      if (entry == null && prevMap != null) {
-        entry = prevMap.get(indexedId);
-        // something found in prevMap will always be found in prevMapLog (which could be tlog or
-        // prevTlog)
-        lookupLog = prevMapLog;
-        // SolrCore.verbose("TLOG: lookup ver: for id ",indexedId.utf8ToString(),"in
-        // prevMap",System.identityHashCode(map),"got",entry,"lookupLog=",lookupLog);
-      }
-      if (entry == null && prevMap2 != null) {
-        entry = prevMap2.get(indexedId);
-        // something found in prevMap2 will always be found in prevMapLog2 (which could be tlog or
-        // prevTlog)
-        lookupLog = prevMapLog2;
-        // SolrCore.verbose("TLOG: lookup ver: for id ",indexedId.utf8ToString(),"in
-        // prevMap2",System.identityHashCode(map),"got",entry,"lookupLog=",lookupLog);
-      }
+  /**
+   * Like {@link #lookupVersion(BytesRef)}, but takes the version from {@code prefetched} rather
+   * than the index when it's still current.
+   */
+  public Long lookupVersion(BytesRef indexedId, VersionInfo.IndexVersions prefetched) {
+    // no need for the monitor (or the logs) here; the maps are read newest first
+    LogPtr entry = map.get(indexedId);
+    Map<BytesRef, LogPtr> currentMap;
+    if (entry == null && (currentMap = prevMap) != null) {
+      entry = currentMap.get(indexedId);
+    }
+    if (entry == null && (currentMap = prevMap2) != null) {
+      entry = currentMap.get(indexedId);
     }
 
     if (entry != null) {
@@ -1363,7 +1413,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     }
 
     // Now check real index
-    Long version = versionInfo.getVersionFromIndex(indexedId);
+    Long version = versionInfo.getVersionFromIndex(indexedId, prefetched);
 
     if (version != null) {
       return version;
@@ -2102,6 +2152,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
 
     Deque<TransactionLog> translogs;
     TransactionLog.LogReader tlogReader;
+    LogReadAhead readAhead;
     boolean activeLog;
     // state where we lock out other updates and finish those updates that snuck in before we locked
     boolean finishing = false;
@@ -2209,10 +2260,14 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
             inSortedOrder ? null : req.getCoreContainer().getReplayUpdatesExecutor();
         AtomicInteger pendingTasks = new AtomicInteger(0);
         AtomicReference<SolrException> exceptionOnExecuteUpdate = new AtomicReference<>();
+        // a log that isn't written to anymore is decoded on another thread, ahead of this one
+        readAhead = activeLog ? null : new LogReadAhead(tlogReader);
 
         long commitVersion = 0;
         int operationAndFlags = 0;
         long nextCount = 0;
+        boolean inPlaceUpdatesPending = false;
+        int deleteByQueriesSinceDrain = 0;
 
         for (; ; ) {
           Object o = null;
@@ -2239,7 +2294,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
             }
 
             o = null;
-            o = tlogReader.next();
+            o = readAhead != null ? readAhead.next() : tlogReader.next();
             if (o == null && activeLog) {
               if (!finishing) {
                 // about to block all the updates including the tasks in the executor
@@ -2291,6 +2346,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
                       convertTlogEntryToAddUpdateCommand(req, entry, oper, version);
                   cmd.setFlags(UpdateCommand.REPLAY | UpdateCommand.IGNORE_AUTOCOMMIT);
                   if (debug) log.debug("{} {}", oper == ADD ? "add" : "update", cmd);
+                  inPlaceUpdatesPending |= oper == UPDATE_INPLACE && executor != null;
                   execute(cmd, executor, pendingTasks, procThreadLocal, exceptionOnExecuteUpdate);
                   break;
                 }
@@ -2316,7 +2372,17 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
                   cmd.setVersion(version);
                   cmd.setFlags(UpdateCommand.REPLAY | UpdateCommand.IGNORE_AUTOCOMMIT);
                   if (debug) log.debug("deleteByQuery {}", cmd);
-                  waitForAllUpdatesGetExecuted(pendingTasks);
+                  // There's no need to drain the adds and deletes still in flight: they are
+                  // ordered against the DBQ by version, since it blocks updates while it runs and
+                  // DirectUpdateHandler2 re-applies it to older adds processed after it (see
+                  // getDBQNewer). In-place updates don't get that, and only so many DBQs are
+                  // tracked for it, so drain in those cases.
+                  if (inPlaceUpdatesPending
+                      || ++deleteByQueriesSinceDrain >= numDeletesByQueryToKeep / 2) {
+                    waitForAllUpdatesGetExecuted(pendingTasks);
+                    inPlaceUpdatesPending = false;
+                    deleteByQueriesSinceDrain = 0;
+                  }
                   // DBQ will be executed in the same thread
                   execute(cmd, null, pendingTasks, procThreadLocal, exceptionOnExecuteUpdate);
                   break;
@@ -2391,11 +2457,73 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
         }
 
       } finally {
+        if (readAhead != null) {
+          readAhead.close();
+          readAhead = null;
+        }
         if (tlogReader != null) tlogReader.close();
         translog.decref();
       }
     }
 
+    /**
+     * Decodes the records of a log on a thread of the recovery executor, a bounded number ahead of
+     * the replay thread. The log must not be written to anymore.
+     */
+    private class LogReadAhead {
+      private final Object END = new Object();
+      private final BlockingQueue<Object> records = new ArrayBlockingQueue<>(1000);
+      private final Future<?> future;
+      private volatile boolean closed;
+      private volatile Exception failure;
+      private boolean ended;
+
+      LogReadAhead(TransactionLog.LogReader reader) {
+        future =
+            recoveryExecutor.submit(
+                () -> {
+                  Object o;
+                  do {
+                    try {
+                      o = reader.next();
+                    } catch (Exception e) {
+                      failure = e;
+                      o = null;
+                    }
+                    Object record = o == null ? END : o;
+                    // don't interrupt reads; that would close the log's channel
+                    while (!records.offer(record, 100, TimeUnit.MILLISECONDS)) {
+                      if (closed) return null;
+                    }
+                  } while (o != null && !closed);
+                  return null;
+                });
+      }
+
+      /** Returns the next record, or null at the end of the log */
+      Object next() throws Exception {
+        if (ended) return null;
+        Object o = records.take();
+        if (o == END) {
+          ended = true;
+          if (failure != null) throw failure;
+          return null;
+        }
+        return o;
+      }
+
+      void close() {
+        closed = true;
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          log.warn("Exception reading ahead in log", e);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
     private void waitForAllUpdatesGetExecuted(AtomicInteger pendingTasks) {
       TimeOut timeOut =
           new TimeOut(Integer.MAX_VALUE, TimeUnit.MILLISECONDS, TimeSource.CURRENT_TIME);
@@ -17,9 +17,13 @@
 package org.apache.solr.update;
 
 import com.google.common.annotations.VisibleForTesting;
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
@@ -44,6 +48,8 @@ public class UpdateShardHandler implements SolrInfoBean {
 
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  private static final AttributeKey<String> REPLICA_ATTR = AttributeKey.stringKey("replica");
+
   /*
    * A downside to configuring an upper bound will be big update reorders (when that upper bound is hit)
    * and then undetected shard inconsistency as a result.
@@ -70,6 +76,10 @@ public class UpdateShardHandler implements SolrInfoBean {
 
   private final InstrumentedHttpListenerFactory trackHttpSolrMetrics;
 
+  // the clients currently streaming updates from a leader to its replicas, for the lag metrics
+  private final Set<ErrorReportingConcurrentUpdateSolrClient> replicaClients =
+      ConcurrentHashMap.newKeySet();
+
   private SolrMetricsContext solrMetricsContext;
 
   private int socketTimeout = SolrHttpConstants.DEFAULT_SO_TIMEOUT;
@@ -115,7 +125,9 @@ public class UpdateShardHandler implements SolrInfoBean {
           .withMaxConnectionsPerHost(cfg.getMaxUpdateConnectionsPerHost());
     }
 
-    updateOnlyClientBuilder.withTheseParamNamesInTheUrl(urlParamNames);
+    updateOnlyClientBuilder
+        .withTheseParamNamesInTheUrl(urlParamNames)
+        .withRequestWriter(new ForwardedUpdateRequest.Writer());
     updateOnlyClient = updateOnlyClientBuilder.build();
 
     recoveryOnlyClient = recoveryOnlyClientBuilder.build();
@@ -171,6 +183,15 @@ public class UpdateShardHandler implements SolrInfoBean {
     recoveryExecutor =
         solrMetricsContext.instrumentedExecutorService(
             recoveryExecutor, "solr_core_executor", "recoveryExecutor", getCategory());
+    solrMetricsContext.observableLongGauge(
+        "solr_core_update_replica_queued_updates",
+        "The number of updates queued by leaders on this node that have not been sent to a replica",
+        measurement ->
+            getReplicaQueuedUpdates()
+                .forEach(
+                    (replica, count) ->
+                        measurement.record(
+                            count, attributes.toBuilder().put(REPLICA_ATTR, replica).build())));
   }
 
   @Override
@@ -233,6 +254,23 @@ public class UpdateShardHandler implements SolrInfoBean {
     }
   }
 
+  void registerReplicaClient(ErrorReportingConcurrentUpdateSolrClient client) {
+    replicaClients.add(client);
+  }
+
+  void unregisterReplicaClient(ErrorReportingConcurrentUpdateSolrClient client) {
+    replicaClients.remove(client);
+  }
+
+  /** The number of updates queued for each replica that have not been sent yet, by replica URL */
+  public Map<String, Long> getReplicaQueuedUpdates() {
+    Map<String, Long> queued = new HashMap<>();
+    for (ErrorReportingConcurrentUpdateSolrClient client : replicaClients) {
+      queued.merge(client.getReplicaUrl(), (long) client.getQueuedUpdateCount(), Long::sum);
+    }
+    return queued;
+  }
+
   @VisibleForTesting
   public int getSocketTimeout() {
     return socketTimeout;
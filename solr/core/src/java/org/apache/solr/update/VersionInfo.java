@@ -19,6 +19,11 @@ package org.apache.solr.update;
 import static org.apache.solr.common.params.CommonParams.VERSION_FIELD;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.lucene.queries.function.FunctionValues;
 import org.apache.lucene.queries.function.ValueSource;
@@ -140,6 +145,102 @@ public class VersionInfo {
     return ulog.lookupVersion(idBytes);
   }
 
+  /**
+   * Like {@link #lookupVersion(BytesRef)}, but uses the version in {@code prefetched} (if not null)
+   * rather than looking it up in the index again, as long as it's still current.
+   */
+  public Long lookupVersion(BytesRef idBytes, IndexVersions prefetched) {
+    return ulog.lookupVersion(idBytes, prefetched);
+  }
+
+  /**
+   * Versions of a batch of documents as found in the index by {@link #getVersionsFromIndex}. They
+   * remain valid while the realtime searcher they were found with is the current one, since newer
+   * updates are then still found in the {@link UpdateLog}.
+   */
+  public static final class IndexVersions {
+    private final SolrIndexSearcher searcher;
+    private final Map<BytesRef, Long> versions; // null values for docs not in the index
+    private int hits;
+
+    private IndexVersions(SolrIndexSearcher searcher, Map<BytesRef, Long> versions) {
+      this.searcher = searcher;
+      this.versions = versions;
+    }
+
+    public int size() {
+      return versions.size();
+    }
+
+    /** How many lookups took their version from these rather than from the index */
+    public int getHits() {
+      return hits;
+    }
+  }
+
+  /**
+   * Looks up the versions of many documents in the index at once, with one pass over the ids of
+   * each segment, for {@link #lookupVersion(BytesRef, IndexVersions)} to use.
+   */
+  public IndexVersions getVersionsFromIndex(Collection<BytesRef> idBytes) {
+    RefCounted<SolrIndexSearcher> newestSearcher = ulog.uhandler.core.getRealtimeSearcher();
+    try {
+      SolrIndexSearcher searcher = newestSearcher.get();
+      List<BytesRef> ids = new ArrayList<>(idBytes);
+      long[] lookups = searcher.lookupIds(ids);
+      Map<BytesRef, Long> versions = new HashMap<>();
+      for (BytesRef id : ids) {
+        versions.put(id, null);
+      }
+
+      // read the versions segment by segment, in doc id order
+      Integer[] order = new Integer[lookups.length];
+      for (int i = 0; i < order.length; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, (a, b) -> Long.compare(lookups[a], lookups[b]));
+      ValueSource vs = versionField.getType().getValueSource(versionField, null);
+      Map<Object, Object> context = ValueSource.newContext(searcher);
+      vs.createWeight(context, searcher);
+      FunctionValues fv = null;
+      int leaf = -1;
+      for (int idx : order) {
+        long lookup = lookups[idx];
+        if (lookup < 0) continue; // not in the index yet
+        if ((int) (lookup >> 32) != leaf) {
+          leaf = (int) (lookup >> 32);
+          fv = vs.getValues(context, searcher.getTopReaderContext().leaves().get(leaf));
+        }
+        versions.put(ids.get(idx), fv.longVal((int) lookup));
+      }
+      return new IndexVersions(searcher, versions);
+    } catch (IOException e) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR, "Error reading versions from index", e);
+    } finally {
+      newestSearcher.decref();
+    }
+  }
+
+  /**
+   * Returns the latest version from the index like {@link #getVersionFromIndex(BytesRef)}, taking
+   * it from {@code prefetched} if that was looked up with the current realtime searcher.
+   */
+  public Long getVersionFromIndex(BytesRef idBytes, IndexVersions prefetched) {
+    if (prefetched != null && prefetched.versions.containsKey(idBytes)) {
+      RefCounted<SolrIndexSearcher> newestSearcher = ulog.uhandler.core.getRealtimeSearcher();
+      try {
+        if (newestSearcher.get() == prefetched.searcher) {
+          prefetched.hits++;
+          return prefetched.versions.get(idBytes);
+        }
+      } finally {
+        newestSearcher.decref();
+      }
+    }
+    return getVersionFromIndex(idBytes);
+  }
+
   /**
    * Returns the latest version from the index, searched by the given id (bytes) as seen from the
    * realtime searcher. Returns null if no document can be found in the index for the given id.
@@ -19,6 +19,7 @@ package org.apache.solr.update.processor;
 import static org.apache.solr.common.SolrException.ErrorCode.SERVER_ERROR;
 
 import java.io.IOException;
+import java.util.List;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.util.NamedList;
@@ -73,13 +74,28 @@ public abstract class AbstractDefaultValueUpdateProcessorFactory
 
     @Override
     public void processAdd(AddUpdateCommand cmd) throws IOException {
+      addDefaultValue(cmd);
+      super.processAdd(cmd);
+    }
+
+    @Override
+    public void processAddBatch(List<AddUpdateCommand> cmds) throws IOException {
+      if (isProcessAddOverridden()) {
+        super.processAddBatch(cmds);
+        return;
+      }
+      for (AddUpdateCommand cmd : cmds) {
+        addDefaultValue(cmd);
+      }
+      if (next != null) next.processAddBatch(cmds);
+    }
+
+    private void addDefaultValue(AddUpdateCommand cmd) {
       final SolrInputDocument doc = cmd.getSolrInputDocument();
 
       if (!doc.containsKey(fieldName)) {
         doc.addField(fieldName, getDefaultValue());
       }
-
-      super.processAdd(cmd);
     }
 
     public abstract Object getDefaultValue();
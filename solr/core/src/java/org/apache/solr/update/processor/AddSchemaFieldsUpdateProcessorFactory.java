@@ -418,6 +418,23 @@ public class AddSchemaFieldsUpdateProcessorFactory extends UpdateRequestProcesso
 
     @Override
     public void processAdd(AddUpdateCommand cmd) throws IOException {
+      addUnknownFields(cmd);
+      super.processAdd(cmd);
+    }
+
+    @Override
+    public void processAddBatch(List<AddUpdateCommand> cmds) throws IOException {
+      if (isProcessAddOverridden()) {
+        super.processAddBatch(cmds);
+        return;
+      }
+      for (AddUpdateCommand cmd : cmds) {
+        addUnknownFields(cmd);
+      }
+      if (next != null) next.processAddBatch(cmds);
+    }
+
+    private void addUnknownFields(AddUpdateCommand cmd) {
       if (!cmd.getReq().getSchema().isMutable()) {
         final String message = "This IndexSchema is not mutable.";
         throw new SolrException(BAD_REQUEST, message);
@@ -530,7 +547,6 @@ public class AddSchemaFieldsUpdateProcessorFactory extends UpdateRequestProcesso
           }
         }
       }
-      super.processAdd(cmd);
     }
 
     /** Recursively find unknown fields in the given doc and its child documents, if any. */
@@ -22,6 +22,8 @@ import static org.apache.solr.update.processor.DistributingUpdateProcessorFactor
 import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -131,6 +133,8 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
   private final VersionInfo vinfo;
   private final boolean versionsStored;
   private boolean returnVersions;
+  // index versions of a batch of documents about to be added, see prefetchVersions()
+  private VersionInfo.IndexVersions prefetchedVersions;
 
   private NamedList<Object> addsResponse = null;
   private NamedList<Object> deleteResponse = null;
@@ -217,6 +221,46 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
     return isLeader;
   }
 
+  /**
+   * Looks up the versions of the given documents in the index in one pass, so that the adds of a
+   * large batch of them don't each look up their own. Only worthwhile for many documents.
+   *
+   * @return the versions the following adds will use, or null if none were looked up
+   */
+  public VersionInfo.IndexVersions prefetchVersions(Collection<BytesRef> idBytes) {
+    if (vinfo != null && versionsStored && !idBytes.isEmpty()) {
+      prefetchedVersions = vinfo.getVersionsFromIndex(idBytes);
+    }
+    return prefetchedVersions;
+  }
+
+  /**
+   * Processes the adds one at a time, but first looks up in one pass the index versions of the
+   * documents that will need them: those sent with a version, whether by a client asking for
+   * optimistic concurrency or by the leader of the shard.
+   */
+  @Override
+  public void processAddBatch(List<AddUpdateCommand> cmds) throws IOException {
+    if (versionsStored && idField != null && cmds.size() > 1) {
+      Set<BytesRef> ids = new HashSet<>();
+      for (AddUpdateCommand cmd : cmds) {
+        SolrInputDocument doc = cmd.getSolrInputDocument();
+        SolrInputField id = doc.getField(idField.getName());
+        if (id != null
+            && id.getValueCount() == 1
+            && doc.getFieldValue(CommonParams.VERSION_FIELD) != null) {
+          ids.add(cmd.getIndexedId());
+        }
+      }
+      prefetchVersions(ids);
+    }
+    try {
+      super.processAddBatch(cmds);
+    } finally {
+      prefetchedVersions = null;
+    }
+  }
+
   @Override
   public void processAdd(AddUpdateCommand cmd) throws IOException {
 
@@ -407,7 +451,7 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
         }
 
         if (versionOnUpdate != 0) {
-          Long lastVersion = vinfo.lookupVersion(cmd.getIndexedId());
+          Long lastVersion = vinfo.lookupVersion(cmd.getIndexedId(), prefetchedVersions);
           long foundVersion = lastVersion == null ? -1 : lastVersion;
           if (versionOnUpdate == foundVersion
               || (versionOnUpdate < 0 && foundVersion < 0)
@@ -447,7 +491,7 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
 
         if (cmd.isInPlaceUpdate()) {
           long prev = cmd.prevVersion;
-          Long lastVersion = vinfo.lookupVersion(cmd.getIndexedId());
+          Long lastVersion = vinfo.lookupVersion(cmd.getIndexedId(), prefetchedVersions);
           if (lastVersion == null || Math.abs(lastVersion) < prev) {
             // this was checked for (in waitForDependentUpdates()) before entering the
             // synchronized block. So we shouldn't be here, unless what must've happened is: by
@@ -497,7 +541,7 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
         } else {
           // if we aren't the leader, then we need to check that updates were not re-ordered
           // we need to check the specific version for this id.
-          Long lastVersion = vinfo.lookupVersion(cmd.getIndexedId());
+          Long lastVersion = vinfo.lookupVersion(cmd.getIndexedId(), prefetchedVersions);
           if (lastVersion != null && Math.abs(lastVersion) >= versionOnUpdate) {
             // This update is a repeat, or was reordered. We need to drop this update.
             if (log.isDebugEnabled()) {
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import org.apache.solr.common.SolrException;
@@ -75,6 +76,27 @@ public abstract class FieldMutatingUpdateProcessor extends UpdateRequestProcesso
    */
   @Override
   public void processAdd(AddUpdateCommand cmd) throws IOException {
+    mutateFields(cmd);
+    super.processAdd(cmd);
+  }
+
+  /**
+   * Mutates the fields of every document before forwarding the batch down the chain. If a subclass
+   * overrides <code>processAdd</code> but not this, the documents are passed to it one at a time.
+   */
+  @Override
+  public void processAddBatch(List<AddUpdateCommand> cmds) throws IOException {
+    if (isProcessAddOverridden()) {
+      super.processAddBatch(cmds);
+      return;
+    }
+    for (AddUpdateCommand cmd : cmds) {
+      mutateFields(cmd);
+    }
+    if (next != null) next.processAddBatch(cmds);
+  }
+
+  private void mutateFields(AddUpdateCommand cmd) {
     final SolrInputDocument doc = cmd.getSolrInputDocument();
 
     // make a copy we can iterate over while mutating the doc
@@ -108,7 +130,6 @@ public abstract class FieldMutatingUpdateProcessor extends UpdateRequestProcesso
         doc.put(dest.getName(), dest);
       }
     }
-    super.processAdd(cmd);
   }
 
   /** Interface for identifying which fields should be mutated */
@@ -19,6 +19,7 @@ package org.apache.solr.update.processor;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.solr.common.SolrException;
@@ -53,6 +54,19 @@ public class FieldNameMutatingUpdateProcessorFactory extends UpdateRequestProces
     return new UpdateRequestProcessor(next) {
       @Override
       public void processAdd(AddUpdateCommand cmd) throws IOException {
+        renameFields(cmd);
+        super.processAdd(cmd);
+      }
+
+      @Override
+      public void processAddBatch(List<AddUpdateCommand> cmds) throws IOException {
+        for (AddUpdateCommand cmd : cmds) {
+          renameFields(cmd);
+        }
+        if (next != null) next.processAddBatch(cmds);
+      }
+
+      private void renameFields(AddUpdateCommand cmd) {
         final SolrInputDocument doc = cmd.getSolrInputDocument();
         final Collection<String> fieldNames = new ArrayList<>(doc.getFieldNames());
 
@@ -67,8 +81,6 @@ public class FieldNameMutatingUpdateProcessorFactory extends UpdateRequestProces
             }
           }
         }
-
-        super.processAdd(cmd);
       }
 
       @Override
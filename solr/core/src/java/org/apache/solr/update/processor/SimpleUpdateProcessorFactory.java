@@ -17,6 +17,7 @@
 package org.apache.solr.update.processor;
 
 import java.io.IOException;
+import java.util.List;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
@@ -55,6 +56,19 @@ public abstract class SimpleUpdateProcessorFactory extends UpdateRequestProcesso
         }
         super.processAdd(cmd);
       }
+
+      @Override
+      public void processAddBatch(List<AddUpdateCommand> cmds) throws IOException {
+        REQ.set(req);
+        try {
+          for (AddUpdateCommand cmd : cmds) {
+            process(cmd, req, rsp);
+          }
+        } finally {
+          REQ.remove();
+        }
+        if (next != null) next.processAddBatch(cmds);
+      }
     };
   }
 
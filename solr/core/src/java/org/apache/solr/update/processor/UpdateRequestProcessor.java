@@ -19,6 +19,7 @@ package org.apache.solr.update.processor;
 import java.io.Closeable;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.util.List;
 import net.jcip.annotations.NotThreadSafe;
 import org.apache.solr.update.AddUpdateCommand;
 import org.apache.solr.update.CommitUpdateCommand;
@@ -44,6 +45,21 @@ import org.slf4j.LoggerFactory;
 public abstract class UpdateRequestProcessor implements Closeable {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  // whether the class overrides processAdd below the class that overrides processAddBatch
+  private static final ClassValue<Boolean> PROCESS_ADD_OVERRIDDEN =
+      new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+          try {
+            Class<?> add = type.getMethod("processAdd", AddUpdateCommand.class).getDeclaringClass();
+            Class<?> batch = type.getMethod("processAddBatch", List.class).getDeclaringClass();
+            return add != batch && batch.isAssignableFrom(add);
+          } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+          }
+        }
+      };
+
   protected final UpdateRequestProcessor next;
 
   public UpdateRequestProcessor(UpdateRequestProcessor next) {
@@ -54,6 +70,29 @@ public abstract class UpdateRequestProcessor implements Closeable {
     if (next != null) next.processAdd(cmd);
   }
 
+  /**
+   * Processes the adds of a batch of documents, in order. By default each document is passed to
+   * {@link #processAdd} in turn, so the rest of the chain sees them one at a time. Processors that
+   * can work more efficiently on many documents at once, and those that only prepare each document
+   * before passing it on, should override this and pass the batch on with {@code
+   * next.processAddBatch} so that it reaches the processors further down the chain. If such a
+   * processor can be subclassed, it should check {@link #isProcessAddOverridden()} first.
+   */
+  public void processAddBatch(List<AddUpdateCommand> cmds) throws IOException {
+    for (AddUpdateCommand cmd : cmds) {
+      processAdd(cmd);
+    }
+  }
+
+  /**
+   * Whether a subclass overrides {@link #processAdd} but not {@link #processAddBatch}. A processor
+   * whose processAddBatch doesn't call processAdd must then pass batches to the default
+   * implementation, which does, so that the subclass's processAdd still sees every document.
+   */
+  protected final boolean isProcessAddOverridden() {
+    return PROCESS_ADD_OVERRIDDEN.get(getClass());
+  }
+
   public void processDelete(DeleteUpdateCommand cmd) throws IOException {
     if (next != null) next.processDelete(cmd);
   }
@@ -143,6 +143,47 @@ public class JsonLoaderTest extends SolrTestCaseJ4 {
     req.close();
   }
 
+  public void testParallelParsing() throws Exception {
+    StringBuilder sb = new StringBuilder("\n [");
+    int numDocs = atLeast(50);
+    for (int i = 0; i < numDocs; i++) {
+      if (i > 0) sb.append(",\n");
+      sb.append("{'id':'").append(i).append("', 'f':'a,b] [{c}\\\\ \\\"d', 'n':[1, 2]");
+      if (i % 3 == 0) sb.append(" /* ] , } */ // ],\n");
+      sb.append(", 'g':\"it's\"}");
+    }
+    sb.append("]\n");
+    String str = sb.toString();
+
+    BufferingRequestProcessor serial = new BufferingRequestProcessor(null);
+    new JsonLoader()
+        .load(req(), new SolrQueryResponse(), new ContentStreamBase.StringStream(str), serial);
+    assertEquals(numDocs, serial.addCommands.size());
+
+    for (boolean ordered : new boolean[] {true, false}) {
+      BufferingRequestProcessor p = new BufferingRequestProcessor(null);
+      String chunkSize = String.valueOf(random().nextInt(200));
+      SolrQueryRequest req =
+          req("parseThreads", "4", "parseChunkSize", chunkSize, "parseOrdered", "" + ordered);
+      new JsonLoader()
+          .load(req, new SolrQueryResponse(), new ContentStreamBase.StringStream(str), p);
+      req.close();
+
+      assertEquals(numDocs, p.addCommands.size());
+      List<String> expected = new ArrayList<>();
+      List<String> actual = new ArrayList<>();
+      for (int i = 0; i < numDocs; i++) {
+        expected.add(serial.addCommands.get(i).solrDoc.toString());
+        actual.add(p.addCommands.get(i).solrDoc.toString());
+      }
+      if (!ordered) {
+        expected.sort(null);
+        actual.sort(null);
+      }
+      assertEquals(expected, actual);
+    }
+  }
+
   public void testSimpleFormat() throws Exception {
     String str = "[{'id':'1'},{'id':'2'}]".replace('\'', '"');
     SolrQueryRequest req = req("commitWithin", "100", "overwrite", "false");
@@ -139,6 +139,30 @@ public class TestCSVLoader extends SolrTestCaseJ4 {
     assertQ(req("*:*"), "//doc/str[@name='name'][.='LITERAL_VALUE']");
   }
 
+  @Test
+  public void testParallelLoad() throws Exception {
+    StringBuilder sb = new StringBuilder("id,str_s\n");
+    for (int i = 0; i < 100; i++) {
+      // every other value spans two lines and has a quoted quote
+      sb.append(1000 + i).append(i % 2 == 0 ? ",\"a \"\"b\"\",\nc\"\n" : ",plain\n");
+    }
+    makeFile(sb.toString());
+    for (boolean ordered : new boolean[] {true, false}) {
+      loadLocal(
+          "commit", "true",
+          "rowid", "rowid_i",
+          "parseThreads", "4",
+          "parseChunkSize", "50",
+          "parseOrdered", String.valueOf(ordered));
+      assertQ(req("id:[1000 TO 1099]"), "//*[@numFound='100']");
+      assertQ(req("str_s:plain"), "//*[@numFound='50']");
+      assertQ(req("id:1000"), "//arr[@name='str_s']/str[.='a \"b\",\nc']");
+      // the row id counts the lines of the values spanning two lines
+      assertQ(req("id:1001"), "//int[@name='rowid_i'][.='3']");
+      assertQ(req("id:1099"), "//int[@name='rowid_i'][.='150']");
+    }
+  }
+
   @Test
   public void testCSV() throws Exception {
     makeFile("id,str_s\n100,\"quoted\"\n101,\n102,\"\"\n103,");
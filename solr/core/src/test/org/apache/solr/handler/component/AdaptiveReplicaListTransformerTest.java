@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.util.Utils;
+import org.junit.Test;
+
+public class AdaptiveReplicaListTransformerTest extends SolrTestCase {
+
+  private static final String FAST = "http://node1:8983/solr/c1_s1_r1";
+  private static final String SLOW = "http://node2:8983/solr/c1_s1_r2";
+  private static final String NEW = "http://node3:8983/solr/c1_s1_r3";
+
+  @Test
+  public void testFastestReplicaFirst() {
+    AdaptiveReplicaListTransformer transformer = new AdaptiveReplicaListTransformer(random());
+    answer(transformer, FAST, 10);
+    answer(transformer, SLOW, 1000);
+
+    for (int i = 0; i < 10; i++) {
+      List<String> urls = new ArrayList<>(List.of(SLOW, FAST));
+      transformer.transform(urls);
+      assertEquals(List.of(FAST, SLOW), urls);
+    }
+
+    // replicas that were never asked come first, so that they are measured
+    List<String> urls = new ArrayList<>(List.of(SLOW, FAST, NEW));
+    transformer.transform(urls);
+    assertEquals(NEW, urls.get(0));
+  }
+
+  @Test
+  public void testOutstandingRequests() {
+    AdaptiveReplicaListTransformer transformer = new AdaptiveReplicaListTransformer(random());
+    answer(transformer, FAST, 10);
+    answer(transformer, SLOW, 50);
+
+    // a busy replica ranks after an idle one that is somewhat slower
+    transformer.requestStarted(FAST);
+    transformer.requestStarted(FAST);
+    List<String> urls = new ArrayList<>(List.of(FAST, SLOW));
+    transformer.transform(urls);
+    assertEquals(List.of(SLOW, FAST), urls);
+
+    transformer.requestFinished(FAST, 10);
+    transformer.requestFinished(FAST, 10);
+    urls = new ArrayList<>(List.of(SLOW, FAST));
+    transformer.transform(urls);
+    assertEquals(List.of(FAST, SLOW), urls);
+  }
+
+  @Test
+  public void testSlowReplicaRetried() {
+    AtomicLong clock = new AtomicLong();
+    AdaptiveReplicaListTransformer transformer =
+        new AdaptiveReplicaListTransformer(random(), clock::get);
+    answer(transformer, FAST, 10);
+    answer(transformer, SLOW, 100);
+
+    // however many requests pass it over, the slow replica's response time is unchanged
+    double slowTime = transformer.getResponseTime(SLOW);
+    for (int i = 0; i < 100; i++) {
+      List<String> urls = new ArrayList<>(List.of(SLOW, FAST));
+      transformer.transform(urls);
+      assertEquals(List.of(FAST, SLOW), urls);
+    }
+    assertEquals(slowTime, transformer.getResponseTime(SLOW), 0);
+
+    // but it decays as time passes, while the fast replica keeps being measured
+    int seconds = 0;
+    List<String> urls;
+    do {
+      clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+      seconds++;
+      answer(transformer, FAST, 10);
+      assertTrue(transformer.getResponseTime(SLOW) < slowTime);
+      slowTime = transformer.getResponseTime(SLOW);
+      urls = new ArrayList<>(List.of(FAST, SLOW));
+      transformer.transform(urls);
+    } while (urls.get(0).equals(FAST) && seconds < 1000);
+    assertEquals(SLOW, urls.get(0));
+    // 100ms halving every 10 seconds falls to the fast replica's average after about 35 seconds
+    assertTrue("took " + seconds + "s", seconds > 30 && seconds < 40);
+  }
+
+  @Test
+  public void testStaleReplicasDropped() {
+    AtomicLong clock = new AtomicLong();
+    AdaptiveReplicaListTransformer transformer =
+        new AdaptiveReplicaListTransformer(random(), clock::get);
+    answer(transformer, FAST, 10);
+    answer(transformer, SLOW, 100);
+    answer(transformer, NEW, 50);
+    transformer.requestStarted(NEW); // still outstanding
+
+    // only FAST and SLOW remain among the choices, e.g. after the other replicas were deleted
+    String deleted = "http://node4:8983/solr/c1_s1_r4";
+    answer(transformer, deleted, 20);
+    for (int i = 0; i < 11; i++) {
+      clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+      transformer.transform(new ArrayList<>(List.of(FAST, SLOW)));
+    }
+    assertEquals(-1, transformer.getResponseTime(deleted), 0);
+    assertNotEquals(-1, transformer.getResponseTime(NEW), 0);
+    assertNotEquals(-1, transformer.getResponseTime(FAST), 0);
+    assertNotEquals(-1, transformer.getResponseTime(SLOW), 0);
+  }
+
+  @Test
+  public void testSchemeAndTrailingSlashIgnored() {
+    AdaptiveReplicaListTransformer transformer = new AdaptiveReplicaListTransformer(random());
+    answer(transformer, FAST, 10);
+    assertEquals(10, transformer.getResponseTime("node1:8983/solr/c1_s1_r1"), 0);
+    assertEquals(10, transformer.getResponseTime(FAST + "/"), 0);
+  }
+
+  @Test
+  public void testTransformReplicas() {
+    AdaptiveReplicaListTransformer transformer = new AdaptiveReplicaListTransformer(random());
+    // as recorded by HttpShardHandler, with the URLs requests are sent to
+    answer(transformer, FAST, 10);
+    answer(transformer, SLOW, 1000);
+
+    Replica fast = replica("node1:8983_solr", "c1_s1_r1");
+    Replica slow = replica("node2:8983_solr", "c1_s1_r2");
+    assertEquals(FAST + "/", fast.getCoreUrl());
+    for (int i = 0; i < 10; i++) {
+      List<Replica> replicas = new ArrayList<>(List.of(slow, fast));
+      transformer.transform(replicas);
+      assertEquals(List.of(fast, slow), replicas);
+    }
+  }
+
+  private static Replica replica(String nodeName, String core) {
+    Map<String, Object> propMap = new HashMap<>();
+    propMap.put("core", core);
+    propMap.put("type", "NRT");
+    propMap.put("node_name", nodeName);
+    propMap.put("base_url", Utils.getBaseUrlForNodeName(nodeName, "http"));
+    return new Replica(core, propMap, "c1", "s1");
+  }
+
+  private static void answer(AdaptiveReplicaListTransformer transformer, String url, long ms) {
+    transformer.requestStarted(url);
+    transformer.requestFinished(url, ms);
+  }
+}
@@ -30,6 +30,7 @@ import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.cloud.SolrCloudTestCase;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.FacetParams;
 import org.apache.solr.common.params.ShardParams;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.apache.solr.common.util.StrUtils;
@@ -523,6 +524,79 @@ public class DistributedQueryComponentOptimizationTest extends SolrCloudTestCase
     queryWithAsserts("q", "*:*", "fl", "*,score", "sort", "payload desc");
   }
 
+  @Test
+  public void testDistribSinglePassMaxRows() throws Exception {
+    // few enough rows switch to a single pass
+    queryWithAsserts(
+        "q",
+        "*:*",
+        "fl",
+        "id,test_sS",
+        "rows",
+        "5",
+        ShardParams.DISTRIB_SINGLE_PASS_MAX_ROWS,
+        "10");
+    // but too many rows, globs, or an explicit distrib.singlePass=false don't
+    queryWithAsserts(
+        "q",
+        "*:*",
+        "fl",
+        "id,test_sS",
+        "rows",
+        "20",
+        ShardParams.DISTRIB_SINGLE_PASS_MAX_ROWS,
+        "10");
+    queryWithAsserts(
+        "q", "*:*", "fl", "id,test_*", "rows", "5", ShardParams.DISTRIB_SINGLE_PASS_MAX_ROWS, "10");
+    queryWithAsserts(
+        "q",
+        "*:*",
+        "fl",
+        "id,test_sS",
+        "rows",
+        "5",
+        ShardParams.DISTRIB_SINGLE_PASS_MAX_ROWS,
+        "10",
+        ShardParams.DISTRIB_SINGLE_PASS,
+        "false");
+  }
+
+  @Test
+  public void testDistribScoreBounds() throws Exception {
+    SolrQuery query =
+        new SolrQuery(
+            "q", "text:a OR text:b^2 OR test_sS:21^3 OR id:9^4", "fl", "id,score", "rows", "9");
+    query.setFacet(true).addFacetField("id");
+    QueryResponse rsp = cluster.getSolrClient().query(COLLECTION, query);
+
+    TrackingShardHandlerFactory.RequestTrackingQueue trackingQueue =
+        new TrackingShardHandlerFactory.RequestTrackingQueue();
+    TrackingShardHandlerFactory.setTrackingQueue(cluster, trackingQueue);
+    QueryResponse boundedRsp =
+        cluster
+            .getSolrClient()
+            .query(COLLECTION, query.getCopy().set(ShardParams.DISTRIB_SCORE_BOUNDS, true));
+    // the shards only return docs that can make the top 9, so the response is the same
+    compareResponses(rsp, boundedRsp);
+
+    for (String shard : new String[] {SHARD1, SHARD2}) {
+      TrackingShardHandlerFactory.ShardRequestAndParams scoreBoundsRequest =
+          trackingQueue.getShardRequestByPurpose(
+              cluster.getZkStateReader(), COLLECTION, shard, ShardRequest.PURPOSE_GET_SCORE_BOUNDS);
+      assertNotNull(scoreBoundsRequest);
+      assertEquals("3", scoreBoundsRequest.params.get(CommonParams.ROWS));
+      // only the main query computes facets
+      assertEquals("false", scoreBoundsRequest.params.get(FacetParams.FACET));
+      TrackingShardHandlerFactory.ShardRequestAndParams topIdsRequest =
+          trackingQueue.getShardRequestByPurpose(
+              cluster.getZkStateReader(), COLLECTION, shard, ShardRequest.PURPOSE_GET_TOP_IDS);
+      assertNotNull(topIdsRequest.params.get(ShardParams.DISTRIB_MIN_SCORE));
+      // pinned to the replica that gave the bound
+      assertEquals(scoreBoundsRequest.shard, topIdsRequest.shard);
+      assertTrue(topIdsRequest.params.getBool(FacetParams.FACET));
+    }
+  }
+
   @Test
   public void testScoreAlwaysReturned() throws Exception {
     // see SOLR-6795, distrib.singlePass=true would return score even when not asked for
@@ -600,18 +674,22 @@ public class DistributedQueryComponentOptimizationTest extends SolrCloudTestCase
         trackingQueue.getAllRequests();
     int numRequests = getNumRequests(requests);
 
-    boolean distribSinglePass = false;
+    boolean distribSinglePass;
+    String distribSinglePassParam = null;
+    int rows = 10;
+    int singlePassMaxRows = 0;
 
     Set<String> fls = new HashSet<>();
     Set<String> sortFields = new HashSet<>();
     for (int i = 0; i < q.length; i += 2) {
-      if (ShardParams.DISTRIB_SINGLE_PASS.equals(q[i].toString())
-          && Boolean.parseBoolean(q[i + 1].toString())) {
-        assertEquals(
-            "distrib.singlePass=true made more requests than number of shards",
-            sliceCount,
-            numRequests);
-        distribSinglePass = true;
+      if (ShardParams.DISTRIB_SINGLE_PASS.equals(q[i].toString())) {
+        distribSinglePassParam = q[i + 1].toString();
+      }
+      if (ShardParams.DISTRIB_SINGLE_PASS_MAX_ROWS.equals(q[i].toString())) {
+        singlePassMaxRows = Integer.parseInt(q[i + 1].toString());
+      }
+      if (CommonParams.ROWS.equals(q[i].toString())) {
+        rows = Integer.parseInt(q[i + 1].toString());
       }
       if (CommonParams.FL.equals(q[i].toString())) {
         fls.addAll(StrUtils.splitSmart(q[i + 1].toString(), ','));
@@ -623,6 +701,23 @@ public class DistributedQueryComponentOptimizationTest extends SolrCloudTestCase
       }
     }
 
+    if (distribSinglePassParam == null) {
+      // without distrib.singlePass, a query with few enough rows and no globs runs in a single pass
+      distribSinglePass =
+          rows > 0
+              && rows <= singlePassMaxRows
+              && !fls.isEmpty()
+              && fls.stream().noneMatch(fl -> fl.contains("*"));
+    } else {
+      distribSinglePass = Boolean.parseBoolean(distribSinglePassParam);
+    }
+    if (distribSinglePass) {
+      assertEquals(
+          "distrib.singlePass=true made more requests than number of shards",
+          sliceCount,
+          numRequests);
+    }
+
     Set<String> idScoreFields = new HashSet<>(2);
     idScoreFields.add("id"); // id is always requested in GET_TOP_IDS phase
     // score is optional, requested only if sorted by score
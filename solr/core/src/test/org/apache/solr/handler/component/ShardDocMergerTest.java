@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.lucene.search.SortField;
+import org.apache.solr.SolrTestCase;
+import org.junit.Test;
+
+public class ShardDocMergerTest extends SolrTestCase {
+
+  @Test
+  public void testMergesInSortOrder() {
+    int numShards = random().nextInt(5) + 1;
+    List<ShardDoc> allDocs = new ArrayList<>();
+    AtomicInteger constructed = new AtomicInteger();
+    ShardDocMerger merger = newScoreMerger(numShards);
+    for (int s = 0; s < numShards; s++) {
+      String shard = "shard" + s;
+      float[] scores = new float[random().nextInt(20)];
+      for (int i = 0; i < scores.length; i++) {
+        scores[i] = random().nextInt(10);
+      }
+      Arrays.sort(scores);
+      List<ShardDoc> shardDocs = new ArrayList<>();
+      for (int i = 0; i < scores.length; i++) {
+        // shards return their docs best first
+        shardDocs.add(newShardDoc(shard, i, scores[scores.length - 1 - i]));
+      }
+      allDocs.addAll(shardDocs);
+      merger.add(
+          i -> {
+            constructed.incrementAndGet();
+            return shardDocs.get(i);
+          },
+          shardDocs.size());
+    }
+
+    List<ShardDoc> merged = new ArrayList<>();
+    while (merger.hasNext()) {
+      merged.add(merger.next());
+    }
+    assertEquals(allDocs.size(), merged.size());
+    assertEquals(allDocs.size(), constructed.get());
+    for (int i = 1; i < merged.size(); i++) {
+      assertTrue(merged.get(i - 1).score >= merged.get(i).score);
+    }
+    allDocs.sort(Comparator.comparingDouble(doc -> -doc.score));
+    for (int i = 0; i < merged.size(); i++) {
+      assertEquals(allDocs.get(i).score, merged.get(i).score, 0f);
+    }
+    expectThrows(NoSuchElementException.class, merger::next);
+  }
+
+  @Test
+  public void testOnlyConstructsTakenDocs() {
+    int numShards = 10;
+    int docsPerShard = 1000;
+    AtomicInteger constructed = new AtomicInteger();
+    ShardDocMerger merger = newScoreMerger(numShards);
+    for (int s = 0; s < numShards; s++) {
+      String shard = "shard" + s;
+      merger.add(
+          i -> {
+            constructed.incrementAndGet();
+            return newShardDoc(shard, i, docsPerShard - i);
+          },
+          docsPerShard);
+    }
+
+    // ties are broken by shard, so the first docs come from each shard in turn
+    for (int i = 0; i < 25; i++) {
+      ShardDoc doc = merger.next();
+      assertEquals(docsPerShard - i / numShards, doc.score, 0f);
+      assertEquals(i / numShards, doc.orderInShard);
+    }
+    // the docs taken, plus the next doc of each shard
+    assertEquals(25 + numShards, constructed.get());
+  }
+
+  private static ShardDocMerger newScoreMerger(int numShards) {
+    return new ShardDocMerger(
+        new ShardFieldSortedHitQueue(new SortField[] {SortField.FIELD_SCORE}, 0, null), numShards);
+  }
+
+  private static ShardDoc newShardDoc(String shard, int orderInShard, float score) {
+    ShardDoc doc = new ShardDoc();
+    doc.id = shard + "-" + orderInShard;
+    doc.shard = shard;
+    doc.orderInShard = orderInShard;
+    doc.score = score;
+    return doc;
+  }
+}
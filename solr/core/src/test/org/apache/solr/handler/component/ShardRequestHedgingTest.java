@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.ShardParams;
+import org.apache.solr.common.params.SolrParams;
+import org.junit.Test;
+
+public class ShardRequestHedgingTest extends SolrTestCaseJ4 {
+
+  @Test
+  public void testDelay() {
+    try (ShardRequestHedging hedging = new ShardRequestHedging(0.05)) {
+      assertEquals(-1, hedging.getDelay(new ModifiableSolrParams()));
+
+      SolrParams params = params(ShardParams.SHARDS_HEDGE, "true");
+      // not enough response times to derive a delay from yet
+      for (int i = 1; i <= 50; i++) {
+        hedging.recordResponseTime(i);
+      }
+      assertEquals(-1, hedging.getDelay(params));
+
+      for (int i = 51; i <= 100; i++) {
+        hedging.recordResponseTime(i);
+      }
+      assertEquals(95, hedging.getDelay(params));
+      assertEquals(
+          50,
+          hedging.getDelay(
+              params(ShardParams.SHARDS_HEDGE, "true", ShardParams.SHARDS_HEDGE_PERCENTILE, "50")));
+      assertEquals(
+          7,
+          hedging.getDelay(
+              params(ShardParams.SHARDS_HEDGE, "true", ShardParams.SHARDS_HEDGE_DELAY, "7")));
+    }
+  }
+
+  @Test
+  public void testBudget() {
+    try (ShardRequestHedging hedging = new ShardRequestHedging(0.25)) {
+      SolrParams params =
+          params(ShardParams.SHARDS_HEDGE, "true", ShardParams.SHARDS_HEDGE_DELAY, "0");
+      assertFalse(hedging.tryAcquire());
+
+      // one in four requests may be hedged
+      for (int i = 0; i < 4; i++) {
+        hedging.getDelay(params);
+      }
+      assertTrue(hedging.tryAcquire());
+      assertFalse(hedging.tryAcquire());
+
+      // and only a few at once after a quiet period
+      for (int i = 0; i < 1000; i++) {
+        hedging.getDelay(params);
+      }
+      int hedged = 0;
+      while (hedging.tryAcquire()) {
+        hedged++;
+      }
+      assertEquals(10, hedged);
+    }
+  }
+}
@@ -17,6 +17,7 @@
 package org.apache.solr.handler.loader;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +27,7 @@ import org.apache.solr.client.solrj.request.JavaBinUpdateRequestCodec;
 import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.util.ContentStreamBase;
+import org.apache.solr.common.util.StringBytes;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.update.AddUpdateCommand;
@@ -95,6 +97,115 @@ public class JavabinLoaderTest extends SolrTestCaseJ4 {
     assertTrue(mockUpdateProcessor.addCommands.get(batch.size() - 1).isLastDocInBatch);
   }
 
+  /** Loads a stream of single document requests, the way a leader forwards them to a replica. */
+  public void testStreamOfRequests() throws Exception {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    int numDocs = atLeast(3);
+    for (int d = 0; d < numDocs; d++) {
+      SolrInputDocument doc = new SolrInputDocument();
+      doc.setField("id", String.valueOf(d));
+      doc.setField("name", "name" + d);
+      if (d % 2 == 0) {
+        doc.setField("subject", "even");
+      }
+      UpdateRequest updateRequest = new UpdateRequest();
+      updateRequest.add(doc, 1000, true);
+      updateRequest.lastDocInBatch();
+      new JavaBinUpdateRequestCodec().marshal(updateRequest, os);
+    }
+
+    BufferingRequestProcessor mockUpdateProcessor =
+        new BufferingRequestProcessor(null) {
+          @Override
+          public void processAdd(AddUpdateCommand cmd) {
+            addCommands.add((AddUpdateCommand) cmd.clone());
+          }
+        };
+
+    SolrQueryRequest req = req();
+    new JavabinLoader()
+        .load(
+            req,
+            new SolrQueryResponse(),
+            new ContentStreamBase.ByteArrayStream(os.toByteArray(), "test"),
+            mockUpdateProcessor);
+    req.close();
+
+    List<AddUpdateCommand> adds = mockUpdateProcessor.addCommands;
+    assertEquals(numDocs, adds.size());
+    for (int d = 0; d < numDocs; d++) {
+      SolrInputDocument doc = adds.get(d).solrDoc;
+      assertEquals(String.valueOf(d), doc.getFieldValue("id"));
+      assertEquals("name" + d, doc.getFieldValue("name"));
+      assertEquals(d % 2 == 0 ? "even" : null, doc.getFieldValue("subject"));
+      assertEquals(1000, adds.get(d).commitWithin);
+      assertTrue(adds.get(d).isLastDocInBatch);
+      // the field names are only decoded once for the whole stream
+      assertSame(adds.get(0).solrDoc.getField("name").getName(), doc.getField("name").getName());
+    }
+  }
+
+  /** A stream with more distinct field names than are kept decoded still loads every field. */
+  public void testManyFieldNames() throws Exception {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    int numFields = JavabinLoader.EXTERN_STRING_CACHE_SIZE + 10;
+    for (int d = 0; d < 2; d++) {
+      SolrInputDocument doc = new SolrInputDocument();
+      doc.setField("id", String.valueOf(d));
+      for (int f = 0; f < numFields; f++) {
+        doc.setField("field" + f + "_s", d + "_" + f);
+      }
+      UpdateRequest updateRequest = new UpdateRequest();
+      updateRequest.add(doc);
+      new JavaBinUpdateRequestCodec().marshal(updateRequest, os);
+    }
+
+    BufferingRequestProcessor mockUpdateProcessor =
+        new BufferingRequestProcessor(null) {
+          @Override
+          public void processAdd(AddUpdateCommand cmd) {
+            addCommands.add((AddUpdateCommand) cmd.clone());
+          }
+        };
+
+    SolrQueryRequest req = req();
+    new JavabinLoader()
+        .load(
+            req,
+            new SolrQueryResponse(),
+            new ContentStreamBase.ByteArrayStream(os.toByteArray(), "test"),
+            mockUpdateProcessor);
+    req.close();
+
+    assertEquals(2, mockUpdateProcessor.addCommands.size());
+    for (int d = 0; d < 2; d++) {
+      SolrInputDocument doc = mockUpdateProcessor.addCommands.get(d).solrDoc;
+      assertEquals(numFields + 1, doc.size());
+      for (int f = 0; f < numFields; f++) {
+        assertEquals(d + "_" + f, doc.getFieldValue("field" + f + "_s"));
+      }
+    }
+  }
+
+  public void testExternStringLRUMap() {
+    JavabinLoader.ExternStringLRUMap map = new JavabinLoader.ExternStringLRUMap(2);
+    StringBytes a = stringBytes("a");
+    StringBytes b = stringBytes("b");
+    map.put(a, "a");
+    map.put(b, "b");
+    map.get(a);
+    map.put(stringBytes("c"), "c");
+    // bounded, dropping the least recently used
+    assertEquals(2, map.size());
+    assertEquals("a", map.get(a));
+    assertNull(map.get(b));
+  }
+
+  private static StringBytes stringBytes(String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    return new StringBytes(bytes, 0, bytes.length);
+  }
+
   @Test
   public void javabinLoader_denseVector_shouldIndexCorrectly() throws Exception {
     SolrInputDocument doc1 = new SolrInputDocument();
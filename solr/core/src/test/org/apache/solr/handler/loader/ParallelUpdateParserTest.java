@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.loader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
+import org.apache.solr.update.AddUpdateCommand;
+import org.apache.solr.update.processor.UpdateRequestProcessor;
+
+public class ParallelUpdateParserTest extends SolrTestCase {
+
+  /** When the shared executor has no thread to spare, the chunks are parsed on the caller. */
+  public void testParsesOnCallingThreadWhenExecutorIsBusy() throws Exception {
+    // like CoreContainer's update parser executor, without a queue
+    ExecutorService executor =
+        new ExecutorUtil.MDCAwareThreadPoolExecutor(
+            1,
+            1,
+            60L,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            new SolrNamedThreadFactory(getTestName()));
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      // take the only thread
+      executor.submit(() -> release.await(30, TimeUnit.SECONDS));
+      for (boolean ordered : new boolean[] {true, false}) {
+        List<String> ids = new ArrayList<>();
+        UpdateRequestProcessor collector =
+            new UpdateRequestProcessor(null) {
+              @Override
+              public void processAdd(AddUpdateCommand cmd) {
+                ids.add((String) cmd.solrDoc.getFieldValue("id"));
+              }
+            };
+        ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set(ParallelUpdateParser.PARSE_THREADS, 4);
+        params.set(ParallelUpdateParser.PARSE_ORDERED, ordered);
+        Set<Thread> parsers = ConcurrentHashMap.newKeySet();
+        List<String> expected = new ArrayList<>();
+        try (ParallelUpdateParser parallel =
+            new ParallelUpdateParser(params, executor, collector)) {
+          for (int i = 0; i < 10; i++) {
+            String id = Integer.toString(i);
+            expected.add(id);
+            parallel.submit(
+                () -> {
+                  parsers.add(Thread.currentThread());
+                  AddUpdateCommand cmd = new AddUpdateCommand(null);
+                  cmd.solrDoc = new SolrInputDocument("id", id);
+                  return List.of(cmd);
+                });
+          }
+          parallel.finish();
+        }
+        assertEquals(expected, ids);
+        assertEquals(Set.of(Thread.currentThread()), parsers);
+      }
+    } finally {
+      release.countDown();
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+  }
+}
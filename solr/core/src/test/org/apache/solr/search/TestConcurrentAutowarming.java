@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
+import org.apache.solr.common.util.TimeSource;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.util.RefCounted;
+import org.apache.solr.util.TimeOut;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Verify that caches are autowarmed when warming concurrently and registering early */
+public class TestConcurrentAutowarming extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("solr.autowarmThreads", "4");
+    System.setProperty("solr.autowarmRegisterFraction", "0.5");
+    initCore("solrconfig.xml", "schema_latest.xml");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("solr.autowarmThreads");
+    System.clearProperty("solr.autowarmRegisterFraction");
+  }
+
+  @Test
+  public void testWarmedAfterCommit() throws Exception {
+    assertEquals(4, h.getCore().getSolrConfig().autowarmThreads);
+    for (int i = 0; i < 20; i++) {
+      assertU(adoc("id", Integer.toString(i), "field_s", "d" + (i % 4)));
+    }
+    assertU(commit());
+    for (int i = 0; i < 4; i++) {
+      assertQ(req("q", "*:*", "fq", "field_s:d" + i), "//*[@numFound='5']");
+    }
+
+    assertU(adoc("id", "20", "field_s", "d0"));
+    assertU(commit());
+    // the new searcher is visible right away, and the hottest entries catch up in the background
+    assertQ(req("q", "*:*", "fq", "field_s:d0"), "//*[@numFound='6']");
+    TimeOut timeOut = new TimeOut(10, TimeUnit.SECONDS, TimeSource.NANO_TIME);
+    timeOut.waitFor(
+        "filterCache was not autowarmed",
+        () -> {
+          try {
+            return h.getCore().withSearcher(s -> s.getFilterCache().size()) >= 2;
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  @Test
+  public void testRejectedTasksDontHoldUpRegistration() throws Exception {
+    assertU(adoc("id", "100", "field_s", "r0"));
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", "field_s:r0"), "//*[@numFound='1']");
+
+    SolrCore core = h.getCore();
+    ExecutorService executor =
+        ExecutorUtil.newMDCAwareSingleThreadExecutor(new SolrNamedThreadFactory("testWarming"));
+    executor.shutdown();
+    RefCounted<SolrIndexSearcher> oldHolder = core.getSearcher();
+    try {
+      RefCounted<SolrIndexSearcher> holder = newSearcher(core, "testRejectedWarming");
+      SolrIndexSearcher searcher = holder.get();
+
+      // every task is rejected; this must return right away and not keep the searcher referenced
+      searcher.warm(oldHolder.get(), executor, 1.0, holder);
+      assertEquals(1, holder.getRefcount());
+      holder.decref();
+    } finally {
+      oldHolder.decref();
+    }
+  }
+
+  @Test
+  public void testQueuedTasksReleaseSearcherOnShutdown() throws Exception {
+    assertU(adoc("id", "200", "field_s", "q0"));
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", "field_s:q0"), "//*[@numFound='1']");
+
+    SolrCore core = h.getCore();
+    ExecutorService executor =
+        ExecutorUtil.newMDCAwareSingleThreadExecutor(new SolrNamedThreadFactory("testWarming"));
+    CountDownLatch blocked = new CountDownLatch(1);
+    executor.execute(
+        () -> {
+          try {
+            blocked.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    RefCounted<SolrIndexSearcher> oldHolder = core.getSearcher();
+    try {
+      RefCounted<SolrIndexSearcher> holder = newSearcher(core, "testQueuedWarming");
+      SolrIndexSearcher searcher = holder.get();
+
+      // registers right away, with every task still queued behind the blocked one
+      searcher.warm(oldHolder.get(), executor, 0.0, holder);
+      assertEquals(2, holder.getRefcount());
+
+      // like a core closing: the queued tasks are skipped, but still release the searcher
+      executor.shutdown();
+      blocked.countDown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+      assertEquals(1, holder.getRefcount());
+      assertEquals(0, searcher.getFilterCache().size());
+      holder.decref();
+    } finally {
+      oldHolder.decref();
+    }
+  }
+
+  private static RefCounted<SolrIndexSearcher> newSearcher(SolrCore core, String name)
+      throws IOException {
+    SolrIndexSearcher searcher =
+        new SolrIndexSearcher(
+            core,
+            core.getNewIndexDir(),
+            core.getLatestSchema(),
+            core.getSolrConfig().indexConfig,
+            name,
+            true,
+            core.getDirectoryFactory());
+    RefCounted<SolrIndexSearcher> holder =
+        new RefCounted<>(searcher) {
+          @Override
+          protected void close() {
+            try {
+              resource.close();
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          }
+        };
+    holder.incref();
+    return holder;
+  }
+}
@@ -107,6 +107,10 @@ public class TestDocSet extends SolrTestCase {
     return new BitDocSet(bs);
   }
 
+  public DocSet getRoaringDocSet(FixedBitSet bs) {
+    return RoaringDocSet.fromBits(bs, bs.length());
+  }
+
   public DocSlice getDocSlice(FixedBitSet bs) {
     int len = bs.cardinality();
     int[] arr = new int[len + 5];
@@ -128,7 +132,7 @@ public class TestDocSet extends SolrTestCase {
   }
 
   public DocSet getDocSet(FixedBitSet bs) {
-    switch (rand.nextInt(9)) {
+    switch (rand.nextInt(10)) {
       case 0:
       case 1:
       case 2:
@@ -145,6 +149,8 @@ public class TestDocSet extends SolrTestCase {
         return getIntDocSet(bs);
       case 8:
         return getIntDocSet(bs);
+      case 9:
+        return getRoaringDocSet(bs);
     }
     return null;
   }
@@ -224,6 +230,44 @@ public class TestDocSet extends SolrTestCase {
     // doMany(130, 1000000);
   }
 
+  public void testRoaringDocSets() {
+    // span several blocks, with both sparse (array) and dense (bitmap) blocks
+    for (int i = 0; i < 200; i++) {
+      int sz = rand.nextInt(4 << 16);
+      FixedBitSet bs1 = getRandomSet(sz, rand.nextInt(sz + 1) >> rand.nextInt(8));
+      FixedBitSet bs2 = getRandomSet(sz, rand.nextInt(sz + 1) >> rand.nextInt(8));
+      DocSet r1 = getRoaringDocSet(bs1);
+      DocSet r2 = rand.nextBoolean() ? getRoaringDocSet(bs2) : getDocSet(bs2);
+
+      checkEqual(bs1, r1);
+      iter(new BitDocSet(bs1), r1);
+      assertEquals(bs1, r1.getFixedBitSetClone());
+
+      FixedBitSet a_and = bs1.clone();
+      a_and.and(bs2);
+      FixedBitSet a_or = bs1.clone();
+      a_or.or(bs2);
+      FixedBitSet a_andn = bs1.clone();
+      a_andn.andNot(bs2);
+
+      iter(new BitDocSet(a_and), r1.intersection(r2));
+      iter(new BitDocSet(a_and), r2.intersection(r1));
+      iter(new BitDocSet(a_or), r1.union(r2));
+      iter(new BitDocSet(a_andn), r1.andNot(r2));
+
+      // a BitDocSet combined with a RoaringDocSet a block at a time
+      DocSet roaring2 = getRoaringDocSet(bs2);
+      iter(new BitDocSet(a_or), new BitDocSet(bs1.clone()).union(roaring2));
+      iter(new BitDocSet(a_andn), new BitDocSet(bs1.clone()).andNot(roaring2));
+
+      assertEquals(a_and.cardinality(), r1.intersectionSize(r2));
+      assertEquals(a_and.cardinality(), r2.intersectionSize(r1));
+      assertEquals(a_and.cardinality() > 0, r1.intersects(r2));
+      assertEquals(a_or.cardinality(), r1.unionSize(r2));
+      assertEquals(a_andn.cardinality(), r1.andNotSize(r2));
+    }
+  }
+
   public DocSet getRandomDocSet(int n, int maxDoc) {
     FixedBitSet obs = new FixedBitSet(maxDoc);
     int[] a = new int[n];
@@ -580,6 +624,7 @@ public class TestDocSet extends SolrTestCase {
     FixedBitSet bs = getRandomSet(reader.maxDoc(), rand.nextInt(reader.maxDoc() + 1));
     DocSet a = new BitDocSet(bs);
     DocSet b = getIntDocSet(bs);
+    DocSet c = getRoaringDocSet(bs);
 
     //    Query fa = a.makeQuery();
     //    Query fb = b.makeQuery();
@@ -599,7 +644,8 @@ public class TestDocSet extends SolrTestCase {
       doTestIteratorEqual(
           getExpectedBits(a, readerContext),
           () -> a.iterator(readerContext),
-          () -> b.iterator(readerContext));
+          () -> b.iterator(readerContext),
+          () -> c.iterator(readerContext));
     }
 
     int nReaders = leaves.size();
@@ -609,7 +655,8 @@ public class TestDocSet extends SolrTestCase {
       doTestIteratorEqual(
           getExpectedBits(a, readerContext),
           () -> a.iterator(readerContext),
-          () -> b.iterator(readerContext));
+          () -> b.iterator(readerContext),
+          () -> c.iterator(readerContext));
     }
   }
 
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.List;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.util.RefCounted;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Verify that combinations of cached filters are intersected once per searcher */
+public class TestFilterIntersectionCache extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("solr.filterIntersectionCache.enabled", "true");
+    initCore("solrconfig.xml", "schema_latest.xml");
+    for (int i = 0; i < 20; i++) {
+      assertU(adoc("id", Integer.toString(i), "field_s", "d" + (i % 4), "cat_s", "c" + (i % 3)));
+    }
+    assertU(commit());
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("solr.filterIntersectionCache.enabled");
+  }
+
+  @Test
+  public void testIntersectionIsCached() throws Exception {
+    // 0, 12 match both; 4, 8 and 16 match the first but not the second
+    assertQ(req("q", "*:*", "fq", "field_s:d0", "fq", "cat_s:c0"), "//*[@numFound='2']");
+    assertQ(req("q", "*:*", "fq", "field_s:d0", "fq", "-cat_s:c0"), "//*[@numFound='3']");
+
+    RefCounted<SolrIndexSearcher> ref = h.getCore().getSearcher();
+    try {
+      SolrIndexSearcher searcher = ref.get();
+      SolrCache<FilterIntersectionKey, DocSet> cache = searcher.getFilterIntersectionCache();
+      assertNotNull(cache);
+      assertEquals(2, cache.size());
+
+      // the order of the filters doesn't matter
+      List<Query> filters =
+          List.of(
+              new TermQuery(new Term("cat_s", "c0")), new TermQuery(new Term("field_s", "d0")));
+      DocSet cached = cache.get(new FilterIntersectionKey(filters));
+      assertNotNull(cached);
+      assertEquals(2, cached.size());
+      assertSame(cached, searcher.getProcessedFilter(filters).answer);
+    } finally {
+      ref.decref();
+    }
+
+    // a single filter only uses the filterCache
+    assertQ(req("q", "*:*", "fq", "field_s:d1"), "//*[@numFound='5']");
+    assertEquals(
+        2, h.getCore().withSearcher(s -> s.getFilterIntersectionCache().size()).intValue());
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.List;
+import org.apache.lucene.search.Query;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.request.SolrQueryRequest;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Tests post filters collected per leaf slice with {@code multiThreaded=true} */
+public class TestMultiThreadedPostFilter extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig.xml", "schema.xml");
+    // several commits so that the index has several segments to spread across slices
+    for (int i = 0; i < 100; i++) {
+      assertU(
+          adoc(
+              "id",
+              Integer.toString(i),
+              "foo_i_dv",
+              Integer.toString(i % 10),
+              "foo_s",
+              "s" + (i % 10),
+              "bar_i_dv",
+              Integer.toString(i)));
+      if (i % 20 == 19) {
+        assertU(commit());
+      }
+    }
+    // docs in the null group
+    assertU(adoc("id", "n1", "bar_i_dv", "200"));
+    assertU(adoc("id", "n2", "bar_i_dv", "100"));
+    assertU(commit());
+  }
+
+  @Test
+  public void testFunctionRangePostFilter() throws Exception {
+    for (String multiThreaded : new String[] {"false", "true"}) {
+      assertJQ(
+          req(
+              "q",
+              "*:*",
+              "fq",
+              "{!frange l=3 u=4 cache=false cost=200}foo_i_dv",
+              "sort",
+              "id asc",
+              "rows",
+              "3",
+              "fl",
+              "id",
+              "multiThreaded",
+              multiThreaded),
+          "/response/numFound==20",
+          "/response/docs==[{'id':'13'},{'id':'14'},{'id':'23'}]");
+
+      // getDocListAndSetNC, needed for faceting
+      assertJQ(
+          req(
+              "q",
+              "*:*",
+              "fq",
+              "{!frange l=3 u=4 cache=false cost=200}foo_i_dv",
+              "fq",
+              "{!frange l=4 u=5 cache=false cost=300}foo_i_dv",
+              "sort",
+              "id asc",
+              "rows",
+              "2",
+              "fl",
+              "id",
+              "facet",
+              "true",
+              "facet.field",
+              "foo_i_dv",
+              "facet.mincount",
+              "1",
+              "multiThreaded",
+              multiThreaded),
+          "/response/numFound==10",
+          "/response/docs==[{'id':'14'},{'id':'24'}]",
+          "/facet_counts/facet_fields/foo_i_dv==['4',10]");
+    }
+  }
+
+  @Test
+  public void testNoRowsPostFilter() throws Exception {
+    // a search for no docs is never multi-threaded, so it needs the single-threaded chain
+    assertJQ(
+        req(
+            "q",
+            "*:*",
+            "fq",
+            "{!frange l=3 u=4 cache=false cost=200}foo_i_dv",
+            "rows",
+            "0",
+            "multiThreaded",
+            "true"),
+        "/response/numFound==20");
+  }
+
+  @Test
+  public void testProcessedFilterBuildsOnlyOnePath() throws Exception {
+    try (SolrQueryRequest req = req()) {
+      List<Query> filters =
+          List.of(
+              QParser.getParser("{!frange l=3 u=4 cache=false cost=200}foo_i_dv", req).getQuery());
+      SolrIndexSearcher searcher = req.getSearcher();
+
+      SolrIndexSearcher.ProcessedFilter pf = searcher.getProcessedFilter(filters);
+      assertNotNull(pf.postFilter);
+      assertNull(pf.postFilterManagers);
+
+      pf = searcher.getProcessedFilter(filters, true);
+      assertNull(pf.postFilter);
+      assertEquals(1, pf.postFilterManagers.size());
+    }
+  }
+
+  @Test
+  public void testProcessedFilterCollapseIsLazy() throws Exception {
+    try (SolrQueryRequest req = req()) {
+      List<Query> filters = List.of(QParser.getParser("{!collapse field=foo_s}", req).getQuery());
+      SolrIndexSearcher searcher = req.getSearcher();
+
+      // a multi-threaded search builds no single collector with its maxDoc-sized structures
+      SolrIndexSearcher.ProcessedFilter pf = searcher.getProcessedFilter(filters, true);
+      assertNull(pf.postFilter);
+      assertEquals(1, pf.postFilterManagers.size());
+
+      pf = searcher.getProcessedFilter(filters);
+      assertNotNull(pf.postFilter);
+      assertNull(pf.postFilterManagers);
+    }
+  }
+
+  @Test
+  public void testCollapsePostFilter() throws Exception {
+    for (String field : new String[] {"foo_i_dv", "foo_s"}) {
+      for (String multiThreaded : new String[] {"false", "true"}) {
+        // the highest bar_i_dv of each group is its head: 90..99
+        assertJQ(
+            req(
+                "q",
+                "{!func}bar_i_dv",
+                "fq",
+                "{!collapse field=" + field + "}",
+                "sort",
+                "id asc",
+                "rows",
+                "3",
+                "fl",
+                "id,score",
+                "multiThreaded",
+                multiThreaded),
+            "/response/numFound==10",
+            "/response/docs==[{'id':'90','score':90.0},{'id':'91','score':91.0},"
+                + "{'id':'92','score':92.0}]");
+
+        assertJQ(
+            req(
+                "q",
+                "{!func}bar_i_dv",
+                "fq",
+                "{!collapse field=" + field + " nullPolicy=collapse}",
+                "fq",
+                "{!frange l=95 cache=false cost=200}bar_i_dv",
+                "sort",
+                "score desc",
+                "rows",
+                "2",
+                "fl",
+                "id",
+                "multiThreaded",
+                multiThreaded),
+            "/response/numFound==6",
+            "/response/docs==[{'id':'n1'},{'id':'99'}]");
+
+        assertJQ(
+            req(
+                "q",
+                "{!func}bar_i_dv",
+                "fq",
+                "{!collapse field=" + field + " nullPolicy=expand}",
+                "sort",
+                "score asc",
+                "rows",
+                "1",
+                "fl",
+                "id",
+                "facet",
+                "true",
+                "facet.query",
+                "id:n*",
+                "multiThreaded",
+                multiThreaded),
+            "/response/numFound==12",
+            "/response/docs==[{'id':'90'}]",
+            "/facet_counts/facet_queries/id:n*==2");
+      }
+    }
+  }
+
+  @Test
+  public void testSingleThreadedPostFilter() throws Exception {
+    // collapsing with a sort selector doesn't offer a PostFilterCollectorManager
+    assertJQ(
+        req(
+            "q",
+            "*:*",
+            "fq",
+            "{!collapse field=foo_i_dv sort='bar_i_dv desc'}",
+            "sort",
+            "id asc",
+            "rows",
+            "1",
+            "fl",
+            "id",
+            "multiThreaded",
+            "true"),
+        "/response/numFound==10",
+        "/response/docs==[{'id':'90'}]");
+  }
+}
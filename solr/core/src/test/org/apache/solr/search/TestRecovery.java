@@ -1697,6 +1697,108 @@ public class TestRecovery extends SolrTestCaseJ4 {
     }
   }
 
+  //
+  // test that a partially written last record of an old tlog, which the replay reads ahead of
+  // applying it, doesn't stop the replay of the records before it
+  //
+  @Test
+  public void testTruncatedLastRecordWithReadAhead() throws Exception {
+    try {
+      TestInjection.skipIndexWriterCommitOnClose = true;
+      final Semaphore logReplayFinish = new Semaphore(0);
+      UpdateLog.testing_logReplayFinishHook = logReplayFinish::release;
+
+      UpdateLog ulog = h.getCore().getUpdateHandler().getUpdateLog();
+      Path logDir = Path.of(ulog.getTlogDir());
+
+      clearIndex();
+      assertU(commit());
+
+      // more records than are decoded ahead of the replay
+      int numDocs = 1500;
+      for (int i = 0; i < numDocs; i++) {
+        assertU(adoc("id", "T" + i));
+      }
+
+      h.close();
+      String[] files = ulog.getLogList(logDir);
+      Arrays.sort(files);
+      try (RandomAccessFile raf =
+          new RandomAccessFile(logDir.resolve(files[files.length - 1]).toFile(), "rw")) {
+        // cut off the end of the last record, including its size
+        raf.setLength(raf.length() - 8);
+      }
+
+      ignoreException("EOFException");
+      createCore();
+      assertTrue(logReplayFinish.tryAcquire(timeout, TimeUnit.SECONDS));
+      resetExceptionIgnores();
+      assertJQ(req("q", "*:*"), "/response/numFound==" + (numDocs - 1));
+      assertJQ(req("q", "id:T" + (numDocs - 1)), "/response/numFound==0");
+    } finally {
+      UpdateLog.testing_logReplayFinishHook = null;
+    }
+  }
+
+  //
+  // test that replaying an old tlog through the parallel replay executor, with more DBQs than the
+  // replay drains the updates in flight for, and with in-place updates, leaves the same index as
+  // applying the updates one after the other
+  //
+  @Test
+  public void testLogReplayWithManyDBQs() throws Exception {
+    try {
+      TestInjection.skipIndexWriterCommitOnClose = true;
+      final Semaphore logReplayFinish = new Semaphore(0);
+      UpdateLog.testing_logReplayFinishHook = logReplayFinish::release;
+
+      clearIndex();
+      assertU(commit());
+
+      // the serial result
+      Map<Integer, Integer> docIdToVal = new HashMap<>();
+      // replay drains after numDeletesByQueryToKeep / 2 = 50 DBQs; in-place updates only start
+      // after the first 80 so that some DBQs are replayed without draining
+      int numDBQs = 0;
+      while (numDBQs < 150) {
+        int kindOfUpdate = random().nextInt(100);
+        if (docIdToVal.size() < 10) kindOfUpdate = 0;
+        if (kindOfUpdate < 50) {
+          int docId = random().nextInt(300);
+          int val = random().nextInt(100);
+          addAndGetVersion(sdoc("id", String.valueOf(docId), "val_i_dvo", val), null);
+          docIdToVal.put(docId, val);
+        } else if (kindOfUpdate < 75 && numDBQs >= 80) {
+          ArrayList<Integer> ids = new ArrayList<>(docIdToVal.keySet());
+          int docId = ids.get(random().nextInt(ids.size()));
+          int delta = random().nextInt(10);
+          addAndGetVersion(sdoc("id", String.valueOf(docId), "val_i_dvo", map("inc", delta)), null);
+          docIdToVal.put(docId, docIdToVal.get(docId) + delta);
+        } else {
+          ArrayList<Integer> vals = new ArrayList<>(docIdToVal.values());
+          int val = vals.get(random().nextInt(vals.size()));
+          deleteByQueryAndGetVersion("val_i_dvo:" + val, null);
+          docIdToVal.values().removeIf(v -> v == val);
+          numDBQs++;
+        }
+      }
+
+      h.close();
+      createCore();
+      assertTrue(logReplayFinish.tryAcquire(timeout, TimeUnit.SECONDS));
+
+      assertJQ(req("q", "*:*"), "/response/numFound==" + docIdToVal.size());
+      for (Map.Entry<Integer, Integer> entry : docIdToVal.entrySet()) {
+        assertJQ(
+            req("q", "id:" + entry.getKey(), "fl", "val_i_dvo"),
+            "/response/numFound==1",
+            "/response/docs==[{'val_i_dvo':" + entry.getValue() + "}]");
+      }
+    } finally {
+      UpdateLog.testing_logReplayFinishHook = null;
+    }
+  }
+
   //
   // test that a corrupt tlog doesn't stop us from coming up
   //
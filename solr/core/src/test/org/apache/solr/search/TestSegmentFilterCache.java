@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.index.NoMergePolicyFactory;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Verify that filterCache entries reuse per-segment matches across commits */
+public class TestSegmentFilterCache extends SolrTestCaseJ4 {
+
+  private static final String FQ = "field_s:(d1 d2 d3 d12 d13 d21)";
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("solr.segmentFilterCache.maxSize", "100");
+    // keep the existing segments around across commits
+    systemSetPropertySolrTestsMergePolicyFactory(NoMergePolicyFactory.class.getName());
+    initCore("solrconfig.xml", "schema_latest.xml");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("solr.segmentFilterCache.maxSize");
+    systemClearPropertySolrTestsMergePolicyFactory();
+  }
+
+  @Test
+  public void testReuseAcrossCommits() throws Exception {
+    SegmentFilterCache cache = h.getCore().getSegmentFilterCache();
+    assertNotNull(cache);
+
+    for (int i = 0; i < 20; i++) {
+      assertU(adoc("id", Integer.toString(i), "field_s", "d" + i));
+      if (i == 9) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    assertQ(req("q", "*:*", "fq", FQ), "//*[@numFound='5']");
+    long misses = cache.getMissCount();
+    assertTrue(misses > 0);
+    long hits = cache.getHitCount();
+
+    // a new segment; the autowarmed (or recomputed) entry reuses the two existing segments
+    assertU(adoc("id", "21", "field_s", "d21"));
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", FQ), "//*[@numFound='6']");
+    assertTrue(cache.getHitCount() >= hits + 2);
+
+    // deletions are applied on top of the cached segment matches
+    assertU(delI("2"));
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", FQ), "//*[@numFound='5']");
+  }
+
+  @Test
+  public void testTopLevelDocFreqFilterNotCached() throws Exception {
+    final String fq = "{!graphTerms f=field_s maxDocFreq=1}gterm";
+    assertU(adoc("id", "g1", "field_s", "gterm"));
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", fq), "//*[@numFound='1']");
+
+    // the term now exceeds maxDocFreq, so it mustn't match in the old segment either
+    assertU(adoc("id", "g2", "field_s", "gterm"));
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", fq), "//*[@numFound='0']");
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.solr.SolrTestCase;
+import org.junit.Test;
+
+/** Test for {@link SharedCaffeineCache}. */
+public class TestSharedCaffeineCache extends SolrTestCase {
+
+  private static SharedCaffeineCache<Integer, String> newCache(
+      SharedCaffeineCache.Store store, String autowarmCount) {
+    SharedCaffeineCache<Integer, String> cache = new SharedCaffeineCache<>();
+    Map<String, String> params = new HashMap<>();
+    params.put("size", "10");
+    params.put("autowarmCount", autowarmCount);
+    cache.init(params, null, new NoOpRegenerator());
+    if (store != null) {
+      cache.setStore(store);
+    }
+    cache.setState(SolrCache.State.LIVE);
+    return cache;
+  }
+
+  @Test
+  public void testEntriesAreScopedToTheirCache() throws IOException {
+    SharedCaffeineCache.Store store = SharedCaffeineCache.Store.ofRamBytes(1024 * 1024);
+    SharedCaffeineCache<Integer, String> first = newCache(store, "0");
+    SharedCaffeineCache<Integer, String> second = newCache(store, "0");
+
+    first.put(1, "first");
+    assertNull(second.get(1));
+    assertEquals("second", second.computeIfAbsent(1, k -> "second"));
+    assertEquals("first", first.get(1));
+    assertEquals(2, store.size());
+    assertTrue(first.ramBytesUsed() > 0);
+
+    // clearing one cache leaves the other's entries in the store
+    first.clear();
+    assertNull(first.get(1));
+    assertEquals(0, first.size());
+    assertEquals("second", second.get(1));
+    assertEquals(1, store.size());
+
+    second.close();
+    assertEquals(0, store.size());
+    first.close();
+  }
+
+  @Test
+  public void testBudgetIsSharedAcrossCaches() throws IOException {
+    long budget = 64 * 1024;
+    SharedCaffeineCache.Store store = SharedCaffeineCache.Store.ofRamBytes(budget);
+    SharedCaffeineCache<Integer, String> busy = newCache(store, "0");
+    SharedCaffeineCache<Integer, String> idle = newCache(store, "0");
+
+    String value = "x".repeat(1024);
+    for (int i = 0; i < 20; i++) {
+      idle.put(i, value);
+    }
+    // the per cache size is ignored in favour of the node budget
+    assertEquals(20, idle.size());
+
+    for (int i = 0; i < 200; i++) {
+      busy.put(i, value);
+      busy.get(i);
+    }
+    store.cleanUp();
+    assertTrue(store.ramBytesUsed() <= budget);
+    assertTrue(store.evictionCount() > 0);
+    assertEquals(store.size(), busy.size() + idle.size());
+
+    busy.close();
+    idle.close();
+  }
+
+  @Test
+  public void testWarm() throws IOException {
+    SharedCaffeineCache.Store store = SharedCaffeineCache.Store.ofRamBytes(1024 * 1024);
+    SharedCaffeineCache<Integer, String> old = newCache(store, "100%");
+    SharedCaffeineCache<Integer, String> other = newCache(store, "0");
+    for (int i = 0; i < 5; i++) {
+      old.put(i, Integer.toString(i));
+      other.put(i + 100, "other");
+    }
+
+    SharedCaffeineCache<Integer, String> warmed = newCache(store, "100%");
+    warmed.warm(null, old);
+    old.close();
+    assertEquals(5, warmed.size());
+    for (int i = 0; i < 5; i++) {
+      assertEquals(Integer.toString(i), warmed.get(i));
+    }
+    assertNull(warmed.get(100));
+
+    warmed.close();
+    other.close();
+  }
+
+  @Test
+  public void testWarmMostRecentlyUsed() throws IOException {
+    SharedCaffeineCache.Store store = SharedCaffeineCache.Store.ofRamBytes(1024 * 1024);
+    SharedCaffeineCache<Integer, String> old = newCache(store, "2");
+    SharedCaffeineCache<Integer, String> other = newCache(store, "0");
+    for (int i = 0; i < 5; i++) {
+      old.put(i, Integer.toString(i));
+    }
+    old.get(3);
+    old.get(1);
+    // later uses of another cache's entries don't make them warm candidates
+    for (int i = 0; i < 5; i++) {
+      other.put(i, "other");
+      other.get(i);
+    }
+
+    SharedCaffeineCache<Integer, String> warmed = newCache(store, "2");
+    warmed.warm(null, old);
+    old.close();
+    assertEquals(2, warmed.size());
+    assertEquals("1", warmed.get(1));
+    assertEquals("3", warmed.get(3));
+
+    warmed.close();
+    other.close();
+  }
+
+  @Test
+  public void testPrivateStore() throws IOException {
+    SharedCaffeineCache<Integer, String> cache = newCache(null, "0");
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, Integer.toString(i));
+    }
+    assertTrue(cache.size() <= 10);
+    cache.close();
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import java.util.List;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.index.NoMergePolicyFactory;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Tests terms facets that count leaf slices concurrently */
+public class TestJsonFacetsMultiThreaded extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeTests() throws Exception {
+    // keep the segments apart, or there may be a single leaf slice to collect
+    systemSetPropertySolrTestsMergePolicyFactory(NoMergePolicyFactory.class.getName());
+    initCore("solrconfig-tlog.xml", "schema_latest.xml");
+    // many small segments, so that the searcher has several leaf slices
+    for (int i = 0; i < 200; i++) {
+      assertU(
+          adoc(
+              "id",
+              Integer.toString(i),
+              "cat_sd",
+              "c" + (i % 4),
+              "tags_sds",
+              "t" + (i % 2),
+              "tags_sds",
+              "t" + (i % 5),
+              "tags_ss",
+              "t" + (i % 3),
+              "tags_ss",
+              "t" + (i % 7),
+              "num_id",
+              Integer.toString(i % 3)));
+      if (i % 10 == 9) {
+        assertU(commit());
+      }
+    }
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              assertTrue(searcher.getSlices().length > 1);
+              return null;
+            });
+  }
+
+  @Test
+  public void testSlicesCollectedConcurrently() throws Exception {
+    for (String method : new String[] {"dv", "dvhash"}) {
+      for (String multiThreaded : new String[] {"false", "true"}) {
+        NamedList<Object> debug =
+            getFacetDebug(
+                "multiThreaded",
+                multiThreaded,
+                "json.facet",
+                "{cat:{type:terms, field:cat_sd, method:" + method + "}}");
+        Object slices = debug.get(FacetFieldProcessor.CONCURRENT_SLICES_DEBUG_KEY);
+        if (Boolean.parseBoolean(multiThreaded)) {
+          assertNotNull(method + " didn't count slices concurrently: " + debug, slices);
+          assertTrue(debug.toString(), (Integer) slices > 1);
+        } else {
+          assertNull(debug.toString(), slices);
+        }
+      }
+    }
+
+    NamedList<Object> debug =
+        getFacetDebug("json.facet", "{tags:{type:terms, field:tags_sds, multiThreaded:true}}");
+    assertNotNull(debug.toString(), debug.get(FacetFieldProcessor.CONCURRENT_SLICES_DEBUG_KEY));
+  }
+
+  /** Returns the facet-trace of the first facet of a debug request */
+  private static NamedList<Object> getFacetDebug(String... facetParams) throws Exception {
+    try (SolrQueryRequest req =
+        req(params("q", "*:*", "rows", "0", "debugQuery", "true"), facetParams)) {
+      SolrQueryResponse rsp = h.queryAndResponse("", req);
+      @SuppressWarnings("unchecked")
+      List<NamedList<Object>> facetDebug =
+          (List<NamedList<Object>>)
+              rsp.getValues()._get(List.of("debug", "facet-trace", "sub-facet"), null);
+      assertNotNull(rsp.getValues().toString(), facetDebug);
+      return facetDebug.get(0);
+    }
+  }
+
+  @Test
+  public void testTermsFacets() throws Exception {
+    for (String method : new String[] {"dv", "dvhash"}) {
+      for (String multiThreaded : new String[] {"false", "true"}) {
+        assertJQ(
+            req(
+                "q",
+                "*:*",
+                "rows",
+                "0",
+                "multiThreaded",
+                multiThreaded,
+                "json.facet",
+                "{cat:{type:terms, field:cat_sd, method:"
+                    + method
+                    + ", limit:2}, num:{type:terms, field:num_id, method:"
+                    + method
+                    + "}}"),
+            "facets=={count:200,"
+                + " cat:{buckets:[{val:c0,count:50},{val:c1,count:50}]},"
+                + " num:{buckets:[{val:0,count:67},{val:1,count:67},{val:2,count:66}]}}");
+      }
+    }
+
+    // multi-valued, with the option set on the facet rather than the request
+    for (String multiThreaded : new String[] {"false", "true"}) {
+      assertJQ(
+          req(
+              "q",
+              "*:*",
+              "rows",
+              "0",
+              "json.facet",
+              "{tags:{type:terms, field:tags_sds, limit:3, multiThreaded:" + multiThreaded + "}}"),
+          "facets=={count:200,"
+              + " tags:{buckets:[{val:t0,count:120},{val:t1,count:120},{val:t2,count:40}]}}");
+    }
+  }
+
+  @Test
+  public void testSubFacets() throws Exception {
+    for (String multiThreaded : new String[] {"false", "true"}) {
+      assertJQ(
+          req(
+              "q",
+              "*:*",
+              "rows",
+              "0",
+              "multiThreaded",
+              multiThreaded,
+              "json.facet",
+              "{cat:{type:terms, field:cat_sd, limit:2,"
+                  + " facet:{num:{type:terms, field:num_id}, avg:'avg(num_id)'}}}"),
+          "facets=={count:200, cat:{buckets:["
+              + "{val:c0,count:50,avg:0.98,"
+              + " num:{buckets:[{val:0,count:17},{val:1,count:17},{val:2,count:16}]}},"
+              + "{val:c1,count:50,avg:1.02,"
+              + " num:{buckets:[{val:1,count:17},{val:2,count:17},{val:0,count:16}]}}]}}");
+    }
+  }
+
+  /**
+   * Nested sub-facets whose stats register close hooks or put into the request's QueryContext
+   * (uif, unique on a multi-valued field, stream, function queries) must give the same answer
+   * whether or not the parent facet counts concurrently.
+   */
+  @Test
+  public void testNestedSubFacetsWithSharedContext() throws Exception {
+    final String facet =
+        "{cat:{type:terms, field:cat_sd, method:dv, facet:{"
+            + "  uniq:'unique(tags_ss)', fsum:'sum(div(num_id,2))',"
+            + "  tags:{type:terms, field:tags_ss, method:uif, limit:3, facet:{"
+            + "    uniq:'unique(tags_ss)', avg:'avg(field(num_id))',"
+            + "    stream:{type:terms, field:tags_ss, method:stream, limit:2,"
+            + "      facet:{fsum:'sum(div(num_id,2))'}}}},"
+            + "  hash:{type:terms, field:num_id, method:dvhash, facet:{uniq:'unique(tags_ss)'}}}}}";
+    String expected = null;
+    for (String multiThreaded : new String[] {"false", "true"}) {
+      String response =
+          h.query(
+              req(
+                  "q",
+                  "*:*",
+                  "rows",
+                  "0",
+                  "omitHeader",
+                  "true",
+                  "wt",
+                  "json",
+                  "multiThreaded",
+                  multiThreaded,
+                  "json.facet",
+                  facet));
+      if (expected == null) {
+        expected = response;
+      } else {
+        assertEquals(expected, response);
+      }
+    }
+    assertJQ(
+        req("q", "*:*", "rows", "0", "multiThreaded", "true", "json.facet", facet),
+        "/facets/count==200",
+        "/facets/cat/buckets/[0]/val=='c0'",
+        "/facets/cat/buckets/[0]/uniq==7");
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Tests faceting on multi-valued fields without docValues over per-segment uninverted ordinals */
+public class TestJsonFacetsPerSegmentUninvert extends SolrTestCaseJ4 {
+  private static boolean origUninvertPerSegment;
+
+  @BeforeClass
+  public static void beforeTests() throws Exception {
+    origUninvertPerSegment = FacetField.UNINVERT_PER_SEGMENT;
+    FacetField.UNINVERT_PER_SEGMENT = true;
+    // schema15 is pre-1.7, so *_ss is uninvertible and has no docValues
+    initCore("solrconfig.xml", "schema15.xml");
+    for (int i = 0; i < 40; i++) {
+      assertU(adoc("id", Integer.toString(i), "tags_ss", "t" + (i % 2), "tags_ss", "t" + (i % 5)));
+      if (i % 10 == 9) {
+        assertU(commit());
+      }
+    }
+  }
+
+  @AfterClass
+  public static void afterTests() {
+    FacetField.UNINVERT_PER_SEGMENT = origUninvertPerSegment;
+  }
+
+  @Test
+  public void testTermsFacet() throws Exception {
+    assertJQ(
+        req(
+            "q",
+            "*:*",
+            "rows",
+            "0",
+            "debugQuery",
+            "true",
+            "json.facet",
+            "{tags:{type:terms, field:tags_ss, limit:3}}"),
+        "facets=={count:40, tags:{buckets:[{val:t0,count:24},{val:t1,count:24},{val:t2,count:8}]}}",
+        "debug/facet-trace/sub-facet/[0]/processor=='FacetFieldProcessorByArrayDV'");
+
+    // an explicit method:uif still uses the top-level UnInvertedField
+    assertJQ(
+        req(
+            "q",
+            "*:*",
+            "rows",
+            "0",
+            "debugQuery",
+            "true",
+            "json.facet",
+            "{tags:{type:terms, field:tags_ss, limit:3, method:uif}}"),
+        "facets=={count:40, tags:{buckets:[{val:t0,count:24},{val:t1,count:24},{val:t2,count:8}]}}",
+        "debug/facet-trace/sub-facet/[0]/processor=='FacetFieldProcessorByArrayUIF'");
+  }
+
+  @Test
+  public void testNewSegment() throws Exception {
+    assertU(adoc("id", "new", "tags_ss", "t9"));
+    assertU(commit());
+    assertJQ(
+        req(
+            "q",
+            "*:*",
+            "rows",
+            "0",
+            "json.facet",
+            "{tags:{type:terms, field:tags_ss, prefix:t9}}"),
+        "facets=={count:41, tags:{buckets:[{val:t9,count:1}]}}");
+    assertU(delI("new"));
+    assertU(commit());
+  }
+}
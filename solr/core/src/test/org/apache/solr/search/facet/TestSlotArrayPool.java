@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import java.util.Map;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.util.Utils;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.search.DocSet;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+public class TestSlotArrayPool extends SolrTestCaseJ4 {
+  private static final int MIN_LENGTH = 1 << 16;
+
+  @BeforeClass
+  public static void beforeTests() throws Exception {
+    System.setProperty("solr.facet.slotArrayPool.minLength", "1");
+    System.setProperty("solr.facet.slotArrayPool.maxBytes", Long.toString(1 << 20));
+    initCore("solrconfig-tlog.xml", "schema_latest.xml");
+    for (int i = 0; i < 20; i++) {
+      assertU(
+          adoc(
+              "id",
+              Integer.toString(i),
+              "cat_sd",
+              "c" + (i % 2),
+              "one_sd",
+              "x",
+              "tag_sd",
+              "t" + (i % 5)));
+    }
+    assertU(commit());
+  }
+
+  @AfterClass
+  public static void afterTests() {
+    System.clearProperty("solr.facet.slotArrayPool.minLength");
+    System.clearProperty("solr.facet.slotArrayPool.maxBytes");
+  }
+
+  public void testReusesArraysOfSameTypeAndLength() {
+    SlotArrayPool pool = new SlotArrayPool(MIN_LENGTH, Long.MAX_VALUE);
+    int length = MIN_LENGTH;
+
+    long[] counts = pool.takeLongs(length);
+    counts[0] = 42;
+    pool.release(counts);
+
+    // a different type or length doesn't match the pooled array
+    assertNotSame(counts, pool.takeLongs(length + 1));
+    double[] sums = pool.takeDoubles(length);
+    assertEquals(length, sums.length);
+
+    long[] reused = pool.takeLongs(length);
+    assertSame(counts, reused);
+    assertEquals("pooled arrays must be zeroed", 0, reused[0]);
+
+    // each pooled array is only handed out once
+    assertNotSame(reused, pool.takeLongs(length));
+  }
+
+  public void testSmallArraysAreNotPooled() {
+    SlotArrayPool pool = new SlotArrayPool(MIN_LENGTH, Long.MAX_VALUE);
+    int[] small = pool.takeInts(MIN_LENGTH - 1);
+    pool.release(small);
+    assertNotSame(small, pool.takeInts(MIN_LENGTH - 1));
+  }
+
+  public void testDisabledByDefault() {
+    SlotArrayPool pool = new SlotArrayPool(MIN_LENGTH, 0);
+    int[] ords = pool.takeInts(MIN_LENGTH);
+    pool.release(ords);
+    assertEquals(0, pool.size());
+  }
+
+  public void testClear() {
+    SlotArrayPool pool = new SlotArrayPool(MIN_LENGTH, Long.MAX_VALUE);
+    int[] ords = pool.takeInts(MIN_LENGTH);
+    pool.release(ords);
+    pool.clear();
+    assertNotSame(ords, pool.takeInts(MIN_LENGTH));
+  }
+
+  /**
+   * The arrays of a sub-facet go back to the pool when its processor finishes, so the next bucket
+   * of the parent facet reuses them and nothing waits for the request to be closed.
+   */
+  public void testSubFacetArraysReleasedBeforeRequestEnds() throws Exception {
+    try (SolrQueryRequest req = req()) {
+      SolrIndexSearcher searcher = req.getSearcher();
+      SlotArrayPool pool = searcher.getSlotArrayPool();
+      DocSet all = searcher.getDocSet(new MatchAllDocsQuery());
+
+      // one parent bucket, so the sub-facet runs once
+      pool.clear();
+      processFacet(req, all, "one_sd");
+      final int oneBucket = pool.size();
+      assertTrue("arrays should be back in the pool before the request is closed", oneBucket > 0);
+
+      // two parent buckets: the second run of the sub-facet reuses the arrays of the first
+      pool.clear();
+      processFacet(req, all, "cat_sd");
+      assertEquals(oneBucket, pool.size());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void processFacet(SolrQueryRequest req, DocSet domain, String parentField)
+      throws Exception {
+    Map<String, Object> json =
+        (Map<String, Object>)
+            Utils.fromJSONString(
+                "{'parent':{'type':'terms', 'field':'"
+                    + parentField
+                    + "', 'method':'dv',"
+                    + " 'facet':{'tags':{'type':'terms', 'field':'tag_sd', 'method':'dv'}}}}");
+    FacetRequest.parse(req, json).process(req, domain);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AdaptiveAutoCommitTest extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig.xml", "schema.xml");
+  }
+
+  @Test
+  public void testTimeTriggeredDelay() {
+    CommitTracker tracker =
+        ((DirectUpdateHandler2) h.getCore().getUpdateHandler()).getSoftCommitTracker();
+    tracker.setTimeUpperBound(100);
+    tracker.setMaxStaleTime(-1);
+    assertFalse(tracker.isAdaptive());
+
+    tracker.setMaxStaleTime(1000);
+    assertTrue(tracker.isAdaptive());
+
+    // fast commits keep maxTime, give or take some jitter
+    tracker.setLastCommitTime(10);
+    long delay = tracker.getTimeTriggeredDelay();
+    assertTrue("delay: " + delay, delay >= 100 && delay <= 110);
+    assertEquals(delay, tracker.getLastTimeTriggeredDelay());
+
+    // slow commits stretch it
+    tracker.setLastCommitTime(300);
+    delay = tracker.getTimeTriggeredDelay();
+    assertTrue("delay: " + delay, delay >= 600 && delay <= 610);
+
+    // but never beyond maxStaleTime
+    tracker.setLastCommitTime(5000);
+    assertEquals(1000, tracker.getTimeTriggeredDelay());
+
+    tracker.setTimeUpperBound(-1);
+    tracker.setMaxStaleTime(-1);
+    tracker.setLastCommitTime(0);
+  }
+}
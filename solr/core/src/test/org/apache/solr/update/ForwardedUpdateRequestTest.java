@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.client.solrj.request.JavaBinUpdateRequestCodec;
+import org.apache.solr.client.solrj.request.RequestWriter;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.ModifiableSolrParams;
+
+public class ForwardedUpdateRequestTest extends SolrTestCase {
+
+  public void testEncodedOnce() throws Exception {
+    ForwardedUpdateRequest req = new ForwardedUpdateRequest();
+    req.setParams(new ModifiableSolrParams().set("update.distrib", "FROMLEADER"));
+    SolrInputDocument doc = new SolrInputDocument();
+    doc.addField("id", "1");
+    doc.addField("title", "forwarded");
+    req.add(doc, 1000, true);
+    req.lastDocInBatch();
+
+    byte[] encoded = req.getEncoded();
+    assertSame(encoded, req.getEncoded());
+
+    // the cached bytes are what the plain javabin encoding would produce
+    UpdateRequest plain = new UpdateRequest();
+    plain.setParams(req.getParams());
+    plain.add(doc, 1000, true);
+    plain.lastDocInBatch();
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    new JavaBinUpdateRequestCodec().marshal(plain, expected);
+    assertArrayEquals(expected.toByteArray(), encoded);
+
+    // and they are written to every stream
+    RequestWriter writer = new ForwardedUpdateRequest.Writer();
+    for (int i = 0; i < 2; i++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      writer.write(req, out);
+      assertArrayEquals(encoded, out.toByteArray());
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.getContentWriter(req).write(out);
+    assertArrayEquals(encoded, out.toByteArray());
+
+    List<SolrInputDocument> docs = new ArrayList<>();
+    new JavaBinUpdateRequestCodec()
+        .unmarshal(
+            new ByteArrayInputStream(encoded),
+            (document, r, commitWithin, overwrite) -> docs.add(document));
+    assertEquals(1, docs.size());
+    assertEquals("forwarded", docs.get(0).getFieldValue("title"));
+  }
+}
@@ -19,11 +19,16 @@ package org.apache.solr.update;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.apache.solr.SolrTestCase;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
 import org.apache.solr.update.TransactionLog.LogReader;
 import org.junit.Test;
 
@@ -71,4 +76,150 @@ public class TransactionLogTest extends SolrTestCase {
       assertEquals(uuid, (UUID) doc.getFieldValue("uuid"));
     }
   }
+
+  @Test
+  public void testConcurrentFsync() throws Exception {
+    String tlogFileName =
+        String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, 0L);
+    Path logFile = createTempDir().resolve(tlogFileName);
+    int numThreads = 4;
+    int numDocsPerThread = 50;
+    ExecutorService executor =
+        ExecutorUtil.newMDCAwareFixedThreadPool(
+            numThreads, new SolrNamedThreadFactory("testConcurrentFsync"));
+    try (TransactionLog tlog = new TransactionLog(logFile, null)) {
+      tlog.deleteOnClose = false;
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        final int thread = t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < numDocsPerThread; i++) {
+                    AddUpdateCommand updateCommand = new AddUpdateCommand(null);
+                    updateCommand.solrDoc = new SolrInputDocument();
+                    updateCommand.solrDoc.addField("id", thread + "_" + i);
+                    tlog.write(updateCommand);
+                    // each request shares an fsync with whoever else is finishing
+                    tlog.finish(UpdateLog.SyncLevel.FSYNC);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+
+    try (TransactionLog tlog = new TransactionLog(logFile, null, true)) {
+      LogReader reader = tlog.getReader(0);
+      int count = 0;
+      while (reader.next() != null) {
+        count++;
+      }
+      reader.close();
+      assertEquals(numThreads * numDocsPerThread, count);
+    }
+  }
+
+  @Test
+  public void testMappedReads() throws Exception {
+    String tlogFileName =
+        String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, 0L);
+    Path logFile = createTempDir().resolve(tlogFileName);
+    String text = "x".repeat(1024);
+    int numDocs = 3000; // enough to get past the mapped prefix of the log, and remap it once
+    try (TransactionLog tlog = new TransactionLog(logFile, null)) {
+      tlog.enableMappedReads();
+      List<Long> positions = new ArrayList<>();
+      for (int i = 0; i < numDocs; i++) {
+        AddUpdateCommand updateCommand = new AddUpdateCommand(null);
+        updateCommand.solrDoc = new SolrInputDocument();
+        updateCommand.solrDoc.addField("id", Integer.toString(i));
+        updateCommand.solrDoc.addField("text", text);
+        updateCommand.setVersion(i + 1);
+        positions.add(tlog.write(updateCommand));
+        if (i % 500 == 0) {
+          // a lookup of the latest record, which may be past the current mapping
+          assertEquals((long) (i + 1), ((List<?>) tlog.lookup(positions.get(i))).get(1));
+        }
+      }
+      assertTrue(tlog.getLogSize() > 2 * TransactionLog.MIN_MAPPED_SIZE);
+
+      for (int i = 0; i < numDocs; i += 97) {
+        List<?> entry = (List<?>) tlog.lookup(positions.get(i));
+        assertEquals((long) (i + 1), entry.get(UpdateLog.VERSION_IDX));
+        SolrInputDocument doc = (SolrInputDocument) entry.get(2);
+        assertEquals(Integer.toString(i), doc.getFieldValue("id"));
+      }
+
+      LogReader reader = tlog.getReader(0);
+      long version = 0;
+      Object o;
+      while ((o = reader.next()) != null) {
+        assertEquals(++version, ((List<?>) o).get(UpdateLog.VERSION_IDX));
+      }
+      reader.close();
+      assertEquals(numDocs, version);
+
+      TransactionLog.ReverseReader reverseReader = tlog.getReverseReader();
+      while ((o = reverseReader.next()) != null) {
+        assertEquals(version--, ((List<?>) o).get(UpdateLog.VERSION_IDX));
+      }
+      reverseReader.close();
+      assertEquals(0, version);
+    }
+  }
+
+  @Test
+  public void testConcurrentRemapping() throws Exception {
+    String tlogFileName =
+        String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, 0L);
+    Path logFile = createTempDir().resolve(tlogFileName);
+    String text = "x".repeat(1024);
+    int numThreads = 4;
+    ExecutorService executor =
+        ExecutorUtil.newMDCAwareFixedThreadPool(
+            numThreads, new SolrNamedThreadFactory("testConcurrentRemapping"));
+    TransactionLog tlog = new TransactionLog(logFile, null);
+    try {
+      tlog.enableMappedReads();
+      List<Long> positions = new ArrayList<>();
+      for (int i = 0; i < 5000; i++) {
+        AddUpdateCommand updateCommand = new AddUpdateCommand(null);
+        updateCommand.solrDoc = new SolrInputDocument();
+        updateCommand.solrDoc.addField("id", Integer.toString(i));
+        updateCommand.solrDoc.addField("text", text);
+        updateCommand.setVersion(i + 1);
+        positions.add(tlog.write(updateCommand));
+        if (i % 250 == 249) {
+          // readers racing to remap the grown log
+          List<Future<?>> futures = new ArrayList<>();
+          for (int t = 0; t < numThreads; t++) {
+            final int doc = random().nextInt(i + 1);
+            final long position = positions.get(doc);
+            futures.add(
+                executor.submit(
+                    () -> {
+                      List<?> entry = (List<?>) tlog.lookup(position);
+                      assertEquals((long) (doc + 1), entry.get(UpdateLog.VERSION_IDX));
+                    }));
+          }
+          for (Future<?> future : futures) {
+            future.get();
+          }
+        }
+      }
+      // each mapping is at least twice the size of the one before it
+      long maxMappings =
+          1 + (63 - Long.numberOfLeadingZeros(tlog.getLogSize() / TransactionLog.MIN_MAPPED_SIZE));
+      assertTrue(tlog.numMappings() > 0);
+      assertTrue(tlog.numMappings() <= maxMappings);
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+      tlog.decref();
+    }
+    assertEquals("mappings should be unmapped on close", 0, tlog.numMappings());
+  }
 }
@@ -25,6 +25,8 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.util.BytesRef;
 import org.apache.solr.SolrTestCaseJ4;
@@ -240,6 +242,60 @@ public class UpdateLogTest extends SolrTestCaseJ4 {
         ulog, null, sdoc("id", "1", "title_s", "title1", "val1_i_dvo", "1", "_version_", "100"));
   }
 
+  @Test
+  public void testLookupsDuringCommits() throws Exception {
+    final BytesRef indexedId = new BytesRef("2");
+    ulogAdd(ulog, null, sdoc("id", "2", "title_s", "title0", "_version_", "1000"));
+
+    // lookups don't take the monitor, but must never go back in time while the maps are swapped or
+    // cleared. Once they are cleared, a lookup misses and callers go to the realtime searcher.
+    final AtomicBoolean done = new AtomicBoolean();
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread reader =
+        new Thread(
+            () -> {
+              long lastVersion = 1000;
+              try {
+                while (!done.get()) {
+                  Long version = ulog.lookupVersion(indexedId);
+                  if (version != null) {
+                    assertTrue(version + " < " + lastVersion, version >= lastVersion);
+                    lastVersion = version;
+                  }
+                  List<?> entry = (List<?>) ulog.lookup(indexedId);
+                  if (entry != null) {
+                    assertTrue((Long) entry.get(UpdateLog.VERSION_IDX) >= lastVersion);
+                  }
+                }
+              } catch (Throwable t) {
+                failure.set(t);
+              }
+            });
+    reader.start();
+    try {
+      for (int i = 1; i <= 200; i++) {
+        ulogAdd(ulog, null, sdoc("id", "2", "title_s", "title" + i, "_version_", 1000 + i));
+        if (i % 10 == 0) {
+          ulogCommit(ulog);
+        } else if (i % 10 == 5) {
+          // both clear the maps
+          if (i % 20 == 5) {
+            ulogDelete(ulog, "nonexistent", 1000 + i, true);
+          } else {
+            ulog.openRealtimeSearcher();
+          }
+        }
+      }
+    } finally {
+      done.set(true);
+      reader.join();
+    }
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    assertEquals(1200L, ulog.lookupVersion(indexedId).longValue());
+  }
+
   /** Simulate a commit on a given updateLog */
   private static void ulogCommit(UpdateLog ulog) {
     try (SolrQueryRequest req = req()) {
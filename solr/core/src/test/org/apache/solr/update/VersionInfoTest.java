@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.update.processor.DistributedUpdateProcessor;
+import org.apache.solr.update.processor.RunUpdateProcessorFactory;
+import org.apache.solr.update.processor.UpdateRequestProcessor;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class VersionInfoTest extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig-tlog.xml", "schema-inplace-updates.xml");
+  }
+
+  @Test
+  public void testBatchVersionLookups() throws Exception {
+    clearIndex();
+    // spread the docs over a few segments, and overwrite some of them
+    for (int i = 0; i < 30; i++) {
+      assertU(adoc("id", Integer.toString(i)));
+      if (i % 10 == 9) {
+        assertU(commit());
+      }
+    }
+    assertU(adoc("id", "5"));
+    assertU(commit());
+
+    VersionInfo vinfo = h.getCore().getUpdateHandler().getUpdateLog().getVersionInfo();
+    List<BytesRef> ids = new ArrayList<>();
+    for (int i = 40; i >= 0; i -= 3) {
+      ids.add(new BytesRef(Integer.toString(i)));
+    }
+    VersionInfo.IndexVersions versions = vinfo.getVersionsFromIndex(ids);
+    assertEquals(ids.size(), versions.size());
+    for (BytesRef id : ids) {
+      assertEquals(
+          id.utf8ToString(),
+          vinfo.getVersionFromIndex(id),
+          vinfo.getVersionFromIndex(id, versions));
+    }
+    assertNull(vinfo.getVersionFromIndex(new BytesRef("40"), versions));
+
+    // once the realtime searcher changes, the prefetched versions aren't used anymore
+    BytesRef id7 = new BytesRef("7");
+    Long oldVersion = vinfo.getVersionFromIndex(id7, versions);
+    assertU(adoc("id", "7"));
+    assertU(commit());
+    Long newVersion = vinfo.getVersionFromIndex(id7, versions);
+    assertTrue(newVersion > oldVersion);
+    assertEquals(vinfo.getVersionFromIndex(id7), newVersion);
+    assertEquals(vinfo.lookupVersion(id7), vinfo.lookupVersion(id7, versions));
+  }
+
+  @Test
+  public void testAddBatchUsesPrefetchedVersions() throws Exception {
+    clearIndex();
+    for (int i = 0; i < 10; i++) {
+      assertU(adoc("id", Integer.toString(i)));
+    }
+    assertU(commit());
+    VersionInfo vinfo = h.getCore().getUpdateHandler().getUpdateLog().getVersionInfo();
+    long[] versions = new long[10];
+    for (int i = 0; i < 10; i++) {
+      versions[i] = vinfo.getVersionFromIndex(new BytesRef(Integer.toString(i)));
+    }
+
+    List<VersionInfo.IndexVersions> prefetched = new ArrayList<>();
+    try (SolrQueryRequest req = req()) {
+      SolrQueryResponse rsp = new SolrQueryResponse();
+      try (DistributedUpdateProcessor processor =
+          recordingPrefetches(
+              req, rsp, new RunUpdateProcessorFactory().getInstance(req, rsp, null), prefetched)) {
+        // optimistic concurrency: the versions must match those in the index
+        List<AddUpdateCommand> cmds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+          cmds.add(addCmd(req, sdoc("id", Integer.toString(i), "_version_", versions[i])));
+        }
+        cmds.add(addCmd(req, sdoc("id", "20", "_version_", -1L))); // must not exist yet
+        processor.processAddBatch(cmds);
+
+        // these docs are now in the update log, and their old versions conflict
+        SolrException e =
+            expectThrows(
+                SolrException.class,
+                () ->
+                    processor.processAddBatch(
+                        List.of(
+                            addCmd(req, sdoc("id", "3", "_version_", versions[3])),
+                            addCmd(req, sdoc("id", "4", "_version_", versions[4])))));
+        assertEquals(SolrException.ErrorCode.CONFLICT.code, e.code());
+        processor.finish();
+      }
+    }
+    assertEquals(2, prefetched.size());
+    assertEquals(11, prefetched.get(0).size());
+    assertEquals(11, prefetched.get(0).getHits());
+    assertEquals(0, prefetched.get(1).getHits());
+
+    assertU(commit());
+    assertJQ(req("q", "*:*"), "/response/numFound==11");
+    for (int i = 0; i < 10; i++) {
+      assertTrue(vinfo.getVersionFromIndex(new BytesRef(Integer.toString(i))) > versions[i]);
+    }
+  }
+
+  private static DistributedUpdateProcessor recordingPrefetches(
+      SolrQueryRequest req,
+      SolrQueryResponse rsp,
+      UpdateRequestProcessor next,
+      List<VersionInfo.IndexVersions> prefetched) {
+    return new DistributedUpdateProcessor(req, rsp, next) {
+      @Override
+      public VersionInfo.IndexVersions prefetchVersions(Collection<BytesRef> idBytes) {
+        VersionInfo.IndexVersions fetched = super.prefetchVersions(idBytes);
+        prefetched.add(fetched);
+        return fetched;
+      }
+    };
+  }
+
+  private static AddUpdateCommand addCmd(SolrQueryRequest req, SolrInputDocument doc) {
+    AddUpdateCommand cmd = new AddUpdateCommand(req);
+    cmd.solrDoc = doc;
+    return cmd;
+  }
+}
@@ -22,14 +22,21 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import org.apache.commons.io.file.PathUtils;
 import org.apache.lucene.tests.mockfile.FilterPath;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.request.LocalSolrQueryRequest;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.request.SolrRequestInfo;
+import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.update.AddUpdateCommand;
 import org.junit.After;
 import org.junit.Before;
 
@@ -87,6 +94,50 @@ public class AddSchemaFieldsUpdateProcessorFactoryTest extends UpdateProcessorTe
     assertEquals("pdates", schema.getFieldType(fieldName).getTypeName());
   }
 
+  public void testBatch() throws Exception {
+    IndexSchema schema = h.getCore().getLatestSchema();
+    final String fieldName1 = "newfieldBatch1";
+    final String fieldName2 = "newfieldBatch2";
+    assertNull(schema.getFieldOrNull(fieldName1));
+    assertNull(schema.getFieldOrNull(fieldName2));
+    UpdateRequestProcessorChain chain =
+        h.getCore().getUpdateProcessingChain("add-fields-no-run-processor");
+    UpdateRequestProcessorFactory factory =
+        chain.getProcessors().stream()
+            .filter(processor -> processor instanceof AddSchemaFieldsUpdateProcessorFactory)
+            .findFirst()
+            .orElseThrow();
+    List<Integer> batchSizes = new ArrayList<>();
+    SolrQueryResponse rsp = new SolrQueryResponse();
+    SolrQueryRequest req = new LocalSolrQueryRequest(h.getCore(), new ModifiableSolrParams());
+    try {
+      SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
+      UpdateRequestProcessor next =
+          new UpdateRequestProcessor(null) {
+            @Override
+            public void processAddBatch(List<AddUpdateCommand> cmds) {
+              batchSizes.add(cmds.size());
+            }
+          };
+      List<AddUpdateCommand> cmds = new ArrayList<>();
+      for (SolrInputDocument doc :
+          List.of(
+              doc(f("id", "1"), f(fieldName1, 1.5f)), doc(f("id", "2"), f(fieldName2, 2.5f)))) {
+        AddUpdateCommand cmd = new AddUpdateCommand(req);
+        cmd.solrDoc = doc;
+        cmds.add(cmd);
+      }
+      factory.getInstance(req, rsp, next).processAddBatch(cmds);
+    } finally {
+      SolrRequestInfo.clearRequestInfo();
+      req.close();
+    }
+    assertEquals(List.of(2), batchSizes);
+    schema = h.getCore().getLatestSchema();
+    assertEquals("pfloats", schema.getFieldType(fieldName1).getTypeName());
+    assertEquals("pfloats", schema.getFieldType(fieldName2).getTypeName());
+  }
+
   public void testSingleFieldRoundTrip() throws Exception {
     IndexSchema schema = h.getCore().getLatestSchema();
     final String fieldName = "newfield2";
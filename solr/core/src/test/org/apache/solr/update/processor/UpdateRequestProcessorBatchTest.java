@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.client.solrj.request.JavaBinUpdateRequestCodec;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.apache.solr.common.util.ContentStream;
+import org.apache.solr.common.util.ContentStreamBase;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.handler.loader.JavabinLoader;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.update.AddUpdateCommand;
+import org.apache.solr.update.VersionInfo;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Tests that batches of adds pass through the stock processors to the rest of the chain */
+public class UpdateRequestProcessorBatchTest extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig-tlog.xml", "schema-inplace-updates.xml");
+  }
+
+  @Test
+  public void testLoadedBatchReachesDistributedProcessor() throws Exception {
+    clearIndex();
+    int numDocs = 50;
+    for (int i = 0; i < numDocs; i++) {
+      assertU(adoc("id", Integer.toString(i)));
+    }
+    assertU(commit());
+    VersionInfo vinfo = h.getCore().getUpdateHandler().getUpdateLog().getVersionInfo();
+    UpdateRequest update = new UpdateRequest();
+    for (int i = 0; i < numDocs; i++) {
+      String id = Integer.toString(i);
+      update.add(sdoc("id", id, "_version_", vinfo.getVersionFromIndex(new BytesRef(id))));
+    }
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new JavaBinUpdateRequestCodec().marshal(update, os);
+
+    // the standard chain, but for recording the versions prefetched
+    LogUpdateProcessorFactory logFactory = new LogUpdateProcessorFactory();
+    logFactory.init(new NamedList<>(Map.of("slowUpdateThresholdMillis", 60000))); // always used
+    List<VersionInfo.IndexVersions> prefetched = new ArrayList<>();
+    UpdateRequestProcessorChain chain =
+        new UpdateRequestProcessorChain(
+            List.of(
+                logFactory,
+                new DistributedUpdateProcessorFactory() {
+                  @Override
+                  public UpdateRequestProcessor getInstance(
+                      SolrQueryRequest req, SolrQueryResponse rsp, UpdateRequestProcessor next) {
+                    return new DistributedUpdateProcessor(req, rsp, next) {
+                      @Override
+                      public VersionInfo.IndexVersions prefetchVersions(
+                          Collection<BytesRef> idBytes) {
+                        VersionInfo.IndexVersions fetched = super.prefetchVersions(idBytes);
+                        prefetched.add(fetched);
+                        return fetched;
+                      }
+                    };
+                  }
+                },
+                new RunUpdateProcessorFactory()),
+            h.getCore());
+    try (SolrQueryRequest req = req()) {
+      SolrQueryResponse rsp = new SolrQueryResponse();
+      UpdateRequestProcessor processor = chain.createProcessor(req, rsp);
+      assertEquals("LogUpdateProcessor", processor.getClass().getSimpleName());
+      ContentStream stream = new ContentStreamBase.ByteArrayStream(os.toByteArray(), "test");
+      new JavabinLoader().load(req, rsp, stream, processor);
+      processor.finish();
+      processor.close();
+    }
+    assertEquals(1, prefetched.size());
+    assertEquals(numDocs, prefetched.get(0).getHits());
+
+    assertU(commit());
+    assertJQ(req("q", "*:*"), "/response/numFound==" + numDocs);
+  }
+
+  @Test
+  public void testStockProcessorsPassBatchOn() throws Exception {
+    TrimFieldUpdateProcessorFactory trim = new TrimFieldUpdateProcessorFactory();
+    trim.init(new NamedList<>(Map.of("fieldName", "title_s")));
+    trim.inform(h.getCore());
+    DefaultValueUpdateProcessorFactory defaultValue = new DefaultValueUpdateProcessorFactory();
+    defaultValue.init(new NamedList<>(Map.of("fieldName", "default_s", "value", "x")));
+    TemplateUpdateProcessorFactory template = new TemplateUpdateProcessorFactory();
+    template.init(new NamedList<>());
+    FieldNameMutatingUpdateProcessorFactory rename = new FieldNameMutatingUpdateProcessorFactory();
+    rename.init(new NamedList<>(Map.of("pattern", "^old_", "replacement", "new_")));
+    List<Integer> batchSizes = new ArrayList<>();
+    UpdateRequestProcessorChain chain =
+        new UpdateRequestProcessorChain(
+            List.of(trim, defaultValue, template, rename, recording(batchSizes)), h.getCore());
+
+    List<AddUpdateCommand> cmds = new ArrayList<>();
+    try (SolrQueryRequest req = req("template.field", "copy_s:{id}")) {
+      for (int i = 0; i < 3; i++) {
+        cmds.add(addCmd(req, sdoc("id", Integer.toString(i), "title_s", " a ", "old_s", "v")));
+      }
+      chain.createProcessor(req, new SolrQueryResponse()).processAddBatch(cmds);
+    }
+    // the documents were prepared by every processor, and reached the end as a single batch
+    assertEquals(List.of(3), batchSizes);
+    for (int i = 0; i < 3; i++) {
+      SolrInputDocument doc = cmds.get(i).solrDoc;
+      assertEquals("a", doc.getFieldValue("title_s"));
+      assertEquals("x", doc.getFieldValue("default_s"));
+      assertEquals(Integer.toString(i), doc.getFieldValue("copy_s"));
+      assertEquals("v", doc.getFieldValue("new_s"));
+      assertNull(doc.getFieldValue("old_s"));
+    }
+  }
+
+  @Test
+  public void testProcessAddOverrideSeesBatchedDocs() throws Exception {
+    List<String> seen = new ArrayList<>();
+    List<Integer> batchSizes = new ArrayList<>();
+    try (SolrQueryRequest req = req()) {
+      SolrQueryResponse rsp = new SolrQueryResponse();
+      UpdateRequestProcessor processor =
+          new FieldMutatingUpdateProcessor(
+              FieldMutatingUpdateProcessor.SELECT_ALL_FIELDS,
+              recording(batchSizes).getInstance(req, rsp, null)) {
+            @Override
+            protected SolrInputField mutate(SolrInputField src) {
+              return src;
+            }
+
+            @Override
+            public void processAdd(AddUpdateCommand cmd) throws IOException {
+              seen.add((String) cmd.solrDoc.getFieldValue("id"));
+              super.processAdd(cmd);
+            }
+          };
+      processor.processAddBatch(
+          List.of(addCmd(req, sdoc("id", "1")), addCmd(req, sdoc("id", "2"))));
+    }
+    // a subclass only overriding processAdd still sees every document
+    assertEquals(List.of("1", "2"), seen);
+    assertEquals(List.of(1, 1), batchSizes);
+  }
+
+  /** Records the number of documents of each add that reaches it */
+  private static UpdateRequestProcessorFactory recording(List<Integer> batchSizes) {
+    return new UpdateRequestProcessorFactory() {
+      @Override
+      public UpdateRequestProcessor getInstance(
+          SolrQueryRequest req, SolrQueryResponse rsp, UpdateRequestProcessor next) {
+        return new UpdateRequestProcessor(next) {
+          @Override
+          public void processAdd(AddUpdateCommand cmd) {
+            batchSizes.add(1);
+          }
+
+          @Override
+          public void processAddBatch(List<AddUpdateCommand> cmds) {
+            batchSizes.add(cmds.size());
+          }
+        };
+      }
+    };
+  }
+
+  private static AddUpdateCommand addCmd(SolrQueryRequest req, SolrInputDocument doc) {
+    AddUpdateCommand cmd = new AddUpdateCommand(req);
+    cmd.solrDoc = doc;
+    return cmd;
+  }
+}
@@ -17,11 +17,13 @@
 package org.apache.solr.languagemodels.textvectorisation.model;
 
 import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import org.apache.lucene.util.Accountable;
@@ -142,6 +144,23 @@ public class SolrTextToVectorModel implements Accountable {
     return vector.vector();
   }
 
+  /**
+   * Encodes many texts at once, which lets models backed by a remote service do it in fewer
+   * requests.
+   */
+  public List<float[]> vectoriseAll(List<String> texts) {
+    List<TextSegment> segments = new ArrayList<>(texts.size());
+    for (String text : texts) {
+      segments.add(TextSegment.from(text));
+    }
+    List<Embedding> vectors = textToVector.embedAll(segments).content();
+    List<float[]> result = new ArrayList<>(vectors.size());
+    for (Embedding vector : vectors) {
+      result.add(vector.vector());
+    }
+    return result;
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "(name=" + getName() + ")";
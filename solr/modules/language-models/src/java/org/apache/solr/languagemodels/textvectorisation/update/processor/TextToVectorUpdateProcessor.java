@@ -63,29 +63,78 @@ class TextToVectorUpdateProcessor extends UpdateRequestProcessor {
     SolrInputField inputFieldContent = doc.get(inputField);
     if (!isNullOrEmpty(inputFieldContent)) {
       try {
-        String textToVectorise = inputFieldContent.getValue().toString();
-        float[] vector = textToVector.vectorise(textToVectorise);
-        List<Float> vectorAsList = new ArrayList<Float>(vector.length);
-        for (float f : vector) {
-          vectorAsList.add(f);
-        }
-        doc.setField(outputField, vectorAsList);
+        setVector(doc, textToVector.vectorise(inputFieldContent.getValue().toString()));
       } catch (RuntimeException vectorisationFailure) {
-        if (log.isErrorEnabled()) {
-          SchemaField uniqueKeyField = schema.getUniqueKeyField();
-          String uniqueKeyFieldName = uniqueKeyField.getName();
-          log.error(
-              "Could not vectorise: {} for the document with {}: {}",
-              inputField,
-              uniqueKeyFieldName,
-              doc.getFieldValue(uniqueKeyFieldName),
-              vectorisationFailure);
-        }
+        logFailure(doc, vectorisationFailure);
       }
     }
     super.processAdd(cmd);
   }
 
+  /**
+   * Vectorises the input fields of all the documents with one call to the model. If that fails, the
+   * documents are vectorised one at a time, so that only those that can't be lack a vector.
+   *
+   * @param cmds the update commands in input containing the Documents to process
+   * @throws IOException If there is a low-level I/O error
+   */
+  @Override
+  public void processAddBatch(List<AddUpdateCommand> cmds) throws IOException {
+    List<SolrInputDocument> docs = new ArrayList<>(cmds.size());
+    List<String> textsToVectorise = new ArrayList<>(cmds.size());
+    for (AddUpdateCommand cmd : cmds) {
+      SolrInputDocument doc = cmd.getSolrInputDocument();
+      SolrInputField inputFieldContent = doc.get(inputField);
+      if (!isNullOrEmpty(inputFieldContent)) {
+        docs.add(doc);
+        textsToVectorise.add(inputFieldContent.getValue().toString());
+      }
+    }
+    if (!docs.isEmpty()) {
+      List<float[]> vectors = null;
+      try {
+        vectors = textToVector.vectoriseAll(textsToVectorise);
+      } catch (RuntimeException vectorisationFailure) {
+        log.warn(
+            "Could not vectorise {} documents at once, retrying each",
+            docs.size(),
+            vectorisationFailure);
+      }
+      for (int i = 0; i < docs.size(); i++) {
+        SolrInputDocument doc = docs.get(i);
+        try {
+          setVector(
+              doc,
+              vectors != null ? vectors.get(i) : textToVector.vectorise(textsToVectorise.get(i)));
+        } catch (RuntimeException vectorisationFailure) {
+          logFailure(doc, vectorisationFailure);
+        }
+      }
+    }
+    if (next != null) next.processAddBatch(cmds);
+  }
+
+  private void setVector(SolrInputDocument doc, float[] vector) {
+    List<Float> vectorAsList = new ArrayList<Float>(vector.length);
+    for (float f : vector) {
+      vectorAsList.add(f);
+    }
+    doc.setField(outputField, vectorAsList);
+  }
+
+  private void logFailure(SolrInputDocument doc, RuntimeException vectorisationFailure) {
+    if (log.isErrorEnabled()) {
+      SchemaField uniqueKeyField = schema.getUniqueKeyField();
+      String uniqueKeyFieldName = uniqueKeyField.getName();
+      log.error(
+          "Could not vectorise: {} for the document with {}: {}",
+          inputField,
+          uniqueKeyFieldName,
+          doc.getFieldValue(uniqueKeyFieldName),
+          vectorisationFailure);
+    }
+  }
+
   protected boolean isNullOrEmpty(SolrInputField inputFieldContent) {
     return (inputFieldContent == null
         || inputFieldContent.getValue() == null
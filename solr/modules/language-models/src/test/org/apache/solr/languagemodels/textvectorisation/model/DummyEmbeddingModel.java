@@ -22,8 +22,15 @@ import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DummyEmbeddingModel implements EmbeddingModel {
+  /** Calls embedding a single text, so tests can tell them from batched ones */
+  public static final AtomicInteger embedCalls = new AtomicInteger();
+
+  /** Calls embedding many texts at once */
+  public static final AtomicInteger embedAllCalls = new AtomicInteger();
+
   final float[] embedding;
 
   public DummyEmbeddingModel(float[] embedding) {
@@ -32,19 +39,26 @@ public class DummyEmbeddingModel implements EmbeddingModel {
 
   @Override
   public Response<Embedding> embed(String text) {
+    embedCalls.incrementAndGet();
     Embedding dummy = new Embedding(embedding);
     return new Response<Embedding>(dummy);
   }
 
   @Override
   public Response<Embedding> embed(TextSegment textSegment) {
+    embedCalls.incrementAndGet();
     Embedding dummy = new Embedding(embedding);
     return new Response<Embedding>(dummy);
   }
 
   @Override
   public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
-    return null;
+    embedAllCalls.incrementAndGet();
+    List<Embedding> dummies = new ArrayList<>(textSegments.size());
+    for (int i = 0; i < textSegments.size(); i++) {
+      dummies.add(new Embedding(embedding));
+    }
+    return new Response<List<Embedding>>(dummies);
   }
 
   @Override
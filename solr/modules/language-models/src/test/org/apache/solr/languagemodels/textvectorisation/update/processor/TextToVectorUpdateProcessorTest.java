@@ -24,6 +24,7 @@ import org.apache.solr.client.solrj.request.SolrQuery;
 import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.languagemodels.TestLanguageModelBase;
+import org.apache.solr.languagemodels.textvectorisation.model.DummyEmbeddingModel;
 import org.apache.solr.languagemodels.textvectorisation.store.rest.ManagedTextToVectorModelStore;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -72,6 +73,40 @@ public class TextToVectorUpdateProcessorTest extends TestLanguageModelBase {
     restTestHarness.delete(ManagedTextToVectorModelStore.REST_END_POINT + "/dummy-1"); // clean up
   }
 
+  @Test
+  public void processAddBatch_inputFields_shouldVectoriseAllInputFields() throws Exception {
+    loadModel("dummy-model.json"); // preparation
+    DummyEmbeddingModel.embedCalls.set(0);
+    DummyEmbeddingModel.embedAllCalls.set(0);
+
+    // the documents of a request reach the chain in one batch, vectorised with one call
+    updateJ(
+        json(
+            "["
+                + "{'id':'99', '_text_':'Vegeta is the saiyan prince.'},"
+                + "{'id':'98', '_text_':''},"
+                + "{'id':'97', '_text_':'Kakaroth is a saiyan grown up on planet Earth.'}"
+                + "]"),
+        params("update.chain", "textToVector"));
+    assertU(commit());
+    assertEquals(1, DummyEmbeddingModel.embedAllCalls.get());
+    assertEquals(0, DummyEmbeddingModel.embedCalls.get());
+
+    final SolrQuery query = getSolrQuery();
+
+    assertJQ(
+        "/query" + query.toQueryString(),
+        "/response/numFound==3]",
+        "/response/docs/[0]/id=='99'",
+        "/response/docs/[0]/vector==[1.0, 2.0, 3.0, 4.0]",
+        "/response/docs/[1]/id=='98'",
+        "!/response/docs/[1]/vector==", // no vector field for the document 98
+        "/response/docs/[2]/id=='97'",
+        "/response/docs/[2]/vector==[1.0, 2.0, 3.0, 4.0]");
+
+    restTestHarness.delete(ManagedTextToVectorModelStore.REST_END_POINT + "/dummy-1"); // clean up
+  }
+
   private SolrQuery getSolrQuery() {
     final String solrQuery = "*:*";
     final SolrQuery query = new SolrQuery();
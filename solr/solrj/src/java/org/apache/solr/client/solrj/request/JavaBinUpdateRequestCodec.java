@@ -45,6 +45,19 @@ import org.apache.solr.common.util.NamedList;
  */
 public class JavaBinUpdateRequestCodec {
 
+  private JavaBinCodec.StringCache externStringCache;
+
+  /**
+   * Sets a cache for the field names read by {@link #unmarshal(InputStream,
+   * StreamingUpdateHandler)}. An instance reused for a stream of update requests, such as the
+   * single-document requests a leader forwards to its replicas, then decodes each field name once
+   * instead of once per request.
+   */
+  public JavaBinUpdateRequestCodec setExternStringCache(JavaBinCodec.StringCache cache) {
+    this.externStringCache = cache;
+    return this;
+  }
+
   /**
    * Converts an UpdateRequest to a NamedList which can be serialized to the given OutputStream in
    * the javabin format
@@ -101,19 +114,23 @@ public class JavaBinUpdateRequestCodec {
   public UpdateRequest unmarshal(InputStream is, final StreamingUpdateHandler handler)
       throws IOException {
     final NamedList<Object> namedList;
+    UpdateRequest updateRequest;
 
     // process documents:
 
     // reads documents, sending to handler.  Other data is in NamedList
     try (var codec = new StreamingCodec(handler)) {
       codec.readMapAsNamedList(false);
+      codec.setExternStringCache(externStringCache);
       namedList = codec.unmarshal(is);
+      // already has the params, if there were documents
+      updateRequest = codec.docsUpdateRequest;
     }
 
     // process deletes:
 
-    final UpdateRequest updateRequest = new UpdateRequest();
-    {
+    if (updateRequest == null) {
+      updateRequest = new UpdateRequest();
       NamedList<?> params = (NamedList<?>) namedList.get("params");
       if (params != null) {
         updateRequest.setParams(ModifiableSolrParams.of(params.toSolrParams()));
@@ -172,6 +189,7 @@ public class JavaBinUpdateRequestCodec {
     // which will only ever be used on a single stream -- if this class
     // is ever refactored, this will not work.
     private boolean seenOuterMostDocIterator = false;
+    private UpdateRequest docsUpdateRequest;
 
     StreamingCodec(StreamingUpdateHandler handler) {
       this.handler = handler;
@@ -223,6 +241,7 @@ public class JavaBinUpdateRequestCodec {
       if (params != null) {
         updateRequest.setParams(ModifiableSolrParams.of(params.toSolrParams()));
       }
+      docsUpdateRequest = updateRequest;
 
       Object o = readVal(fis);
       while (o != END_OBJ) {
@@ -63,6 +63,15 @@ public interface ShardParams {
   /** query purpose for shard requests */
   String SHARDS_PURPOSE = "shards.purpose";
 
+  /** Send a second request to another replica of a shard that is slow to answer? (true/false) */
+  String SHARDS_HEDGE = "shards.hedge";
+
+  /** How long to wait for a shard before hedging, in ms; derived from response times if unset */
+  String SHARDS_HEDGE_DELAY = "shards.hedge.delay";
+
+  /** The percentile of recent shard response times to wait for before hedging; 95 by default */
+  String SHARDS_HEDGE_PERCENTILE = "shards.hedge.percentile";
+
   /** Shards sorting rules */
   String SHARDS_PREFERENCE = "shards.preference";
 
@@ -93,6 +102,9 @@ public interface ShardParams {
   /** Value denoting stable replica sort */
   String REPLICA_STABLE = "stable";
 
+  /** Value denoting replica sort by recent response times */
+  String REPLICA_ADAPTIVE = "adaptive";
+
   /** configure dividend param for stable replica sort */
   String ROUTING_DIVIDEND = "dividend";
 
@@ -104,6 +116,21 @@ public interface ShardParams {
   /** Force a single-pass distributed query? (true/false) */
   String DISTRIB_SINGLE_PASS = "distrib.singlePass";
 
+  /**
+   * When {@value #DISTRIB_SINGLE_PASS} is not set, run a single-pass distributed query if no more
+   * than this many rows (start+rows) are requested from each shard. 0, the default, disables this.
+   */
+  String DISTRIB_SINGLE_PASS_MAX_ROWS = "distrib.singlePass.maxRows";
+
+  /**
+   * Ask the shards for their top scores before running a query sorted by score, so that they only
+   * return the docs that can make the merged top docs? (true/false)
+   */
+  String DISTRIB_SCORE_BOUNDS = "distrib.scoreBounds";
+
+  /** The lowest score of the docs a shard returns, as found by {@link #DISTRIB_SCORE_BOUNDS} */
+  String DISTRIB_MIN_SCORE = "distrib.minScore";
+
   /**
    * Throw an error from search requests when the {@value ShardParams#SHARDS_TOLERANT} param has
    * this value and ZooKeeper is not connected.
@@ -119,6 +119,7 @@ public class JavaBinCodec implements PushWriter {
   private final ObjectResolver resolver;
   protected FastOutputStream daos;
   private StringCache stringCache;
+  private StringCache externStringCache;
   private WritableDocFields writableDocFields;
   private boolean alreadyMarshalled;
   private boolean alreadyUnmarshalled;
@@ -161,6 +162,16 @@ public class JavaBinCodec implements PushWriter {
     this.stringCache = stringCache;
   }
 
+  /**
+   * Sets a cache for the extern strings, such as the field names of documents, read by this codec.
+   * Sharing one between the codecs reading a series of javabin messages means each name is only
+   * decoded once rather than once per message. If not set, the string cache is used.
+   */
+  public JavaBinCodec setExternStringCache(StringCache externStringCache) {
+    this.externStringCache = externStringCache;
+    return this;
+  }
+
   public ObjectResolver getResolver() {
     return resolver;
   }
@@ -1380,7 +1391,8 @@ public class JavaBinCodec implements PushWriter {
       return stringsList.get(idx - 1);
     } else { // idx == 0 means it has a string value
       tagByte = fis.readByte();
-      CharSequence s = readStr(fis, stringCache, false);
+      CharSequence s =
+          readStr(fis, externStringCache != null ? externStringCache : stringCache, false);
       if (s != null) s = s.toString();
       if (stringsList == null) stringsList = new ArrayList<>();
       stringsList.add(s);
@@ -68,12 +68,24 @@ public class ShardParamsTest extends SolrTestCase {
     assertEquals(ShardParams.SHARDS_PURPOSE, "shards.purpose");
   }
 
+  public void testShardsHedge() {
+    assertEquals(ShardParams.SHARDS_HEDGE, "shards.hedge");
+    assertEquals(ShardParams.SHARDS_HEDGE_DELAY, "shards.hedge.delay");
+    assertEquals(ShardParams.SHARDS_HEDGE_PERCENTILE, "shards.hedge.percentile");
+  }
+
   public void testRoute() {
     assertEquals(ShardParams._ROUTE_, "_route_");
   }
 
   public void testDistribSinglePass() {
     assertEquals(ShardParams.DISTRIB_SINGLE_PASS, "distrib.singlePass");
+    assertEquals(ShardParams.DISTRIB_SINGLE_PASS_MAX_ROWS, "distrib.singlePass.maxRows");
+  }
+
+  public void testDistribScoreBounds() {
+    assertEquals(ShardParams.DISTRIB_SCORE_BOUNDS, "distrib.scoreBounds");
+    assertEquals(ShardParams.DISTRIB_MIN_SCORE, "distrib.minScore");
   }
 
   @Test